@@ -0,0 +1,37 @@
+package com.example.chatapp.config;
+
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+/**
+ * Düğümler arası teslim. Varsayılan "local" taşıma aynı JVM içindeki düğümleri bağlar;
+ * gerçek bir taşıma (Redis, TCP vb.) cluster.transport ile seçilip ClusterBus ve UserNodeRegistry bean'lerini sağlar.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "local", matchIfMissing = true)
+public class ClusterConfig {
+
+    @Value("${cluster.name:chatapp}")
+    private String clusterName;
+
+    @Value("${cluster.node-id:}")
+    private String nodeId;
+
+    // Aynı zamanda UserNodeRegistry
+    @Bean
+    public LocalClusterHub localClusterHub() {
+        return LocalClusterHub.named(clusterName);
+    }
+
+    // Kapatılınca (close) düğüm kümeden ayrılır; son düğüm ayrılınca hub da bırakılır
+    @Bean
+    public ClusterBus clusterBus(LocalClusterHub localClusterHub) {
+        return localClusterHub.join(nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.chatapp.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Controller metodlarında oturum açmış kullanıcının {@link com.example.chatapp.model.User} entity'sini enjekte eder.
+ * Kullanıcı istek başına en fazla bir kez yüklenir, bkz. {@link CurrentUserArgumentResolver}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -1,8 +1,13 @@
 package com.example.chatapp.config;
 
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
 import com.example.chatapp.service.AdminDetailsServiceImpl;
 import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.TokenRevocationService;
 import com.example.chatapp.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +23,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,14 +32,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
     private final AdminDetailsServiceImpl adminDetailsService;
+    private final TokenRevocationService tokenRevocationService;
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     public JwtAuthenticationFilter(JwtService jwtService,
                                    @Qualifier("userDetailsServiceImpl") UserDetailsServiceImpl userDetailsService,
-                                   @Qualifier("adminDetailsServiceImpl") AdminDetailsServiceImpl adminDetailsService) {
+                                   @Qualifier("adminDetailsServiceImpl") AdminDetailsServiceImpl adminDetailsService,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.adminDetailsService = adminDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -40,57 +50,77 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        // Bazı URL'ler için filtreyi atlayalım
+        // Bazı URL'ler için filtreyi atlayalım (/ws-chat/ bağlantısı STOMP CONNECT çerçevesinde doğrulanır)
         final String requestPath = request.getServletPath();
         if (requestPath.equals("/user/login") || 
             requestPath.equals("/user/register") || 
-            requestPath.startsWith("/admin/") ||
+            requestPath.equals("/admin/login") ||
+            requestPath.equals("/admin/register") ||
             requestPath.startsWith("/ws-chat/")) {
             filterChain.doFilter(request, response);
             return;
         }
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        final String jwt = authHeader.substring(7);
+        final Claims claims;
+
+        // Token tek seferde doğrulanır; aynı token tekrar gelirse imza kontrolü önbellekten atlanır
+        try {
+            claims = jwtService.validateToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Geçersiz veya süresi dolmuş token: {}", e.getMessage());
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.getWriter().write("Invalid or expired token");
+            return;
+        }
+
+        // Çıkış yapılmış veya tüm oturumları kapatılmış kullanıcının token'ı
+        if (tokenRevocationService.isRevoked(claims)) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.getWriter().write("Token has been revoked");
+            return;
+        }
+
+        final String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            try {
-                UserDetails userDetails;
-
-                try {
-                    userDetails = userDetailsService.loadUserByUsername(username);
-                } catch (Exception ex) {
-                    userDetails = adminDetailsService.loadUserByUsername(username);
-                }
-
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                } else {
-                    logger.warn("Geçersiz veya süresi dolmuş token: {}", username);
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.getWriter().write("Invalid or expired token");
-                    return;
-                }
-            } catch (Exception e) {
-                logger.error("JWT doğrulama hatası: {}", e.getMessage());
+            // Rol claim'i doğru depoyu seçer; exception ile depo denemesi yapılmaz
+            Optional<UserDetails> userDetails = resolvePrincipal(username, jwtService.extractRole(claims), request);
+
+            if (userDetails.isEmpty()) {
+                logger.warn("Token sahibi bulunamadı: {}", username);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("Authentication failed");
                 return;
             }
+
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userDetails.get(), null, userDetails.get().getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private Optional<UserDetails> resolvePrincipal(String username, Role role, HttpServletRequest request) {
+        if (role == Role.ADMIN) {
+            return adminDetailsService.findAdminByUsername(username);
+        }
+        // Principal önbellekte değilse yüklenen kullanıcı @CurrentUser için isteğe bırakılır
+        Consumer<User> keepForRequest = user -> request.setAttribute(CurrentUserArgumentResolver.CURRENT_USER_ATTRIBUTE, user);
+        if (role == Role.USER) {
+            return userDetailsService.findUserByUsername(username, keepForRequest);
+        }
+        // Rol claim'i olmayan eski token'lar: önce kullanıcı, sonra admin deposu
+        return userDetailsService.findUserByUsername(username, keepForRequest)
+                .or(() -> adminDetailsService.findAdminByUsername(username));
+    }
 }
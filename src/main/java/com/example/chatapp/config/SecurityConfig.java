@@ -2,8 +2,10 @@ package com.example.chatapp.config;
 
 import com.example.chatapp.service.AdminDetailsServiceImpl;
 import com.example.chatapp.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -40,12 +42,16 @@ public class SecurityConfig {
             .cors().and()
             .csrf().disable()
             .authorizeHttpRequests()
+            // Hata yönlendirmesi (/error); asıl isteğin durum kodu (ör. 503) 403'e dönüşmesin
+            .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
             // Public endpoints
             .requestMatchers("/user/login", "/user/register").permitAll()
             .requestMatchers("/admin/login", "/admin/register").permitAll()
             // Dosyalara erişim
             .requestMatchers("/user/images/**").permitAll()
             .requestMatchers("/uploads/**").permitAll()
+            // WebSocket el sıkışması; kimlik STOMP CONNECT çerçevesinde doğrulanır
+            .requestMatchers("/ws-chat/**", "/ws-chat-native").permitAll()
             // Other endpoints requires authentication
             .anyRequest().authenticated()
             .and()
@@ -56,9 +62,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
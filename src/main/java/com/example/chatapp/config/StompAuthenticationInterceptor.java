@@ -0,0 +1,132 @@
+package com.example.chatapp.config;
+
+import com.example.chatapp.model.AuthenticatedUser;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.TokenRevocationService;
+import com.example.chatapp.service.UserDetailsServiceImpl;
+import com.example.chatapp.websocket.StompPrincipalRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * STOMP bağlantısını CONNECT çerçevesinde bir kez doğrular.
+ * İstemci JWT'yi "Authorization: Bearer ..." native başlığında gönderir. Token ve iptal kontrolünden sonra
+ * kullanıcı id'si, "device-id" başlığındaki cihaz kimliği ve sohbet üyelikleri ile bir StompPrincipal oluşturulup oturuma bağlanır.
+ * Sonraki çerçeveler yalnızca oturumda principal olup olmadığına ve hedef adresin önekine bakar; imza ya da veritabanı
+ * kontrolü yapılmaz. SEND yalnızca /app/ uçlarına, SUBSCRIBE yalnızca /user/ adreslerine izinlidir.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthenticationInterceptor.class);
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String DEVICE_ID_HEADER = "device-id";
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+    private static final String APP_DESTINATION_PREFIX = "/app/";
+
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ChatRepository chatRepository;
+    private final StompPrincipalRegistry principalRegistry;
+
+    public StompAuthenticationInterceptor(JwtService jwtService,
+                                          TokenRevocationService tokenRevocationService,
+                                          UserDetailsServiceImpl userDetailsService,
+                                          ChatRepository chatRepository,
+                                          StompPrincipalRegistry principalRegistry) {
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsService = userDetailsService;
+        this.chatRepository = chatRepository;
+        this.principalRegistry = principalRegistry;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> {
+                StompPrincipal principal = authenticate(message, accessor.getFirstNativeHeader(AUTHORIZATION_HEADER),
+                        accessor.getFirstNativeHeader(DEVICE_ID_HEADER));
+                accessor.setUser(principal);
+                principalRegistry.register(accessor.getSessionId(), principal);
+            }
+            case SEND -> {
+                requirePrincipal(message, accessor);
+                // İstemci yalnızca uygulama uçlarına yazar; /user/{başkası}/... ya da /queue/... adresine doğrudan
+                // gönderim başka kullanıcının kuyruğuna sahte mesaj bırakırdı
+                String destination = accessor.getDestination();
+                if (destination == null || !destination.startsWith(APP_DESTINATION_PREFIX)) {
+                    throw new MessageDeliveryException(message, "Bu adrese mesaj gönderilemez: " + destination);
+                }
+            }
+            case SUBSCRIBE -> {
+                requirePrincipal(message, accessor);
+                // Başka bir oturumun /queue/...-user{id} adresine doğrudan abone olunmasını engeller
+                String destination = accessor.getDestination();
+                if (destination == null || !destination.startsWith(USER_DESTINATION_PREFIX)) {
+                    throw new MessageDeliveryException(message, "Bu adrese abone olunamaz: " + destination);
+                }
+            }
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private StompPrincipal authenticate(Message<?> message, String authHeader, String deviceId) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new MessageDeliveryException(message, "Token bulunamadı");
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.validateToken(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("STOMP bağlantısında geçersiz token: {}", e.getMessage());
+            throw new MessageDeliveryException(message, "Geçersiz veya süresi dolmuş token");
+        }
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new MessageDeliveryException(message, "Token iptal edilmiş");
+        }
+        if (jwtService.extractRole(claims) == Role.ADMIN) {
+            throw new MessageDeliveryException(message, "Sohbet bağlantısı yalnızca kullanıcılar içindir");
+        }
+
+        UserDetails userDetails = userDetailsService.findUserByUsername(claims.getSubject()).orElse(null);
+        if (!(userDetails instanceof AuthenticatedUser user)) {
+            throw new MessageDeliveryException(message, "Kullanıcı bulunamadı");
+        }
+
+        List<Long> chatIds = chatRepository.findChatIdsByParticipant(user.getId());
+        return new StompPrincipal(user.getId(), user.getUsername(), deviceId, claims.getId(), chatIds);
+    }
+
+    private static void requirePrincipal(Message<?> message, StompHeaderAccessor accessor) {
+        if (!(accessor.getUser() instanceof StompPrincipal)) {
+            throw new MessageDeliveryException(message, "Oturum doğrulanmamış");
+        }
+    }
+}
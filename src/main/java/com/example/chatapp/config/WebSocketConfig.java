@@ -1,28 +1,129 @@
 package com.example.chatapp.config;
 
+import com.example.chatapp.websocket.BinaryFrameDecoratorFactory;
+import com.example.chatapp.websocket.CborMessageConverter;
+import com.example.chatapp.websocket.FrameEncodingInterceptor;
+import com.example.chatapp.websocket.OutboundFlowControlInterceptor;
+import com.example.chatapp.websocket.WebSocketSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
 
+import java.util.List;
+
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Autowired
+    private OutboundFlowControlInterceptor outboundFlowControlInterceptor;
+
+    @Autowired
+    private StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
+    @Autowired
+    private FrameEncodingInterceptor frameEncodingInterceptor;
+
+    @Autowired
+    private BinaryFrameDecoratorFactory binaryFrameDecoratorFactory;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Value("${websocket.inbound-channel.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound-channel.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound-channel.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound-channel.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound-channel.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound-channel.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/user"); // /user/queue/messages gibi birebir iletişim
-        config.setApplicationDestinationPrefixes("/app"); // Client -> /app/sendMessage gibi yollar
+        // /user/queue/messages gibi birebir iletişim; /user önekini UserDestinationMessageHandler
+        // oturuma özel /queue/messages-user{oturum} adresine çevirir, broker bu adresleri dağıtır
+        config.enableSimpleBroker("/queue");
+        config.setApplicationDestinationPrefixes("/app"); // Client -> /app/chat.send gibi yollar
         config.setUserDestinationPrefix("/user"); // Özel kullanıcı mesajları için
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Kimlik doğrulama el sıkışmada değil STOMP CONNECT çerçevesinde yapılır (StompAuthenticationInterceptor)
         registry.addEndpoint("/ws-chat")
-                .setHandshakeHandler(new UserHandshakeHandler())
                 .setAllowedOrigins("http://localhost:3000") // React uygulamasının çalıştığı adres
                 .withSockJS();
+
+        // Yerel istemciler için SockJS'siz uç nokta; CONNECT'te accept-content-type: application/cbor ile
+        // ikili gövde seçilebilir. permessage-deflate istemci isterse sunucu (Tomcat) tarafından kabul edilir.
+        registry.addEndpoint(BinaryFrameDecoratorFactory.NATIVE_ENDPOINT)
+                .setAllowedOrigins("http://localhost:3000");
     }
 
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // CBOR gövdeli SEND çerçeveleri için; JSON dönüştürücüleri varsayılan olarak eklenmeye devam eder
+        ObjectMapper cborMapper = objectMapperBuilder.factory(new CBORFactory()).build();
+        messageConverters.add(new CborMessageConverter(cborMapper));
+        return true;
+    }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Tek bir gönderim bu süreyi ya da oturumun tamponu bu boyutu aşarsa oturum kapatılır
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(sessionRegistry)
+                .addDecoratorFactory(binaryFrameDecoratorFactory);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(stompAuthenticationInterceptor, frameEncodingInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        // Önce kodlama çevrilir; kuyruk sınırı gönderilecek gerçek bayt sayısıyla hesaplanır
+        registration.interceptors(frameEncodingInterceptor, outboundFlowControlInterceptor);
+    }
 }
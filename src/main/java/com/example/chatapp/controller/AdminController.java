@@ -1,7 +1,10 @@
 package com.example.chatapp.controller;
 
 import com.example.chatapp.dto.AdminRequest;
+import com.example.chatapp.dto.PasswordMigrationStatus;
+import com.example.chatapp.dto.WebSocketSessionStats;
 import com.example.chatapp.dto.RegisterRequest;
+import com.example.chatapp.dto.UserDeletionStatus;
 import com.example.chatapp.model.User;
 import com.example.chatapp.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,24 +58,72 @@ public class AdminController {
         }
     }
 
-    // Kullanıcı silme işlemi (Admin'e özel)
+    // Kullanıcı silme işlemi (Admin'e özel); kullanıcı hemen devre dışı kalır, silme arka planda sürer
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<String> deleteUser(@PathVariable Long id, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<UserDeletionStatus> deleteUser(@PathVariable Long id, @RequestHeader("Authorization") String authHeader) {
         logger.info("Kullanıcı silme isteği alındı. ID: {}", id);
         try {
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
                 logger.error("Geçersiz Authorization header");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Geçersiz token formatı");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
             
             String token = authHeader.replace("Bearer ", "");
             
-            adminService.deleteUserById(id, token);
-            logger.info("Kullanıcı başarıyla silindi. ID: {}", id);
-            return ResponseEntity.ok("Kullanıcı başarıyla silindi.");
+            UserDeletionStatus status = adminService.deleteUserById(id, token);
+            logger.info("Kullanıcı silme işi kuyruğa alındı. ID: {}", id);
+            return ResponseEntity.accepted().body(status);
         } catch (Exception e) {
             logger.error("Kullanıcı silme hatası: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
+
+    // Kullanıcı silme işinin durumu
+    @GetMapping("/delete/{id}")
+    public ResponseEntity<UserDeletionStatus> getUserDeletionStatus(@PathVariable Long id, @RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            return ResponseEntity.ok(adminService.getUserDeletionStatus(id, token));
+        } catch (Exception e) {
+            logger.error("Kullanıcı silme durumu alınamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
+
+    // Toplu şifre geçişini başlatma
+    @PostMapping("/password-migration")
+    public ResponseEntity<PasswordMigrationStatus> startPasswordMigration(@RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            return ResponseEntity.accepted().body(adminService.startPasswordMigration(token));
+        } catch (Exception e) {
+            logger.error("Şifre geçişi başlatılamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
+
+    // Toplu şifre geçişinin ilerlemesi ve hızı
+    @GetMapping("/password-migration")
+    public ResponseEntity<PasswordMigrationStatus> getPasswordMigrationStatus(@RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            return ResponseEntity.ok(adminService.getPasswordMigrationStatus(token));
+        } catch (Exception e) {
+            logger.error("Şifre geçişi durumu alınamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
+
+    // WebSocket oturumlarının giden kuyruk ve düşürülen çerçeve sayıları
+    @GetMapping("/websocket/sessions")
+    public ResponseEntity<List<WebSocketSessionStats>> getWebSocketSessions(@RequestHeader("Authorization") String authHeader) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            return ResponseEntity.ok(adminService.getWebSocketSessionStats(token));
+        } catch (Exception e) {
+            logger.error("WebSocket oturum bilgileri alınamadı: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
     }
 }
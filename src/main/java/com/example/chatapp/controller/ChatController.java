@@ -0,0 +1,52 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.config.CurrentUser;
+import com.example.chatapp.dto.ChatHistoryResponse;
+import com.example.chatapp.dto.ChatResponse;
+import com.example.chatapp.dto.CreateChatRequest;
+import com.example.chatapp.dto.ReadReceiptRequest;
+import com.example.chatapp.model.User;
+import com.example.chatapp.service.ChatService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/chats")
+public class ChatController {
+
+    @Autowired
+    private ChatService chatService;
+
+    // Sohbet oluşturma
+    @PostMapping
+    public ResponseEntity<ChatResponse> createChat(
+            @CurrentUser User currentUser,
+            @Valid @RequestBody CreateChatRequest request) {
+        ChatResponse response = chatService.createChat(currentUser, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    // Sohbet geçmişi (before: bu id'den eski mesajlar)
+    @GetMapping("/{chatId}/messages")
+    public ResponseEntity<ChatHistoryResponse> getMessages(
+            @CurrentUser User currentUser,
+            @PathVariable Long chatId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        ChatHistoryResponse response = chatService.getMessages(currentUser, chatId, before, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    // Okundu bilgisi (sohbetin okunmamış sayacı sıfırlanır)
+    @PostMapping("/{chatId}/read")
+    public ResponseEntity<Void> markRead(
+            @CurrentUser User currentUser,
+            @PathVariable Long chatId,
+            @Valid @RequestBody ReadReceiptRequest request) {
+        chatService.markRead(currentUser, chatId, request.getMessageId());
+        return ResponseEntity.noContent().build();
+    }
+}
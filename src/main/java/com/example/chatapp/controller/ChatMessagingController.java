@@ -0,0 +1,73 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.dto.ChatMessageRequest;
+import com.example.chatapp.dto.ReadReceiptRequest;
+import com.example.chatapp.dto.SyncAckRequest;
+import com.example.chatapp.dto.SyncRequest;
+import com.example.chatapp.dto.SyncResponse;
+import com.example.chatapp.dto.TypingRequest;
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.service.ChatActivityService;
+import com.example.chatapp.service.ChatMessageService;
+import com.example.chatapp.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP mesaj uçları. İstemci /app/chat.send adresine gönderir; onay /user/queue/acks,
+ * mesajın kendisi katılımcılara /user/queue/messages üzerinden gelir. Yeniden bağlanınca
+ * /app/sync.resume ile kaçırılan mesajlar istenir; canlı alınan mesajlar /app/sync.ack ile onaylanarak
+ * cihazın eşitleme imleci ilerletilir. Yazıyor bilgisi /app/chat.typing, okundu bilgisi
+ * /app/chat.read adresine gönderilir; diğer katılımcılara /user/queue/typing ve /user/queue/receipts üzerinden gelir.
+ */
+@Controller
+public class ChatMessagingController {
+
+    private static final int DEFAULT_SYNC_LIMIT = 200;
+
+    @Autowired
+    private ChatMessageService chatMessageService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ChatActivityService chatActivityService;
+
+    @MessageMapping("/chat.send")
+    public void send(@Payload ChatMessageRequest request, StompPrincipal principal) {
+        // Principal CONNECT sırasında StompAuthenticationInterceptor tarafından bağlanır
+        chatMessageService.send(principal, request);
+    }
+
+    @MessageMapping("/chat.typing")
+    public void typing(@Payload TypingRequest request, StompPrincipal principal) {
+        chatActivityService.typing(principal, request);
+    }
+
+    @MessageMapping("/chat.read")
+    public void read(@Payload ReadReceiptRequest request, StompPrincipal principal) {
+        chatActivityService.read(principal, request);
+    }
+
+    // Yeniden bağlanan istemci kaçırdığı mesajları ister; cevap /user/queue/sync adresine gelir
+    @MessageMapping("/sync.resume")
+    @SendToUser(destinations = "/queue/sync", broadcast = false)
+    public SyncResponse resume(@Payload SyncRequest request, StompPrincipal principal) {
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_SYNC_LIMIT;
+        return syncService.sync(principal.getUserId(), principal.getDeviceId(), principal.getChatIds(),
+                request.getSince(), limit);
+    }
+
+    // /user/queue/messages üzerinden alınan mesajın onayı; üye olunmayan sohbetler yok sayılır
+    @MessageMapping("/sync.ack")
+    public void acknowledge(@Payload SyncAckRequest request, StompPrincipal principal) {
+        if (request.getMessageId() != null && principal.isChatMember(request.getChatId())) {
+            syncService.acknowledge(principal.getUserId(), principal.getDeviceId(), request.getChatId(),
+                    request.getMessageId());
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.example.chatapp.controller;
 
+import com.example.chatapp.config.CurrentUser;
+import com.example.chatapp.dto.BulkFriendRequest;
+import com.example.chatapp.dto.BulkFriendshipRequest;
+import com.example.chatapp.dto.BulkFriendshipResult;
+import com.example.chatapp.dto.FriendListPage;
 import com.example.chatapp.dto.FriendListResponse;
 import com.example.chatapp.dto.FriendRequest;
 import com.example.chatapp.dto.FriendResponseRequest;
+import com.example.chatapp.dto.FriendSuggestion;
+import com.example.chatapp.dto.FriendshipChangesResponse;
 import com.example.chatapp.dto.FriendshipResponse;
 import com.example.chatapp.model.User;
+import com.example.chatapp.service.FriendSuggestionService;
+import com.example.chatapp.service.FriendshipChangeService;
 import com.example.chatapp.service.FriendshipService;
-import com.example.chatapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -23,24 +31,41 @@ public class FriendshipController {
     private FriendshipService friendshipService;
 
     @Autowired
-    private UserService userService;
+    private FriendSuggestionService friendSuggestionService;
+
+    @Autowired
+    private FriendshipChangeService friendshipChangeService;
 
     // Arkadaşlık isteği gönderme
     @PostMapping("/request")
     public ResponseEntity<FriendshipResponse> sendFriendRequest(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @Valid @RequestBody FriendRequest request) {
-        User currentUser = userService.getCurrentUser(authentication);
         FriendshipResponse response = friendshipService.sendFriendRequest(currentUser, request.getReceiverId());
         return ResponseEntity.ok(response);
     }
 
+    // Birden fazla kullanıcıya arkadaşlık isteği gönderme
+    @PostMapping("/request/bulk")
+    public ResponseEntity<List<BulkFriendshipResult>> sendFriendRequests(
+            @CurrentUser User currentUser,
+            @Valid @RequestBody BulkFriendRequest request) {
+        return ResponseEntity.ok(friendshipService.sendFriendRequests(currentUser, request));
+    }
+
+    // Bekleyen istekleri toplu kabul etme/reddetme
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkFriendshipResult>> respondToRequests(
+            @CurrentUser User currentUser,
+            @Valid @RequestBody BulkFriendshipRequest request) {
+        return ResponseEntity.ok(friendshipService.respondToRequests(currentUser, request));
+    }
+
     // Arkadaşlık isteğini kabul etme
     @PostMapping("/accept")
     public ResponseEntity<FriendshipResponse> acceptFriendRequest(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @Valid @RequestBody FriendResponseRequest request) {
-        User currentUser = userService.getCurrentUser(authentication);
         FriendshipResponse response = friendshipService.acceptFriendRequest(currentUser, request.getFriendshipId());
         return ResponseEntity.ok(response);
     }
@@ -48,9 +73,8 @@ public class FriendshipController {
     // Arkadaşlık isteğini reddetme
     @PostMapping("/reject")
     public ResponseEntity<FriendshipResponse> rejectFriendRequest(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @Valid @RequestBody FriendResponseRequest request) {
-        User currentUser = userService.getCurrentUser(authentication);
         FriendshipResponse response = friendshipService.rejectFriendRequest(currentUser, request.getFriendshipId());
         return ResponseEntity.ok(response);
     }
@@ -58,9 +82,8 @@ public class FriendshipController {
     // Arkadaşlık isteğini iptal etme
     @DeleteMapping("/cancel/{friendshipId}")
     public ResponseEntity<Void> cancelFriendRequest(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @PathVariable Long friendshipId) {
-        User currentUser = userService.getCurrentUser(authentication);
         friendshipService.cancelFriendRequest(currentUser, friendshipId);
         return ResponseEntity.ok().build();
     }
@@ -68,28 +91,72 @@ public class FriendshipController {
     // Arkadaşı silme
     @DeleteMapping("/remove/{friendshipId}")
     public ResponseEntity<Void> removeFriend(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @PathVariable Long friendshipId) {
-        User currentUser = userService.getCurrentUser(authentication);
         friendshipService.removeFriend(currentUser, friendshipId);
         return ResponseEntity.ok().build();
     }
 
-    // Arkadaşlık listesini getirme
+    // Arkadaşlık listesini getirme (her listenin ilk sayfası; order: online | recent)
     @GetMapping("/list")
-    public ResponseEntity<FriendListResponse> getFriendsList(Authentication authentication) {
-        User currentUser = userService.getCurrentUser(authentication);
-        FriendListResponse response = friendshipService.getFriendsList(currentUser);
+    public ResponseEntity<FriendListResponse> getFriendsList(
+            @CurrentUser User currentUser,
+            @RequestParam(defaultValue = FriendshipService.ORDER_ONLINE) String order,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        // Değişiklik yoksa liste hiç oluşturulmadan 304 döner
+        if (request.checkNotModified(friendshipService.getListEtag(currentUser, order, null, limit))) {
+            return null;
+        }
+        FriendListResponse response = friendshipService.getFriendsList(currentUser, order, limit);
         return ResponseEntity.ok(response);
     }
+
+    // Tek listenin sonraki sayfaları (bucket: friends | pending | received)
+    @GetMapping("/list/{bucket}")
+    public ResponseEntity<FriendListPage> getFriendPage(
+            @CurrentUser User currentUser,
+            @PathVariable String bucket,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = FriendshipService.ORDER_ONLINE) String order,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(friendshipService.getListEtag(currentUser, bucket + ":" + order, cursor, limit))) {
+            return null;
+        }
+        FriendListPage page = friendshipService.getFriendPage(currentUser, bucket, order, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
     
     // Kullanıcı arama
     @GetMapping("/search")
     public ResponseEntity<List<FriendshipResponse.UserSummary>> searchUsers(
-            Authentication authentication,
+            @CurrentUser User currentUser,
             @RequestParam String query) {
-        User currentUser = userService.getCurrentUser(authentication);
         List<FriendshipResponse.UserSummary> users = friendshipService.searchUsers(currentUser, query);
         return ResponseEntity.ok(users);
     }
-} 
\ No newline at end of file
+
+    // since sürümünden sonraki arkadaşlık değişiklikleri
+    @GetMapping("/changes")
+    public ResponseEntity<FriendshipChangesResponse> getChanges(
+            @CurrentUser User currentUser,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(friendshipChangeService.getChangesSince(currentUser, since, limit));
+    }
+
+    // Ortak arkadaş sayısına göre arkadaş önerileri
+    @GetMapping("/suggestions")
+    public ResponseEntity<List<FriendSuggestion>> getSuggestions(@CurrentUser User currentUser) {
+        return ResponseEntity.ok(friendSuggestionService.getSuggestions(currentUser));
+    }
+
+    // Başka bir kullanıcı ile ortak arkadaşlar
+    @GetMapping("/mutual/{userId}")
+    public ResponseEntity<List<FriendshipResponse.UserSummary>> getMutualFriends(
+            @CurrentUser User currentUser,
+            @PathVariable Long userId) {
+        return ResponseEntity.ok(friendSuggestionService.getMutualFriends(currentUser, userId));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.config.CurrentUser;
+import com.example.chatapp.dto.BadgeResponse;
+import com.example.chatapp.dto.InboxEntry;
+import com.example.chatapp.model.User;
+import com.example.chatapp.service.UnreadCounterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Okunmamış sayaçları bellekten döner; mesaj tablosu taranmaz.
+ */
+@RestController
+@RequestMapping("/inbox")
+public class InboxController {
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    // Okunmamış mesajı olan sohbetler
+    @GetMapping
+    public ResponseEntity<List<InboxEntry>> getInbox(@CurrentUser User currentUser) {
+        return ResponseEntity.ok(unreadCounterService.getInbox(currentUser.getId()));
+    }
+
+    // Toplam okunmamış (uygulama simgesi rozeti için)
+    @GetMapping("/badge")
+    public ResponseEntity<BadgeResponse> getBadge(@CurrentUser User currentUser) {
+        return ResponseEntity.ok(unreadCounterService.getBadge(currentUser.getId()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.config.CurrentUser;
+import com.example.chatapp.dto.SyncResponse;
+import com.example.chatapp.model.User;
+import com.example.chatapp.service.SyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SyncController {
+
+    @Autowired
+    private SyncService syncService;
+
+    // Kaçırılan mesajlar (since: istemcinin aldığı en büyük mesaj id'si; yoksa cihazın sunucudaki imleci)
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponse> sync(
+            @CurrentUser User currentUser,
+            @RequestHeader(value = "X-Device-Id", required = false) String deviceId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "200") int limit) {
+        return ResponseEntity.ok(syncService.sync(currentUser.getId(), deviceId, since, limit));
+    }
+}
@@ -1,17 +1,17 @@
 package com.example.chatapp.controller;
 
+import com.example.chatapp.config.CurrentUser;
 import com.example.chatapp.dto.LoginRequest;
 import com.example.chatapp.dto.ProfileResponse;
 import com.example.chatapp.dto.ProfileUpdateRequest;
 import com.example.chatapp.dto.RegisterRequest;
 import com.example.chatapp.dto.StatusUpdateRequest;
-import com.example.chatapp.service.JwtService;
+import com.example.chatapp.model.User;
 import com.example.chatapp.service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -40,26 +40,36 @@ public class UserController {
         return userService.registerUser(registerRequest);
     }
 
-    @GetMapping("/profile")
-    public ProfileResponse getProfile(@RequestHeader("Authorization") String authHeader) throws Exception {
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authHeader, @CurrentUser User currentUser) {
         String token = authHeader.replace("Bearer ", "");
-        return userService.getProfile(token);
+        userService.logout(token, currentUser);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/sessions/revoke-all")
+    public ResponseEntity<Void> revokeAllSessions(@CurrentUser User currentUser) {
+        userService.revokeAllSessions(currentUser);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/profile")
+    public ProfileResponse getProfile(@CurrentUser User currentUser) {
+        return userService.getProfile(currentUser);
     }
 
     @PutMapping("/profile")
     public ProfileResponse updateProfile(
-            @RequestHeader("Authorization") String authHeader,
+            @CurrentUser User currentUser,
             @RequestBody ProfileUpdateRequest profileRequest) throws Exception {
-        String token = authHeader.replace("Bearer ", "");
-        return userService.updateProfile(token, profileRequest);
+        return userService.updateProfile(currentUser, profileRequest);
     }
     
     @PostMapping("/upload-profile-image")
     public ProfileResponse uploadProfileImage(
-            @RequestHeader("Authorization") String authHeader,
+            @CurrentUser User currentUser,
             @RequestParam("image") MultipartFile image) throws Exception {
-        String token = authHeader.replace("Bearer ", "");
-        return userService.updateProfileImage(token, image);
+        return userService.updateProfileImage(currentUser, image);
     }
     
     @GetMapping("/images/{fileName:.+}")
@@ -72,45 +82,11 @@ public class UserController {
                 .body(file);
     }
     
+    // WebSocket bağlantısı olmayan istemciler için elle durum bildirimi
     @PutMapping("/status")
     public ResponseEntity<ProfileResponse> updateStatus(
-            @RequestHeader(value = "Authorization", required = true) String authHeader,
-            @RequestBody StatusUpdateRequest statusRequest) throws Exception {
-        // Daha ayrıntılı günlük kaydı
-        System.out.println("=== STATUS UPDATE REQUEST RECEIVED ===");
-        System.out.println("Raw request: " + statusRequest);
-        System.out.println("isOnline value: " + statusRequest.isOnline());
-        System.out.println("isOnline type: " + ((Object)statusRequest.isOnline()).getClass().getName());
-        System.out.println("Auth header: " + (authHeader != null ? authHeader.substring(0, Math.min(15, authHeader.length())) + "..." : "null"));
-        
-        try {
-            // JWT token'ı doğrula
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                System.err.println("Invalid auth header format");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-            }
-            
-            String token = authHeader.replace("Bearer ", "");
-            
-            // Token kontrolü ile birlikte durum güncelle
-            boolean isOnlineValue = statusRequest.isOnline();
-            System.out.println("Setting online status to: " + isOnlineValue);
-            
-            ProfileResponse response = userService.updateOnlineStatus(token, isOnlineValue);
-            System.out.println("Status updated successfully: " + response.isOnline());
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.err.println("ERROR updating status: " + e.getMessage());
-            e.printStackTrace();
-            
-            // Hata türüne göre uygun HTTP durum kodu döndür
-            if (e.getMessage().contains("Token") || e.getMessage().contains("yetkilendirme")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-            } else if (e.getMessage().contains("Kullanıcı bulunamadı")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
-            } else {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
-            }
-        }
+            @CurrentUser User currentUser,
+            @RequestBody StatusUpdateRequest statusRequest) {
+        return ResponseEntity.ok(userService.updateOnlineStatus(currentUser, statusRequest.isOnline()));
     }
 }
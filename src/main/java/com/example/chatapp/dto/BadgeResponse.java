@@ -0,0 +1,31 @@
+package com.example.chatapp.dto;
+
+public class BadgeResponse {
+
+    private int unreadChats;
+    private long unreadMessages;
+
+    public BadgeResponse() {
+    }
+
+    public BadgeResponse(int unreadChats, long unreadMessages) {
+        this.unreadChats = unreadChats;
+        this.unreadMessages = unreadMessages;
+    }
+
+    public int getUnreadChats() {
+        return unreadChats;
+    }
+
+    public void setUnreadChats(int unreadChats) {
+        this.unreadChats = unreadChats;
+    }
+
+    public long getUnreadMessages() {
+        return unreadMessages;
+    }
+
+    public void setUnreadMessages(long unreadMessages) {
+        this.unreadMessages = unreadMessages;
+    }
+}
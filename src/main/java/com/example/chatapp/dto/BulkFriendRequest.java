@@ -0,0 +1,27 @@
+package com.example.chatapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BulkFriendRequest {
+
+    @NotEmpty(message = "Alıcı listesi boş olamaz")
+    private List<Long> receiverIds;
+
+    public BulkFriendRequest() {
+    }
+
+    public BulkFriendRequest(List<Long> receiverIds) {
+        this.receiverIds = receiverIds;
+    }
+
+    // Getter ve Setter'lar
+    public List<Long> getReceiverIds() {
+        return receiverIds;
+    }
+
+    public void setReceiverIds(List<Long> receiverIds) {
+        this.receiverIds = receiverIds;
+    }
+}
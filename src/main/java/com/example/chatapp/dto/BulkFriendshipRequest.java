@@ -0,0 +1,44 @@
+package com.example.chatapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class BulkFriendshipRequest {
+
+    public enum Action {
+        ACCEPT, REJECT
+    }
+
+    @NotNull(message = "İşlem boş olamaz")
+    private Action action;
+
+    @NotEmpty(message = "Arkadaşlık isteği listesi boş olamaz")
+    private List<Long> friendshipIds;
+
+    public BulkFriendshipRequest() {
+    }
+
+    public BulkFriendshipRequest(Action action, List<Long> friendshipIds) {
+        this.action = action;
+        this.friendshipIds = friendshipIds;
+    }
+
+    // Getter ve Setter'lar
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public List<Long> getFriendshipIds() {
+        return friendshipIds;
+    }
+
+    public void setFriendshipIds(List<Long> friendshipIds) {
+        this.friendshipIds = friendshipIds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.chatapp.dto;
+
+/**
+ * Toplu arkadaşlık işleminde tek bir kaydın sonucu.
+ * id isteğin kendisi (arkadaşlık id'si ya da alıcı kullanıcı id'si), friendshipId ilgili arkadaşlık kaydıdır.
+ */
+public class BulkFriendshipResult {
+
+    private Long id;
+    private Long friendshipId;
+    private boolean success;
+    private String error;
+
+    public BulkFriendshipResult() {
+    }
+
+    public BulkFriendshipResult(Long id, Long friendshipId, boolean success, String error) {
+        this.id = id;
+        this.friendshipId = friendshipId;
+        this.success = success;
+        this.error = error;
+    }
+
+    public static BulkFriendshipResult success(Long id, Long friendshipId) {
+        return new BulkFriendshipResult(id, friendshipId, true, null);
+    }
+
+    public static BulkFriendshipResult failure(Long id, String error) {
+        return new BulkFriendshipResult(id, null, false, error);
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getFriendshipId() {
+        return friendshipId;
+    }
+
+    public void setFriendshipId(Long friendshipId) {
+        this.friendshipId = friendshipId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.chatapp.dto;
+
+import java.util.List;
+
+/**
+ * Sohbet geçmişinin bir sayfası. Mesajlar yeniden eskiye sıralıdır; daha eski mesaj varsa
+ * nextBefore bir sonraki isteğin before parametresi olarak kullanılır.
+ */
+public class ChatHistoryResponse {
+
+    private List<ChatMessageResponse> messages;
+    private Long nextBefore;
+
+    public ChatHistoryResponse() {
+    }
+
+    public ChatHistoryResponse(List<ChatMessageResponse> messages, Long nextBefore) {
+        this.messages = messages;
+        this.nextBefore = nextBefore;
+    }
+
+    // Getter ve Setter'lar
+    public List<ChatMessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public Long getNextBefore() {
+        return nextBefore;
+    }
+
+    public void setNextBefore(Long nextBefore) {
+        this.nextBefore = nextBefore;
+    }
+}
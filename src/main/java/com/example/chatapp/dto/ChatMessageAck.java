@@ -0,0 +1,75 @@
+package com.example.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Gönderilen mesajın kaydedildiğini (ya da reddedildiğini) gönderene bildirir.
+ */
+public class ChatMessageAck {
+
+    private String clientMessageId;
+    private Long messageId;
+    private Long chatId;
+    private LocalDateTime timestamp;
+    private String error;
+
+    public ChatMessageAck() {
+    }
+
+    public ChatMessageAck(String clientMessageId, Long messageId, Long chatId, LocalDateTime timestamp, String error) {
+        this.clientMessageId = clientMessageId;
+        this.messageId = messageId;
+        this.chatId = chatId;
+        this.timestamp = timestamp;
+        this.error = error;
+    }
+
+    public static ChatMessageAck success(String clientMessageId, Long messageId, Long chatId, LocalDateTime timestamp) {
+        return new ChatMessageAck(clientMessageId, messageId, chatId, timestamp, null);
+    }
+
+    public static ChatMessageAck failure(String clientMessageId, Long chatId, String error) {
+        return new ChatMessageAck(clientMessageId, null, chatId, null, error);
+    }
+
+    // Getter ve Setter'lar
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
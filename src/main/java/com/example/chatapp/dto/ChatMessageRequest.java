@@ -0,0 +1,41 @@
+package com.example.chatapp.dto;
+
+public class ChatMessageRequest {
+
+    private Long chatId;
+    private String content;
+    private String clientMessageId; // İstemcinin onayı kendi mesajıyla eşleştirmesi için
+
+    public ChatMessageRequest() {
+    }
+
+    public ChatMessageRequest(Long chatId, String content, String clientMessageId) {
+        this.chatId = chatId;
+        this.content = content;
+        this.clientMessageId = clientMessageId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
+}
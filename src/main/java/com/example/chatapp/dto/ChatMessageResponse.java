@@ -0,0 +1,74 @@
+package com.example.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public class ChatMessageResponse {
+
+    private Long id;
+    private Long chatId;
+    private Long senderId;
+    private String senderUsername;
+    private String content;
+    private LocalDateTime timestamp;
+
+    public ChatMessageResponse() {
+    }
+
+    public ChatMessageResponse(Long id, Long chatId, Long senderId, String senderUsername, String content, LocalDateTime timestamp) {
+        this.id = id;
+        this.chatId = chatId;
+        this.senderId = senderId;
+        this.senderUsername = senderUsername;
+        this.content = content;
+        this.timestamp = timestamp;
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public Long getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(Long senderId) {
+        this.senderId = senderId;
+    }
+
+    public String getSenderUsername() {
+        return senderUsername;
+    }
+
+    public void setSenderUsername(String senderUsername) {
+        this.senderUsername = senderUsername;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
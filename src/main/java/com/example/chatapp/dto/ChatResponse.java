@@ -0,0 +1,58 @@
+package com.example.chatapp.dto;
+
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ChatResponse {
+
+    private Long id;
+    private String name;
+    private List<Long> participantIds;
+    private LocalDateTime createdAt;
+
+    public ChatResponse() {
+    }
+
+    public ChatResponse(Chat chat) {
+        this.id = chat.getId();
+        this.name = chat.getName();
+        this.participantIds = chat.getParticipants().stream().map(User::getId).sorted().toList();
+        this.createdAt = chat.getCreatedAt();
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Long> getParticipantIds() {
+        return participantIds;
+    }
+
+    public void setParticipantIds(List<Long> participantIds) {
+        this.participantIds = participantIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.chatapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class CreateChatRequest {
+
+    private String name;
+
+    @NotEmpty(message = "Katılımcı listesi boş olamaz")
+    private List<Long> participantIds;
+
+    public CreateChatRequest() {
+    }
+
+    public CreateChatRequest(String name, List<Long> participantIds) {
+        this.name = name;
+        this.participantIds = participantIds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Long> getParticipantIds() {
+        return participantIds;
+    }
+
+    public void setParticipantIds(List<Long> participantIds) {
+        this.participantIds = participantIds;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.chatapp.dto;
+
+import java.util.List;
+
+public class FriendListPage {
+
+    private List<FriendshipResponse> items;
+    private long total; // Listedeki toplam kayıt (tüm sayfalar)
+    private String nextCursor; // Sonraki sayfa için; son sayfada null
+
+    public FriendListPage() {
+    }
+
+    public FriendListPage(List<FriendshipResponse> items, long total, String nextCursor) {
+        this.items = items;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getter ve Setter'lar
+    public List<FriendshipResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<FriendshipResponse> items) {
+        this.items = items;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
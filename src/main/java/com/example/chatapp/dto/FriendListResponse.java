@@ -7,6 +7,14 @@ public class FriendListResponse {
     private List<FriendshipResponse> friends;
     private List<FriendshipResponse> pendingRequests;
     private List<FriendshipResponse> receivedRequests;
+
+    // Her listenin toplam kayıt sayısı ve sonraki sayfa imleci (GET /friendship/list/{bucket}?cursor=...)
+    private long friendsTotal;
+    private long pendingRequestsTotal;
+    private long receivedRequestsTotal;
+    private String friendsNextCursor;
+    private String pendingRequestsNextCursor;
+    private String receivedRequestsNextCursor;
     
     // Constructor
     public FriendListResponse() {
@@ -17,6 +25,16 @@ public class FriendListResponse {
         this.pendingRequests = pendingRequests;
         this.receivedRequests = receivedRequests;
     }
+
+    public FriendListResponse(FriendListPage friends, FriendListPage pendingRequests, FriendListPage receivedRequests) {
+        this(friends.getItems(), pendingRequests.getItems(), receivedRequests.getItems());
+        this.friendsTotal = friends.getTotal();
+        this.pendingRequestsTotal = pendingRequests.getTotal();
+        this.receivedRequestsTotal = receivedRequests.getTotal();
+        this.friendsNextCursor = friends.getNextCursor();
+        this.pendingRequestsNextCursor = pendingRequests.getNextCursor();
+        this.receivedRequestsNextCursor = receivedRequests.getNextCursor();
+    }
     
     // Getter ve Setter'lar
     public List<FriendshipResponse> getFriends() {
@@ -42,4 +60,52 @@ public class FriendListResponse {
     public void setReceivedRequests(List<FriendshipResponse> receivedRequests) {
         this.receivedRequests = receivedRequests;
     }
-} 
\ No newline at end of file
+
+    public long getFriendsTotal() {
+        return friendsTotal;
+    }
+
+    public void setFriendsTotal(long friendsTotal) {
+        this.friendsTotal = friendsTotal;
+    }
+
+    public long getPendingRequestsTotal() {
+        return pendingRequestsTotal;
+    }
+
+    public void setPendingRequestsTotal(long pendingRequestsTotal) {
+        this.pendingRequestsTotal = pendingRequestsTotal;
+    }
+
+    public long getReceivedRequestsTotal() {
+        return receivedRequestsTotal;
+    }
+
+    public void setReceivedRequestsTotal(long receivedRequestsTotal) {
+        this.receivedRequestsTotal = receivedRequestsTotal;
+    }
+
+    public String getFriendsNextCursor() {
+        return friendsNextCursor;
+    }
+
+    public void setFriendsNextCursor(String friendsNextCursor) {
+        this.friendsNextCursor = friendsNextCursor;
+    }
+
+    public String getPendingRequestsNextCursor() {
+        return pendingRequestsNextCursor;
+    }
+
+    public void setPendingRequestsNextCursor(String pendingRequestsNextCursor) {
+        this.pendingRequestsNextCursor = pendingRequestsNextCursor;
+    }
+
+    public String getReceivedRequestsNextCursor() {
+        return receivedRequestsNextCursor;
+    }
+
+    public void setReceivedRequestsNextCursor(String receivedRequestsNextCursor) {
+        this.receivedRequestsNextCursor = receivedRequestsNextCursor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.chatapp.dto;
+
+public class FriendSuggestion {
+
+    private FriendshipResponse.UserSummary user;
+    private int mutualFriendCount;
+
+    public FriendSuggestion() {
+    }
+
+    public FriendSuggestion(FriendshipResponse.UserSummary user, int mutualFriendCount) {
+        this.user = user;
+        this.mutualFriendCount = mutualFriendCount;
+    }
+
+    // Getter ve Setter'lar
+    public FriendshipResponse.UserSummary getUser() {
+        return user;
+    }
+
+    public void setUser(FriendshipResponse.UserSummary user) {
+        this.user = user;
+    }
+
+    public int getMutualFriendCount() {
+        return mutualFriendCount;
+    }
+
+    public void setMutualFriendCount(int mutualFriendCount) {
+        this.mutualFriendCount = mutualFriendCount;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.chatapp.dto;
+
+/**
+ * Arkadaşlık değişikliği; /friendship/changes yanıtında ve /user/queue/friendships üzerinden gönderilir.
+ * Silinen ilişkilerde friendship null'dır, karşı taraf counterpartId ile belirtilir.
+ */
+public class FriendshipChangeEvent {
+
+    private long version;
+    private String type; // ADDED, UPDATED, DELETED
+    private Long friendshipId;
+    private Long counterpartId;
+    private String status;
+    private FriendshipResponse friendship;
+
+    public FriendshipChangeEvent() {
+    }
+
+    public FriendshipChangeEvent(long version, String type, Long friendshipId, Long counterpartId, String status,
+                                 FriendshipResponse friendship) {
+        this.version = version;
+        this.type = type;
+        this.friendshipId = friendshipId;
+        this.counterpartId = counterpartId;
+        this.status = status;
+        this.friendship = friendship;
+    }
+
+    // Getter ve Setter'lar
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getFriendshipId() {
+        return friendshipId;
+    }
+
+    public void setFriendshipId(Long friendshipId) {
+        this.friendshipId = friendshipId;
+    }
+
+    public Long getCounterpartId() {
+        return counterpartId;
+    }
+
+    public void setCounterpartId(Long counterpartId) {
+        this.counterpartId = counterpartId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public FriendshipResponse getFriendship() {
+        return friendship;
+    }
+
+    public void setFriendship(FriendshipResponse friendship) {
+        this.friendship = friendship;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.chatapp.dto;
+
+import java.util.List;
+
+/**
+ * since sürümünden sonraki arkadaşlık değişiklikleri. Aynı ilişkinin birden fazla değişikliği son haline indirgenir;
+ * hasMore true ise bir sonraki istek since=version ile yapılır.
+ */
+public class FriendshipChangesResponse {
+
+    private List<FriendshipChangeEvent> changes;
+    private long version;
+    private boolean hasMore;
+
+    public FriendshipChangesResponse() {
+    }
+
+    public FriendshipChangesResponse(List<FriendshipChangeEvent> changes, long version, boolean hasMore) {
+        this.changes = changes;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    // Getter ve Setter'lar
+    public List<FriendshipChangeEvent> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<FriendshipChangeEvent> changes) {
+        this.changes = changes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -147,6 +147,22 @@ public class FriendshipResponse {
         }
     }
     
+    // JPQL projeksiyonu için (FriendshipRepository.findListEntries); entity yüklenmeden düz sütunlardan kurulur
+    public FriendshipResponse(Long id, Friendship.FriendshipStatus status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              Long requesterId, String requesterUsername, String requesterIsim, String requesterSoyad,
+                              String requesterProfileImageUrl,
+                              Long receiverId, String receiverUsername, String receiverIsim, String receiverSoyad,
+                              String receiverProfileImageUrl) {
+        this.id = id;
+        this.requester = new UserSummary(requesterId, requesterUsername, requesterIsim, requesterSoyad,
+                requesterProfileImageUrl, false);
+        this.receiver = new UserSummary(receiverId, receiverUsername, receiverIsim, receiverSoyad,
+                receiverProfileImageUrl, false);
+        this.status = status.toString();
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
     // Getter ve Setter'lar
     public Long getId() {
         return id;
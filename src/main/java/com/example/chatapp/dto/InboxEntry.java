@@ -0,0 +1,42 @@
+package com.example.chatapp.dto;
+
+public class InboxEntry {
+
+    private Long chatId;
+    private int unreadCount;
+    private long lastReadMessageId;
+
+    public InboxEntry() {
+    }
+
+    public InboxEntry(Long chatId, int unreadCount, long lastReadMessageId) {
+        this.chatId = chatId;
+        this.unreadCount = unreadCount;
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    // Getter ve Setter'lar
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+}
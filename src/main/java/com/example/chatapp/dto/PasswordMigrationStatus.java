@@ -0,0 +1,89 @@
+package com.example.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public class PasswordMigrationStatus {
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private State state;
+    private long lastProcessedId;
+    private long migratedCount;
+    private double usersPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public PasswordMigrationStatus() {
+    }
+
+    public PasswordMigrationStatus(State state, long lastProcessedId, long migratedCount, double usersPerSecond,
+                                   LocalDateTime startedAt, LocalDateTime finishedAt, String error) {
+        this.state = state;
+        this.lastProcessedId = lastProcessedId;
+        this.migratedCount = migratedCount;
+        this.usersPerSecond = usersPerSecond;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    // Getter ve Setter'lar
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(long lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public long getMigratedCount() {
+        return migratedCount;
+    }
+
+    public void setMigratedCount(long migratedCount) {
+        this.migratedCount = migratedCount;
+    }
+
+    public double getUsersPerSecond() {
+        return usersPerSecond;
+    }
+
+    public void setUsersPerSecond(double usersPerSecond) {
+        this.usersPerSecond = usersPerSecond;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
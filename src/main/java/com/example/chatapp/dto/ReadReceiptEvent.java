@@ -0,0 +1,41 @@
+package com.example.chatapp.dto;
+
+public class ReadReceiptEvent {
+
+    private Long chatId;
+    private Long userId;
+    private Long messageId; // Kullanıcının okuduğu en son mesaj
+
+    public ReadReceiptEvent() {
+    }
+
+    public ReadReceiptEvent(Long chatId, Long userId, Long messageId) {
+        this.chatId = chatId;
+        this.userId = userId;
+        this.messageId = messageId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.chatapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class ReadReceiptRequest {
+
+    private Long chatId; // STOMP ile gönderilirken kullanılır; REST'te yoldan gelir
+
+    @NotNull(message = "Mesaj id boş olamaz")
+    private Long messageId; // Okunan en son mesaj
+
+    public ReadReceiptRequest() {
+    }
+
+    public ReadReceiptRequest(Long chatId, Long messageId) {
+        this.chatId = chatId;
+        this.messageId = messageId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
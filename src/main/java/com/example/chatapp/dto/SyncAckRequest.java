@@ -0,0 +1,31 @@
+package com.example.chatapp.dto;
+
+public class SyncAckRequest {
+
+    private Long chatId;
+    private Long messageId; // Cihazın bu sohbette aldığı en büyük mesaj id'si
+
+    public SyncAckRequest() {
+    }
+
+    public SyncAckRequest(Long chatId, Long messageId) {
+        this.chatId = chatId;
+        this.messageId = messageId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.chatapp.dto;
+
+public class SyncRequest {
+
+    private Long since; // İstemcinin aldığı en büyük mesaj id'si; boşsa sunucudaki imleçten devam edilir
+    private Integer limit;
+
+    public SyncRequest() {
+    }
+
+    public SyncRequest(Long since, Integer limit) {
+        this.since = since;
+        this.limit = limit;
+    }
+
+    public Long getSince() {
+        return since;
+    }
+
+    public void setSince(Long since) {
+        this.since = since;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
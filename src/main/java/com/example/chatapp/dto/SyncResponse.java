@@ -0,0 +1,48 @@
+package com.example.chatapp.dto;
+
+import java.util.List;
+
+/**
+ * Yeniden bağlanan istemciye kaçırdığı mesajlar. Mesajlar id sırasıyla (eskiden yeniye) gelir;
+ * hasMore true ise bir sonraki istek since=cursor ile yapılır.
+ */
+public class SyncResponse {
+
+    private List<ChatMessageResponse> messages;
+    private Long cursor;
+    private boolean hasMore;
+
+    public SyncResponse() {
+    }
+
+    public SyncResponse(List<ChatMessageResponse> messages, Long cursor, boolean hasMore) {
+        this.messages = messages;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getter ve Setter'lar
+    public List<ChatMessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
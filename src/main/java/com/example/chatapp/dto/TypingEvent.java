@@ -0,0 +1,51 @@
+package com.example.chatapp.dto;
+
+public class TypingEvent {
+
+    private Long chatId;
+    private Long userId;
+    private String username;
+    private boolean typing;
+
+    public TypingEvent() {
+    }
+
+    public TypingEvent(Long chatId, Long userId, String username, boolean typing) {
+        this.chatId = chatId;
+        this.userId = userId;
+        this.username = username;
+        this.typing = typing;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public boolean isTyping() {
+        return typing;
+    }
+
+    public void setTyping(boolean typing) {
+        this.typing = typing;
+    }
+}
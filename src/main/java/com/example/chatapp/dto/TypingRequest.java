@@ -0,0 +1,31 @@
+package com.example.chatapp.dto;
+
+public class TypingRequest {
+
+    private Long chatId;
+    private boolean typing = true; // false -> yazmayı bıraktı
+
+    public TypingRequest() {
+    }
+
+    public TypingRequest(Long chatId, boolean typing) {
+        this.chatId = chatId;
+        this.typing = typing;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public boolean isTyping() {
+        return typing;
+    }
+
+    public void setTyping(boolean typing) {
+        this.typing = typing;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public class UserDeletionStatus {
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    private Long userId;
+    private State state;
+    private long deletedFriendships;
+    private long deletedMessages;
+    private long deletedMemberships;
+    private long deletedStories;
+    private boolean imageDeleted;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public UserDeletionStatus() {
+    }
+
+    public UserDeletionStatus(Long userId, State state, long deletedFriendships, long deletedMessages,
+                              long deletedMemberships, long deletedStories, boolean imageDeleted,
+                              LocalDateTime startedAt, LocalDateTime finishedAt, String error) {
+        this.userId = userId;
+        this.state = state;
+        this.deletedFriendships = deletedFriendships;
+        this.deletedMessages = deletedMessages;
+        this.deletedMemberships = deletedMemberships;
+        this.deletedStories = deletedStories;
+        this.imageDeleted = imageDeleted;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    // Getter ve Setter'lar
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getDeletedFriendships() {
+        return deletedFriendships;
+    }
+
+    public void setDeletedFriendships(long deletedFriendships) {
+        this.deletedFriendships = deletedFriendships;
+    }
+
+    public long getDeletedMessages() {
+        return deletedMessages;
+    }
+
+    public void setDeletedMessages(long deletedMessages) {
+        this.deletedMessages = deletedMessages;
+    }
+
+    public long getDeletedMemberships() {
+        return deletedMemberships;
+    }
+
+    public void setDeletedMemberships(long deletedMemberships) {
+        this.deletedMemberships = deletedMemberships;
+    }
+
+    public long getDeletedStories() {
+        return deletedStories;
+    }
+
+    public void setDeletedStories(long deletedStories) {
+        this.deletedStories = deletedStories;
+    }
+
+    public boolean isImageDeleted() {
+        return imageDeleted;
+    }
+
+    public void setImageDeleted(boolean imageDeleted) {
+        this.imageDeleted = imageDeleted;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
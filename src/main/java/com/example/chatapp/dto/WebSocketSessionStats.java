@@ -0,0 +1,65 @@
+package com.example.chatapp.dto;
+
+/**
+ * Bir WebSocket oturumunun giden kuyruk durumu.
+ */
+public class WebSocketSessionStats {
+
+    private String sessionId;
+    private String username;
+    private int queuedMessages;
+    private long queuedBytes;
+    private long droppedFrames;
+
+    public WebSocketSessionStats() {
+    }
+
+    public WebSocketSessionStats(String sessionId, String username, int queuedMessages, long queuedBytes, long droppedFrames) {
+        this.sessionId = sessionId;
+        this.username = username;
+        this.queuedMessages = queuedMessages;
+        this.queuedBytes = queuedBytes;
+        this.droppedFrames = droppedFrames;
+    }
+
+    // Getter ve Setter'lar
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getQueuedMessages() {
+        return queuedMessages;
+    }
+
+    public void setQueuedMessages(int queuedMessages) {
+        this.queuedMessages = queuedMessages;
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public void setQueuedBytes(long queuedBytes) {
+        this.queuedBytes = queuedBytes;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public void setDroppedFrames(long droppedFrames) {
+        this.droppedFrames = droppedFrames;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.chatapp.model;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * JWT filtresinin doğruladığı kullanıcı için principal.
+ * Kullanıcı adının yanında id'yi de taşır; controller'lar kullanıcıyı id ile tek sorguda yükleyebilir.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
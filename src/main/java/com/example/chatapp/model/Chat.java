@@ -14,6 +14,8 @@ public class Chat {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    private String name; // Grup sohbetleri için isim (opsiyonel)
+
     @ManyToMany
     @JoinTable(
             name = "chat_users",
@@ -24,6 +26,46 @@ public class Chat {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    // Getter, Setter ve Constructor
-}
+    // Constructor
+    public Chat() {
+    }
+
+    public Chat(String name, Set<User> participants) {
+        this.name = name;
+        this.participants = participants;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
 
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Set<User> getParticipants() {
+        return participants;
+    }
+
+    public void setParticipants(Set<User> participants) {
+        this.participants = participants;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
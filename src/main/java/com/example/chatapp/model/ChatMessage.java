@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+// Geçmiş sayfalama (chat_id, id) üzerinden seek ile yapılır
+@Table(name = "messages", indexes = @Index(name = "idx_messages_chat_id_id", columnList = "chat_id, id"))
 public class ChatMessage {
 
     @Id
@@ -0,0 +1,85 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kullanıcının bir sohbetteki okunmamış mesaj sayısı ve okuduğu son mesaj.
+ * Sayaçlar bellekte tutulur (UnreadCounterService); bu tablo periyodik kayıt noktasıdır ve açılışta buradan yüklenir.
+ */
+@Entity
+@Table(name = "chat_read_state",
+       uniqueConstraints = @UniqueConstraint(name = "uk_chat_read_state_user_chat", columnNames = {"user_id", "chat_id"}))
+public class ChatReadState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(nullable = false)
+    private int unreadCount;
+
+    @Column(nullable = false)
+    private long lastReadMessageId;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public ChatReadState() {
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public long getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(long lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -5,7 +5,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "friendships")
+@Table(name = "friendships", indexes = {
+        // Arkadaş listesi: kullanıcının gönderdiği/aldığı ilişkiler duruma göre, en son güncellenen önce; id imleçteki
+        // eşitliği indeks sırasıyla çözer. ddl-auto=update aynı adlı indeksi değiştirmediği için önceki indekslerden
+        // (requester_id, status) ve (…, updated_at) farklı adlar kullanılır
+        @Index(name = "idx_friendships_requester_status_updated_id", columnList = "requester_id, status, updated_at, id"),
+        @Index(name = "idx_friendships_receiver_status_updated_id", columnList = "receiver_id, status, updated_at, id")
+})
 public class Friendship {
 
     @Id
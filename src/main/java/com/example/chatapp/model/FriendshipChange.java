@@ -0,0 +1,114 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bir kullanıcının arkadaşlık ilişkilerindeki tek bir değişiklik (eklenen, güncellenen ya da silinen istek).
+ * Her değişiklik ilişkinin iki tarafı için ayrı satır olarak yazılır. version kullanıcının kendi sürümüdür
+ * (bkz. UserFriendVersion); istemci since=sürüm ile yalnızca farkları alır.
+ */
+@Entity
+@Table(name = "friendship_changes",
+       uniqueConstraints = @UniqueConstraint(name = "uk_friendship_changes_user_version",
+               columnNames = {"user_id", "version"}))
+public class FriendshipChange {
+
+    public enum ChangeType {
+        ADDED, UPDATED, DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "friendship_id", nullable = false)
+    private Long friendshipId;
+
+    @Column(name = "counterpart_id", nullable = false)
+    private Long counterpartId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ChangeType changeType;
+
+    @Enumerated(EnumType.STRING)
+    private Friendship.FriendshipStatus status; // Silinen ilişkide null
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public FriendshipChange() {
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getFriendshipId() {
+        return friendshipId;
+    }
+
+    public void setFriendshipId(Long friendshipId) {
+        this.friendshipId = friendshipId;
+    }
+
+    public Long getCounterpartId() {
+        return counterpartId;
+    }
+
+    public void setCounterpartId(Long counterpartId) {
+        this.counterpartId = counterpartId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public Friendship.FriendshipStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Friendship.FriendshipStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Mesaj yazımlarını commit sırasına sokan tek satır. Her mesaj batch'i id almadan önce bu satırı kilitleyip
+ * sayacı artırır ve kilidi commit'e kadar tutar; böylece mesaj id'leri tüm düğümlerde commit sırasıyla artar.
+ */
+@Entity
+@Table(name = "message_write_lock")
+public class MessageWriteLock {
+
+    public static final int ROW_ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Yazılan batch sayısı; yalnızca satırı kilitlemek için artırılır
+    @Column(nullable = false)
+    private long batches;
+
+    public MessageWriteLock() {
+    }
+
+    // Getter ve Setter'lar
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public void setBatches(long batches) {
+        this.batches = batches;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uzun süren toplu işlerin (ör. şifre geçişi) kaldığı yeri tutar; işlem çökerse buradan devam edilir.
+ */
+@Entity
+@Table(name = "migration_checkpoints")
+public class MigrationCheckpoint {
+
+    @Id
+    private String name;
+
+    private long lastProcessedId;
+
+    private long migratedCount;
+
+    private boolean completed;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public MigrationCheckpoint() {
+    }
+
+    public MigrationCheckpoint(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(long lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public long getMigratedCount() {
+        return migratedCount;
+    }
+
+    public void setMigratedCount(long migratedCount) {
+        this.migratedCount = migratedCount;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * "Tüm oturumları kapat" kaydı: kullanıcının bu andan önce üretilmiş tüm token'ları geçersizdir.
+ */
+@Entity
+@Table(name = "session_revocations",
+       indexes = @Index(name = "idx_session_revocations_revoked_before", columnList = "revokedBefore"))
+public class SessionRevocation {
+
+    @Id
+    private String username;
+
+    // Bu damgadan (epoch milisaniye) önce üretilmiş token'lar geçersiz
+    private long revokedBefore;
+
+    public SessionRevocation() {
+    }
+
+    public SessionRevocation(String username, long revokedBefore) {
+        this.username = username;
+        this.revokedBefore = revokedBefore;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public long getRevokedBefore() {
+        return revokedBefore;
+    }
+
+    public void setRevokedBefore(long revokedBefore) {
+        this.revokedBefore = revokedBefore;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.chatapp.model;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STOMP oturumuna CONNECT sırasında bağlanan principal.
+ * Kullanıcı id'si, bağlanırken kullanılan token'ın jti'si, istemcinin CONNECT'te bildirdiği cihaz kimliği ve bağlantı anındaki
+ * sohbet üyeliklerinin bir kopyasını taşır;
+ * sonraki SEND çerçeveleri veritabanına gitmeden bu bilgilerle yetkilendirilir.
+ * Üyelik değişiklikleri bağlı oturumlara StompPrincipalRegistry üzerinden yansıtılır.
+ * Arkadaşlık kontrolleri oturum başına kopya yerine ortak FriendGraphService üzerinden yapılır.
+ */
+public class StompPrincipal implements Principal {
+
+    private final Long userId;
+    private final String username;
+    private final String deviceId;
+    private final String tokenId;
+    private final Set<Long> chatIds = ConcurrentHashMap.newKeySet();
+
+    public StompPrincipal(Long userId, String username, Collection<Long> chatIds) {
+        this(userId, username, null, null, chatIds);
+    }
+
+    public StompPrincipal(Long userId, String username, String deviceId, String tokenId, Collection<Long> chatIds) {
+        this.userId = userId;
+        this.username = username;
+        this.deviceId = deviceId;
+        this.tokenId = tokenId;
+        this.chatIds.addAll(chatIds);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    // Boşsa eşitleme imleci ortak "default" cihazına yazılır
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    // Çıkış yapılınca bu token ile açılmış oturumlar kapatılır; jti taşımayan eski token'lar için null
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public boolean isChatMember(Long chatId) {
+        return chatId != null && chatIds.contains(chatId);
+    }
+
+    public Set<Long> getChatIds() {
+        return Set.copyOf(chatIds);
+    }
+
+    public void addChat(Long chatId) {
+        chatIds.add(chatId);
+    }
+
+    public void removeChat(Long chatId) {
+        chatIds.remove(chatId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Kullanıcının bir cihazına bir sohbette teslim edilen son mesajın id'si.
+ * İstemci kendi imlecini (since) göndermezse eşitleme buradan devam eder. İmleç eşitleme sayfalarıyla ve
+ * canlı teslim edilen mesajların onaylarıyla (/app/sync.ack) ilerler; her cihazın imleci ayrıdır.
+ */
+@Entity
+@Table(name = "sync_device_cursors",
+       uniqueConstraints = @UniqueConstraint(name = "uk_sync_device_cursors_user_device_chat",
+               columnNames = {"user_id", "device_id", "chat_id"}))
+public class SyncCursor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "device_id", nullable = false, length = 64)
+    private String deviceId;
+
+    @Column(name = "chat_id", nullable = false)
+    private Long chatId;
+
+    @Column(nullable = false)
+    private long lastMessageId;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public SyncCursor() {
+    }
+
+    public SyncCursor(Long userId, String deviceId, Long chatId, long lastMessageId) {
+        this.userId = userId;
+        this.deviceId = deviceId;
+        this.chatId = chatId;
+        this.lastMessageId = lastMessageId;
+    }
+
+    // Getter ve Setter'lar
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(Long chatId) {
+        this.chatId = chatId;
+    }
+
+    public long getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -53,6 +53,8 @@ public class User {
 
     private LocalDateTime updatedAt; // Güncelleme zamanı
 
+    private LocalDateTime disabledAt; // Silme işi başladığında dolar; giriş ve token kullanımı engellenir
+
     // Constructor'lar
     public User() {
         this.createdAt = LocalDateTime.now();
@@ -154,6 +156,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getDisabledAt() {
+        return disabledAt;
+    }
+
+    public void setDisabledAt(LocalDateTime disabledAt) {
+        this.disabledAt = disabledAt;
+    }
+
     public String getIsim() {
         return isim;
     }
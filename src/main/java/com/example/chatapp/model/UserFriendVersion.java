@@ -0,0 +1,41 @@
+package com.example.chatapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Kullanıcının arkadaşlık sürümü. Değişiklik günlüğüne yazan transaction bu satırı kilitleyip artırır;
+ * sürüm numaraları kullanıcı başına kesintisiz ve commit sırasıyla artar.
+ */
+@Entity
+@Table(name = "user_friend_versions")
+public class UserFriendVersion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private long version;
+
+    public UserFriendVersion() {
+    }
+
+    // Getter ve Setter'lar
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
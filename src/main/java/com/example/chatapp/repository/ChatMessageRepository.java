@@ -0,0 +1,38 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.dto.ChatMessageResponse;
+import com.example.chatapp.model.ChatMessage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
+
+    // Sohbetin en yeni mesajları (yeniden eskiye). Gönderen entity'si yüklenmez, yalnızca gereken sütunlar okunur.
+    @Query("select new com.example.chatapp.dto.ChatMessageResponse(m.id, m.chat.id, s.id, s.username, m.content, m.timestamp) " +
+           "from ChatMessage m join m.sender s where m.chat.id = :chatId order by m.id desc")
+    List<ChatMessageResponse> findLatest(@Param("chatId") Long chatId, Limit limit);
+
+    // Verilen id'den eski mesajlar; (chat_id, id) indeksinde seek yapıldığı için sayfa derinliğinden bağımsızdır
+    @Query("select new com.example.chatapp.dto.ChatMessageResponse(m.id, m.chat.id, s.id, s.username, m.content, m.timestamp) " +
+           "from ChatMessage m join m.sender s where m.chat.id = :chatId and m.id < :beforeId order by m.id desc")
+    List<ChatMessageResponse> findBefore(@Param("chatId") Long chatId, @Param("beforeId") Long beforeId, Limit limit);
+
+    // Verilen sohbetlerde since'ten yeni mesajlar, id sırasıyla (istemci imleci ile eşitleme)
+    @Query("select new com.example.chatapp.dto.ChatMessageResponse(m.id, m.chat.id, s.id, s.username, m.content, m.timestamp) " +
+           "from ChatMessage m join m.sender s where m.chat.id in :chatIds and m.id > :since order by m.id")
+    List<ChatMessageResponse> findSince(@Param("chatIds") Collection<Long> chatIds, @Param("since") Long since, Limit limit);
+
+    // Her sohbette cihazın sunucudaki imlecinden yeni mesajlar (imleci olmayan sohbetler baştan)
+    @Query("select new com.example.chatapp.dto.ChatMessageResponse(m.id, m.chat.id, s.id, s.username, m.content, m.timestamp) " +
+           "from ChatMessage m join m.sender s " +
+           "left join SyncCursor c on c.userId = :userId and c.deviceId = :deviceId and c.chatId = m.chat.id " +
+           "where m.chat.id in :chatIds and m.id > coalesce(c.lastMessageId, 0) " +
+           "order by m.id")
+    List<ChatMessageResponse> findAfterCursors(@Param("userId") Long userId, @Param("deviceId") String deviceId,
+                                               @Param("chatIds") Collection<Long> chatIds, Limit limit);
+}
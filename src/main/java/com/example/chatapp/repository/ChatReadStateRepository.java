@@ -0,0 +1,13 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.ChatReadState;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChatReadStateRepository extends JpaRepository<ChatReadState, Long> {
+
+    // Açılışta tablo id sırasıyla sayfa sayfa okunur
+    List<ChatReadState> findByIdGreaterThanOrderById(Long id, Limit limit);
+}
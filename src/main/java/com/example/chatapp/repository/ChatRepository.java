@@ -0,0 +1,22 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.Chat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ChatRepository extends JpaRepository<Chat, Long> {
+
+    // Sohbet katılımcılarının id'leri (User entity'leri yüklenmeden)
+    @Query("select p.id from Chat c join c.participants p where c.id = :chatId")
+    List<Long> findParticipantIds(@Param("chatId") Long chatId);
+
+    @Query("select count(p) > 0 from Chat c join c.participants p where c.id = :chatId and p.id = :userId")
+    boolean isParticipant(@Param("chatId") Long chatId, @Param("userId") Long userId);
+
+    // Kullanıcının katıldığı sohbetlerin id'leri
+    @Query("select c.id from Chat c join c.participants p where p.id = :userId")
+    List<Long> findChatIdsByParticipant(@Param("userId") Long userId);
+}
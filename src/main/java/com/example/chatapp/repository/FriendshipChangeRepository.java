@@ -0,0 +1,19 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.FriendshipChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface FriendshipChangeRepository extends JpaRepository<FriendshipChange, Long> {
+
+    // Kullanıcının arkadaşlık sürümü; hiç değişiklik yoksa 0
+    @Query("select coalesce(max(v.version), 0) from UserFriendVersion v where v.userId = :userId")
+    long findVersion(@Param("userId") Long userId);
+
+    @Query("select c from FriendshipChange c where c.userId = :userId and c.version > :since order by c.version")
+    List<FriendshipChange> findSince(@Param("userId") Long userId, @Param("since") long since, Limit limit);
+}
@@ -1,15 +1,30 @@
 package com.example.chatapp.repository;
 
+import com.example.chatapp.dto.FriendshipResponse;
 import com.example.chatapp.model.Friendship;
 import com.example.chatapp.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
+
+    // Toplu işlemlerde yetki/durum kontrolü için ilişkinin yalnızca id'leri ve durumu
+    interface FriendshipRow {
+        Long getId();
+        Long getRequesterId();
+        Long getReceiverId();
+        Friendship.FriendshipStatus getStatus();
+    }
     
     // Kullanıcının gönderdiği tüm arkadaşlık istekleri
     List<Friendship> findByRequester(User requester);
@@ -32,4 +47,97 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     // İki kullanıcı arasında kabul edilmiş arkadaşlık var mı kontrol et
     boolean existsByRequesterAndReceiverAndStatus(User requester, User receiver, Friendship.FriendshipStatus status);
     boolean existsByReceiverAndRequesterAndStatus(User receiver, User requester, Friendship.FriendshipStatus status);
-} 
\ No newline at end of file
+
+    // İki kullanıcı arasında (yönü ve durumu fark etmeksizin) ilişki var mı
+    @Query("select count(f) > 0 from Friendship f where (f.requester.id = :userId and f.receiver.id = :otherId) " +
+           "or (f.requester.id = :otherId and f.receiver.id = :userId)")
+    boolean existsBetween(@Param("userId") Long userId, @Param("otherId") Long otherId);
+
+    // Kullanıcının verilen durumdaki ilişkilerindeki karşı tarafın id'leri (entity yüklenmeden)
+    @Query("select case when f.requester.id = :userId then f.receiver.id else f.requester.id end from Friendship f " +
+           "where (f.requester.id = :userId or f.receiver.id = :userId) and f.status = :status")
+    List<Long> findCounterpartIds(@Param("userId") Long userId, @Param("status") Friendship.FriendshipStatus status);
+
+    @Query("select case when f.requester.id = :userId then f.receiver.id else f.requester.id end from Friendship f " +
+           "where (f.requester.id = :userId or f.receiver.id = :userId) and f.status in :statuses")
+    List<Long> findCounterpartIds(@Param("userId") Long userId,
+                                  @Param("statuses") Collection<Friendship.FriendshipStatus> statuses);
+
+    // Kullanıcının ve verilen durumdaki ilişkilerindeki karşı tarafların en son profil güncellemesi (liste ETag'i için)
+    @Query("select max(coalesce(u.updatedAt, u.createdAt)) from User u where u.id = :userId " +
+           "or u.id in (select f.receiver.id from Friendship f where f.requester.id = :userId and f.status in :statuses) " +
+           "or u.id in (select f.requester.id from Friendship f where f.receiver.id = :userId and f.status in :statuses)")
+    LocalDateTime findLatestProfileUpdate(@Param("userId") Long userId,
+                                          @Param("statuses") Collection<Friendship.FriendshipStatus> statuses);
+
+    // Verilen kullanıcıların verilen durumdaki tüm ilişkileri (iki yönde) tek sorguda; komşulukları toplu yüklemek için
+    interface FriendshipEdge {
+        Long getRequesterId();
+        Long getReceiverId();
+    }
+
+    @Query("select f.requester.id as requesterId, f.receiver.id as receiverId from Friendship f " +
+           "where (f.requester.id in :userIds or f.receiver.id in :userIds) and f.status = :status")
+    List<FriendshipEdge> findEdges(@Param("userIds") Collection<Long> userIds,
+                                   @Param("status") Friendship.FriendshipStatus status);
+
+    // Arkadaş listesi satırları; User entity'leri (şifre vb.) yüklenmez
+    String LIST_ENTRY_SELECT = "select new com.example.chatapp.dto.FriendshipResponse(f.id, f.status, f.createdAt, " +
+            "f.updatedAt, rq.id, rq.username, rq.isim, rq.soyad, rq.profileImageUrl, " +
+            "rc.id, rc.username, rc.isim, rc.soyad, rc.profileImageUrl) " +
+            "from Friendship f join f.requester rq join f.receiver rc ";
+
+    @Query(LIST_ENTRY_SELECT + "where f.id in :ids")
+    List<FriendshipResponse> findEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Sayfalama (updatedAt, id) üzerinden imleçle yapılır; en son güncellenen ilişki önce gelir.
+    // Her sorgu tek tarafa (gönderen ya da alan) bakar ve (…_id, status, updated_at, id) indeksini sırayla okur;
+    // iki tarafı birden isteyen liste (arkadaşlar) iki sorguyu bellekte birleştirir
+    String RECENT_KEYSET = "and (f.updatedAt < :beforeAt or (f.updatedAt = :beforeAt and f.id < :beforeId)) " +
+            "order by f.updatedAt desc, f.id desc";
+
+    @Query(LIST_ENTRY_SELECT + "where f.status = :status and " +
+           "((rq.id = :userId and rc.id in :counterpartIds) or (rc.id = :userId and rq.id in :counterpartIds))")
+    List<FriendshipResponse> findFriendEntriesAmong(@Param("userId") Long userId,
+                                                    @Param("status") Friendship.FriendshipStatus status,
+                                                    @Param("counterpartIds") Collection<Long> counterpartIds);
+
+    @Query(LIST_ENTRY_SELECT + "where rq.id = :userId and f.status = :status " + RECENT_KEYSET)
+    List<FriendshipResponse> findSentEntries(@Param("userId") Long userId,
+                                             @Param("status") Friendship.FriendshipStatus status,
+                                             @Param("beforeAt") LocalDateTime beforeAt,
+                                             @Param("beforeId") Long beforeId,
+                                             Limit limit);
+
+    @Query(LIST_ENTRY_SELECT + "where rc.id = :userId and f.status = :status " + RECENT_KEYSET)
+    List<FriendshipResponse> findReceivedEntries(@Param("userId") Long userId,
+                                                 @Param("status") Friendship.FriendshipStatus status,
+                                                 @Param("beforeAt") LocalDateTime beforeAt,
+                                                 @Param("beforeId") Long beforeId,
+                                                 Limit limit);
+
+    // Liste toplamları indeksten sayılır, satırlar yüklenmez
+    long countByRequester_IdAndStatus(Long requesterId, Friendship.FriendshipStatus status);
+
+    long countByReceiver_IdAndStatus(Long receiverId, Friendship.FriendshipStatus status);
+
+    @Query("select f.id as id, f.requester.id as requesterId, f.receiver.id as receiverId, f.status as status " +
+           "from Friendship f where f.id in :ids")
+    List<FriendshipRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Kullanıcının verilen kişilerle (yönü ve durumu fark etmeksizin) ilişkisi olanlar
+    @Query("select case when f.requester.id = :userId then f.receiver.id else f.requester.id end from Friendship f " +
+           "where (f.requester.id = :userId and f.receiver.id in :otherIds) " +
+           "or (f.receiver.id = :userId and f.requester.id in :otherIds)")
+    List<Long> findCounterpartIdsAmong(@Param("userId") Long userId, @Param("otherIds") Collection<Long> otherIds);
+
+    // Alıcısı verilen kullanıcı olan ve hâlâ beklenen durumdaki istekleri tek UPDATE ile değiştirir
+    @Modifying
+    @Query("update Friendship f set f.status = :status, f.updatedAt = :now " +
+           "where f.id in :ids and f.receiver.id = :receiverId and f.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("receiverId") Long receiverId,
+                     @Param("expected") Friendship.FriendshipStatus expected,
+                     @Param("status") Friendship.FriendshipStatus status,
+                     @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,7 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.MigrationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MigrationCheckpointRepository extends JpaRepository<MigrationCheckpoint, String> {
+}
@@ -0,0 +1,23 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.SessionRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface SessionRevocationRepository extends JpaRepository<SessionRevocation, String> {
+
+    // Başka düğümde yazılan kesim; aynı damgayı taşıyan kayıtlar (damga düğüm başına tekildir)
+    @Query("select s from SessionRevocation s where s.revokedBefore = :cutoff")
+    List<SessionRevocation> findByCutoff(@Param("cutoff") long cutoff);
+
+    // Kesim zamanından önce üretilen token'ların hepsi süresini doldurduysa kayıt gereksizdir
+    @Modifying
+    @Transactional
+    @Query("delete from SessionRevocation s where s.revokedBefore < :threshold")
+    int deleteOlderThan(@Param("threshold") long threshold);
+}
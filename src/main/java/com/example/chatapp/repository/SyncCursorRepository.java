@@ -0,0 +1,11 @@
+package com.example.chatapp.repository;
+
+import com.example.chatapp.model.SyncCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SyncCursorRepository extends JpaRepository<SyncCursor, Long> {
+
+    List<SyncCursor> findByUserIdAndDeviceId(Long userId, String deviceId);
+}
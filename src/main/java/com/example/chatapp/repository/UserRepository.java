@@ -2,6 +2,10 @@ package com.example.chatapp.repository;
 
 import com.example.chatapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,4 +25,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByUsernameContainingOrEmailContainingOrIsimContainingOrSoyadContaining(
             String username, String email, String isim, String soyad);
 
+    // Verilen id'lerden var olanlar (entity yüklenmeden); silinmekte olan kullanıcılar dahil edilmez
+    @Query("select u.id from User u where u.id in :ids and u.disabledAt is null")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Silme işi yarıda kalmış (devre dışı bırakılmış) kullanıcılar
+    @Query("select u.id from User u where u.disabledAt is not null order by u.id")
+    List<Long> findDisabledIds();
+
 }
@@ -2,26 +2,57 @@ package com.example.chatapp.service;
 
 import com.example.chatapp.model.Admin;
 import com.example.chatapp.repository.AdminRepository;
+import com.example.chatapp.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Optional;
 
 @Service("adminDetailsServiceImpl")
 public class AdminDetailsServiceImpl implements UserDetailsService {
 
     private final AdminRepository adminRepository;
 
-    public AdminDetailsServiceImpl(AdminRepository adminRepository) {
+    // Admin adı -> principal önbelleği
+    private final ExpiringCache<String, UserDetails> principalCache;
+    private final long principalTtlMillis;
+
+    public AdminDetailsServiceImpl(AdminRepository adminRepository,
+                                   @Value("${security.principal-cache.ttl-ms:300000}") long principalTtlMillis,
+                                   @Value("${security.principal-cache.max-size:10000}") int principalCacheMaxSize) {
         this.adminRepository = adminRepository;
+        this.principalTtlMillis = principalTtlMillis;
+        this.principalCache = new ExpiringCache<>(principalCacheMaxSize);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Admin admin = adminRepository.findByUsername(username)
+        return findAdminByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Admin bulunamadı"));
-        return new org.springframework.security.core.userdetails.User(admin.getUsername(), admin.getPassword(), new ArrayList<>());
+    }
+
+    // Admin yoksa exception yerine boş döner
+    public Optional<UserDetails> findAdminByUsername(String username) {
+        UserDetails cached = principalCache.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<Admin> admin = adminRepository.findByUsername(username);
+        if (admin.isEmpty()) {
+            return Optional.empty();
+        }
+        UserDetails adminDetails = new org.springframework.security.core.userdetails.User(
+                admin.get().getUsername(), admin.get().getPassword(), new ArrayList<>());
+        principalCache.putWithTtl(username, adminDetails, principalTtlMillis);
+        return Optional.of(adminDetails);
+    }
+
+    public void evict(String username) {
+        principalCache.invalidate(username);
     }
 }
@@ -1,16 +1,19 @@
 package com.example.chatapp.service;
 
+import com.example.chatapp.dto.PasswordMigrationStatus;
+import com.example.chatapp.dto.UserDeletionStatus;
+import com.example.chatapp.dto.WebSocketSessionStats;
 import com.example.chatapp.model.Admin;
 import com.example.chatapp.model.Role;
 import com.example.chatapp.model.User;
 import com.example.chatapp.repository.AdminRepository;
-import com.example.chatapp.repository.FriendshipRepository;
 import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.websocket.OutboundFlowControlInterceptor;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -26,11 +29,20 @@ public class AdminService {
     private UserRepository userRepository;
 
     @Autowired
-    private FriendshipRepository friendshipRepository;
+    private UserDeletionService userDeletionService;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PasswordMigrationService passwordMigrationService;
+
+    @Autowired
+    private OutboundFlowControlInterceptor outboundFlowControlInterceptor;
+
 
     public String registerAdmin(String username, String password) throws Exception {
         logger.info("Admin kaydı yapılıyor: {}", username);
@@ -62,7 +74,7 @@ public class AdminService {
         }
 
         // Token oluştur
-        String token = jwtService.generateToken(username);
+        String token = jwtService.generateToken(username, Role.ADMIN);
         logger.info("Admin giriş başarılı, token oluşturuldu: {}", username);
         return token;
     }
@@ -77,16 +89,7 @@ public class AdminService {
         }
 
         try {
-            // Token'dan kullanıcı adını al
-            String adminUsername = jwtService.extractUsername(token);
-            logger.info("Token'dan kullanıcı adı çıkarıldı: {}", adminUsername);
-
-            // Admin kontrolü
-            Optional<Admin> adminOpt = adminRepository.findByUsername(adminUsername);
-            if (adminOpt.isEmpty()) {
-                logger.error("Admin bulunamadı: {}", adminUsername);
-                throw new Exception("Sadece admin kullanıcılar bu işlemi yapabilir.");
-            }
+            requireAdmin(token);
 
             // Tüm kullanıcıları getir
             List<User> users = userRepository.findAll();
@@ -98,50 +101,66 @@ public class AdminService {
         }
     }
 
-    @Transactional
-    public void deleteUserById(Long targetUserId, String token) throws Exception {
+    /**
+     * Kullanıcıyı hemen devre dışı bırakır, ilişkili kayıtları arka planda siler.
+     * İlerleme getUserDeletionStatus ile izlenir.
+     */
+    public UserDeletionStatus deleteUserById(Long targetUserId, String token) throws Exception {
         logger.info("deleteUserById çağrıldı. UserId: {}", targetUserId);
-        
+        requireAdmin(token);
+
+        // Silinecek kullanıcıyı kontrol et
+        Optional<User> userToDelete = userRepository.findById(targetUserId);
+        if (userToDelete.isEmpty()) {
+            logger.error("Silinecek kullanıcı bulunamadı: {}", targetUserId);
+            throw new Exception("Silinecek kullanıcı bulunamadı.");
+        }
+        return userDeletionService.startDeletion(userToDelete.get());
+    }
+
+    // Kullanıcı silme işinin ilerlemesi
+    public UserDeletionStatus getUserDeletionStatus(Long targetUserId, String token) throws Exception {
+        requireAdmin(token);
+        UserDeletionStatus status = userDeletionService.getStatus(targetUserId);
+        if (status == null) {
+            throw new Exception("Kullanıcı silme işi bulunamadı.");
+        }
+        return status;
+    }
+
+    // Toplu şifre geçişini başlat
+    public PasswordMigrationStatus startPasswordMigration(String token) throws Exception {
+        requireAdmin(token);
+        logger.info("Toplu şifre geçişi başlatılıyor");
+        return passwordMigrationService.startMigration();
+    }
+
+    // Toplu şifre geçişinin ilerlemesi
+    public PasswordMigrationStatus getPasswordMigrationStatus(String token) throws Exception {
+        requireAdmin(token);
+        return passwordMigrationService.getStatus();
+    }
+
+    // Açık WebSocket oturumlarının giden kuyruk durumları
+    public List<WebSocketSessionStats> getWebSocketSessionStats(String token) throws Exception {
+        requireAdmin(token);
+        return outboundFlowControlInterceptor.getStats();
+    }
+
+    // Token'ın ADMIN rol claim'i taşıması ve adminin hâlâ kayıtlı olması gerekir; aynı adlı kullanıcının token'ı yetmez
+    private void requireAdmin(String token) throws Exception {
         if (token == null || token.isEmpty()) {
-            logger.error("Token bulunamadı");
             throw new Exception("Token bulunamadı.");
         }
-
-        try {
-            // Token'dan kullanıcı adını al
-            String requesterUsername = jwtService.extractUsername(token);
-            logger.info("Token'dan kullanıcı adı çıkarıldı: {}", requesterUsername);
-
-            // Admin kontrolü
-            Optional<Admin> adminOpt = adminRepository.findByUsername(requesterUsername);
-            if (adminOpt.isEmpty()) {
-                logger.error("Admin bulunamadı: {}", requesterUsername);
-                throw new Exception("Sadece admin kullanıcılar bu işlemi yapabilir.");
-            }
-
-            // Silinecek kullanıcıyı kontrol et
-            Optional<User> userToDelete = userRepository.findById(targetUserId);
-            if (userToDelete.isEmpty()) {
-                logger.error("Silinecek kullanıcı bulunamadı: {}", targetUserId);
-                throw new Exception("Silinecek kullanıcı bulunamadı.");
-            }
-            
-            User user = userToDelete.get();
-            
-            // Kullanıcının arkadaşlık ilişkilerini sil
-            logger.info("Kullanıcının arkadaşlık ilişkileri siliniyor: {}", targetUserId);
-            friendshipRepository.findByRequesterOrReceiver(user, user)
-                .forEach(friendship -> {
-                    logger.info("Arkadaşlık ilişkisi siliniyor: {}", friendship.getId());
-                    friendshipRepository.delete(friendship);
-                });
-
-            // Silme işlemi
-            userRepository.deleteById(targetUserId);
-            logger.info("Kullanıcı başarıyla silindi: {}", targetUserId);
-        } catch (Exception e) {
-            logger.error("Kullanıcı silme hatası", e);
-            throw new Exception("Kullanıcı silinemedi: " + e.getMessage());
+        Claims claims = jwtService.validateToken(token);
+        String adminUsername = claims.getSubject();
+        if (jwtService.extractRole(claims) != Role.ADMIN) {
+            logger.error("Admin rolü olmayan token ile admin işlemi denendi: {}", adminUsername);
+            throw new Exception("Sadece admin kullanıcılar bu işlemi yapabilir.");
+        }
+        if (adminRepository.findByUsername(adminUsername).isEmpty()) {
+            logger.error("Admin bulunamadı: {}", adminUsername);
+            throw new Exception("Sadece admin kullanıcılar bu işlemi yapabilir.");
         }
     }
 }
@@ -0,0 +1,147 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.ReadReceiptEvent;
+import com.example.chatapp.dto.ReadReceiptRequest;
+import com.example.chatapp.dto.TypingEvent;
+import com.example.chatapp.dto.TypingRequest;
+import com.example.chatapp.model.StompPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yazıyor bilgisi ve okundu bilgisi gibi geçici olaylar. Hiçbiri olay başına veritabanına yazılmaz.
+ * <ul>
+ *     <li>Yazıyor bilgisi (kullanıcı, sohbet) başına throttle edilir: durum değişmedikçe aralık başına en fazla bir kez iletilir.</li>
+ *     <li>Okundu bilgileri aralık boyunca (kullanıcı, sohbet) başına en büyük mesaj id'sine indirgenir; aralık sonunda
+ *     sayaçlara uygulanır ve katılımcılara tek olay olarak gönderilir. Okunan son mesajı ilerletmeyen (geç ulaşan) bilgiler
+ *     sayaca da katılımcılara da yansımaz; sohbete ait olmayan id'ler yok sayılır. Katılımcılara sayaca uygulanan id
+ *     gönderilir. Tabloya UnreadCounterService'in toplu kaydıyla yazılır.</li>
+ * </ul>
+ * Giden çerçeveler coalesce-key taşır; yavaş istemcinin kuyruğunda yalnızca en yenisi kalır.
+ */
+@Service
+public class ChatActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatActivityService.class);
+
+    static final String TYPING_DESTINATION = "/queue/typing";
+    static final String RECEIPT_DESTINATION = "/queue/receipts";
+
+    private final ChatFanoutService chatFanoutService;
+    private final UnreadCounterService unreadCounterService;
+    private final long typingThrottleNanos;
+
+    // (kullanıcı, sohbet) -> en son iletilen yazıyor bilgisi
+    private final ConcurrentHashMap<ActivityKey, TypingState> typingStates = new ConcurrentHashMap<>();
+
+    // (kullanıcı, sohbet) -> aralık içinde okunan en büyük mesaj id'si
+    private final ConcurrentHashMap<ActivityKey, Long> pendingReceipts = new ConcurrentHashMap<>();
+
+    private final Counter typingThrottledCounter;
+    private final Counter receiptsCoalescedCounter;
+
+    public ChatActivityService(ChatFanoutService chatFanoutService,
+                               UnreadCounterService unreadCounterService,
+                               MeterRegistry meterRegistry,
+                               @Value("${chat.typing.throttle-ms:2000}") long typingThrottleMillis) {
+        this.chatFanoutService = chatFanoutService;
+        this.unreadCounterService = unreadCounterService;
+        this.typingThrottleNanos = TimeUnit.MILLISECONDS.toNanos(typingThrottleMillis);
+
+        this.typingThrottledCounter = Counter.builder("chat.activity.dropped")
+                .tag("type", "typing")
+                .description("Throttle nedeniyle iletilmeyen yazıyor bilgileri")
+                .register(meterRegistry);
+        this.receiptsCoalescedCounter = Counter.builder("chat.activity.dropped")
+                .tag("type", "read-receipt")
+                .description("Daha yenisiyle birleştirilen okundu bilgileri")
+                .register(meterRegistry);
+    }
+
+    public void typing(StompPrincipal user, TypingRequest request) {
+        Long chatId = request.getChatId();
+        if (chatId == null || !user.isChatMember(chatId)) {
+            logger.debug("Yazıyor bilgisi yok sayıldı ({}): sohbet {}", user.getName(), chatId);
+            return;
+        }
+
+        boolean typing = request.isTyping();
+        long now = System.nanoTime();
+        boolean[] forward = {false};
+        typingStates.compute(new ActivityKey(user.getUserId(), chatId), (key, last) -> {
+            if (last == null || last.typing() != typing || now - last.sentAt() >= typingThrottleNanos) {
+                forward[0] = true;
+                return new TypingState(typing, now);
+            }
+            return last;
+        });
+        if (!forward[0]) {
+            typingThrottledCounter.increment();
+            return;
+        }
+
+        chatFanoutService.deliver(chatId, TYPING_DESTINATION,
+                new TypingEvent(chatId, user.getUserId(), user.getName(), typing),
+                user.getUserId(), "typing:" + chatId + ":" + user.getUserId());
+    }
+
+    public void read(StompPrincipal user, ReadReceiptRequest request) {
+        Long chatId = request.getChatId();
+        Long messageId = request.getMessageId();
+        if (chatId == null || messageId == null || !user.isChatMember(chatId)) {
+            logger.debug("Okundu bilgisi yok sayıldı ({}): sohbet {}", user.getName(), chatId);
+            return;
+        }
+        Long previous = pendingReceipts.merge(new ActivityKey(user.getUserId(), chatId), messageId, Math::max);
+        if (!previous.equals(messageId)) {
+            receiptsCoalescedCounter.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-receipts.flush-interval-ms:1000}")
+    public void flush() {
+        for (ActivityKey key : pendingReceipts.keySet()) {
+            // remove ile alınır; bu arada gelen okundu bilgisi bir sonraki tura kalır
+            Long messageId = pendingReceipts.remove(key);
+            if (messageId == null) {
+                continue;
+            }
+            // Katılımcılara istemcinin gönderdiği değil, sayaca uygulanan id iletilir
+            long applied = unreadCounterService.markRead(key.userId(), key.chatId(), messageId);
+            if (applied == 0) {
+                continue; // Sohbete ait değil ya da daha yenisi önceki bir turda uygulanmış
+            }
+            try {
+                chatFanoutService.deliver(key.chatId(), RECEIPT_DESTINATION,
+                        new ReadReceiptEvent(key.chatId(), key.userId(), applied),
+                        key.userId(), "receipt:" + key.chatId() + ":" + key.userId());
+            } catch (Exception e) {
+                logger.warn("Okundu bilgisi iletilemedi (sohbet {}): {}", key.chatId(), e.getMessage());
+            }
+        }
+
+        // Throttle aralığı geçmiş yazıyor kayıtları artık karar vermede kullanılmaz
+        long now = System.nanoTime();
+        typingStates.values().removeIf(state -> now - state.sentAt() >= typingThrottleNanos);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private record ActivityKey(long userId, long chatId) {
+    }
+
+    private record TypingState(boolean typing, long sentAt) {
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.util.ExpiringCache;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import com.example.chatapp.websocket.ClusterFrame;
+import com.example.chatapp.websocket.OutboundFlowControlInterceptor;
+import com.example.chatapp.websocket.StompPrincipalRegistry;
+import com.example.chatapp.websocket.UserNodeRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sohbet mesajlarını katılımcılara dağıtır.
+ * Her sohbetin katılımcı id'leri sıralı bir long[] olarak önbellekte tutulur (User entity'leri yüklenmez)
+ * ve üyelik değiştiğinde geçersiz kılınır; üyelik değişiklikleri ClusterBus ile diğer düğümlere de yayınlanır. Mesaj bir kez JSON'a çevrilir; aynı çerçeve bağlı olan
+ * her katılımcının oturumlarına gönderilir. Bağlı olmayan katılımcılar atlanır; başka düğümde bağlı
+ * olanlara çerçeve ClusterBus ile yalnızca o düğüme yönlendirilir.
+ */
+@Service
+public class ChatFanoutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatFanoutService.class);
+
+    private final ChatRepository chatRepository;
+    private final StompPrincipalRegistry principalRegistry;
+    private final ClusterBus clusterBus;
+    private final UserNodeRegistry userNodeRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final long cacheTtlMillis;
+
+    // Sohbet id -> sıralı katılımcı id'leri
+    private final ExpiringCache<Long, long[]> participantCache;
+
+    private final Counter cacheMissCounter;
+    private final Counter deliveredCounter;
+    private final Counter remoteCounter;
+
+    public ChatFanoutService(ChatRepository chatRepository,
+                             StompPrincipalRegistry principalRegistry,
+                             ClusterBus clusterBus,
+                             UserNodeRegistry userNodeRegistry,
+                             SimpMessagingTemplate messagingTemplate,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${chat.fanout.cache-ttl-ms:600000}") long cacheTtlMillis,
+                             @Value("${chat.fanout.cache-max-size:50000}") int cacheMaxSize) {
+        this.chatRepository = chatRepository;
+        this.principalRegistry = principalRegistry;
+        this.clusterBus = clusterBus;
+        this.userNodeRegistry = userNodeRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.participantCache = new ExpiringCache<>(cacheMaxSize);
+
+        this.cacheMissCounter = Counter.builder("chat.fanout.cache.miss")
+                .description("Katılımcı listesi veritabanından okunan dağıtımlar")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("chat.fanout.delivered")
+                .description("Bağlı katılımcılara gönderilen çerçeveler")
+                .register(meterRegistry);
+        this.remoteCounter = Counter.builder("chat.fanout.remote")
+                .description("Başka düğüme yönlendirilen çerçeveler")
+                .register(meterRegistry);
+
+        clusterBus.setReceiver(this::receive);
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    public long[] getParticipantIds(Long chatId) {
+        long[] ids = participantCache.get(chatId);
+        if (ids == null) {
+            cacheMissCounter.increment();
+            List<Long> loaded = chatRepository.findParticipantIds(chatId);
+            ids = loaded.stream().mapToLong(Long::longValue).sorted().toArray();
+            participantCache.putWithTtl(chatId, ids, cacheTtlMillis);
+        }
+        return ids;
+    }
+
+    // Önbellekteki katılımcı listesini yalnızca bu düğümde düşürür
+    public void invalidate(Long chatId) {
+        participantCache.invalidate(chatId);
+    }
+
+    /**
+     * Sohbete katılım sonrası çağrılır: katılımcı listesi düşer ve bağlı oturumların üyelik kopyalarına
+     * sohbet eklenir. Aynısı diğer düğümlerde de uygulanır.
+     */
+    public void chatJoined(Long chatId, long[] userIds) {
+        applyMembership(ClusterEvent.Type.CHAT_JOINED, chatId, userIds);
+        clusterBus.publish(ClusterEvent.Type.CHAT_JOINED, chatId, userIds, 0);
+    }
+
+    // Sohbetten ayrılma sonrası; chatJoined'ın tersi
+    public void chatLeft(Long chatId, long[] userIds) {
+        applyMembership(ClusterEvent.Type.CHAT_LEFT, chatId, userIds);
+        clusterBus.publish(ClusterEvent.Type.CHAT_LEFT, chatId, userIds, 0);
+    }
+
+    private void onClusterEvent(ClusterEvent event) {
+        if (event.type() == ClusterEvent.Type.CHAT_JOINED || event.type() == ClusterEvent.Type.CHAT_LEFT) {
+            applyMembership(event.type(), event.id(), event.userIds());
+        }
+    }
+
+    private void applyMembership(ClusterEvent.Type type, Long chatId, long[] userIds) {
+        participantCache.invalidate(chatId);
+        if (type == ClusterEvent.Type.CHAT_JOINED) {
+            principalRegistry.chatJoined(Arrays.stream(userIds).boxed().toList(), chatId);
+            return;
+        }
+        for (long userId : userIds) {
+            principalRegistry.chatLeft(userId, chatId);
+        }
+    }
+
+    /**
+     * Yükü bir kez serileştirir ve sohbetin bağlı katılımcılarına destination üzerinden iletir.
+     * Teslim edilen alıcı sayısını döner (başka düğüme yönlendirilenler dahil).
+     */
+    public int deliver(Long chatId, String destination, Object payload) {
+        return deliver(chatId, destination, payload, null, null);
+    }
+
+    /**
+     * excludeUserId verilirse o kullanıcıya gönderilmez (olayın sahibi). coalesceKey verilen çerçeveler
+     * atılabilir kabul edilir; oturum kuyruğunda aynı anahtarlı daha yenisi varsa eskisi gönderilmez.
+     * Alıcılar bağlı oldukları düğüme göre gruplanır: bu düğümdekilere doğrudan, diğer düğümlere
+     * düğüm başına tek ClusterFrame ile iletilir.
+     */
+    public int deliver(Long chatId, String destination, Object payload, Long excludeUserId, String coalesceKey) {
+        return route(recipients(chatId, excludeUserId), destination, payload, coalesceKey);
+    }
+
+    // Sohbetten bağımsız, doğrudan kullanıcılara teslim (örn. arkadaşlık olayları)
+    public int deliverToUsers(long[] userIds, String destination, Object payload) {
+        return route(userIds, destination, payload, null);
+    }
+
+    private int route(long[] userIds, String destination, Object payload, String coalesceKey) {
+        Map<String, List<Long>> byNode = userNodeRegistry.groupByNode(userIds);
+        if (byNode.isEmpty()) {
+            return 0;
+        }
+        byte[] body = serialize(payload);
+        int delivered = 0;
+        for (Map.Entry<String, List<Long>> group : byNode.entrySet()) {
+            List<Long> nodeUserIds = group.getValue();
+            if (group.getKey().equals(clusterBus.getNodeId())) {
+                delivered += deliverLocal(destination, frame(body, coalesceKey), nodeUserIds);
+                continue;
+            }
+            try {
+                clusterBus.send(group.getKey(), new ClusterFrame(destination, body, coalesceKey,
+                        nodeUserIds.stream().mapToLong(Long::longValue).toArray()));
+                remoteCounter.increment();
+                delivered += nodeUserIds.size();
+            } catch (Exception e) {
+                // Diğer düğümlere teslim sürer; bu alıcılar yeniden bağlanınca eşitler
+                logger.warn("{} düğümüne iletilemedi: {}", group.getKey(), e.getMessage());
+            }
+        }
+        return delivered;
+    }
+
+    // Başka bir düğümden gelen çerçeve bu düğümde bağlı alıcılara iletilir
+    private void receive(ClusterFrame clusterFrame) {
+        List<Long> userIds = new ArrayList<>(clusterFrame.userIds().length);
+        for (long userId : clusterFrame.userIds()) {
+            userIds.add(userId);
+        }
+        deliverLocal(clusterFrame.destination(), frame(clusterFrame.payload(), clusterFrame.coalesceKey()), userIds);
+    }
+
+    private int deliverLocal(String destination, Message<byte[]> frame, List<Long> userIds) {
+        int delivered = 0;
+        for (Long userId : userIds) {
+            String username = principalRegistry.getOnlineUsername(userId);
+            if (username == null) {
+                continue;
+            }
+            // Yük (byte[]) tüm alıcılar arasında paylaşılır; yalnızca başlıklar kopyalanır
+            messagingTemplate.send(userDestination(username, destination), frame);
+            delivered++;
+        }
+        deliveredCounter.increment(delivered);
+        return delivered;
+    }
+
+    private long[] recipients(Long chatId, Long excludeUserId) {
+        long[] participantIds = getParticipantIds(chatId);
+        if (excludeUserId == null || Arrays.binarySearch(participantIds, excludeUserId) < 0) {
+            return participantIds;
+        }
+        return Arrays.stream(participantIds).filter(id -> id != excludeUserId).toArray();
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Mesaj serileştirilemedi", e);
+        }
+    }
+
+    private static Message<byte[]> frame(byte[] body, String coalesceKey) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (coalesceKey != null) {
+            accessor.setNativeHeader(OutboundFlowControlInterceptor.COALESCE_KEY_HEADER, coalesceKey);
+        }
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+
+    // SimpMessagingTemplate.convertAndSendToUser ile aynı adres biçimi
+    private static String userDestination(String username, String destination) {
+        return "/user/" + username.replace("/", "%2F") + destination;
+    }
+}
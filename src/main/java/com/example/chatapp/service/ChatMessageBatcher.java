@@ -0,0 +1,231 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.MessageWriteLock;
+import com.example.chatapp.util.JdbcBatchInserts;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sohbet mesajlarını write-behind olarak kaydeder.
+ * Mesajlar kuyruğa alınır; yazıcı thread her N mesajda ya da ilk mesajdan M ms sonra birikenleri
+ * tek transaction ve tek JDBC batch ile INSERT eder (group commit). Her mesajın future'ı atanan id ile tamamlanır.
+ * Future'lar yazıcı thread'de değil ayrı bir thread'de tamamlanır; yavaş bir callback (ack, fan-out) sonraki
+ * yazmaları bekletmez. Callback thread'i tek olduğundan tamamlanma sırası id sırasıyla aynı kalır.
+ * Batch id almadan önce message_write_lock satırını kilitler ve kilit commit'e kadar tutulur; farklı düğümlerin batch'leri
+ * birbirini bekler, id sırası commit sırasıyla aynı olur. Eşitleme imleçleri bu sayede görünmeyen bir id'yi atlamaz.
+ */
+@Service
+public class ChatMessageBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageBatcher.class);
+
+    private static final String INSERT_SQL =
+            "insert into messages (chat_id, sender_id, content, \"timestamp\") values (?, ?, ?, ?)";
+    private static final String LOCK_SQL = "update message_write_lock set batches = batches + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    // Future callback'leri bu thread'de çalışır; sıralı teslim için tek thread
+    private final ExecutorService callbackExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("chat-message-callback-"));
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public ChatMessageBatcher(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${chat.batch.max-size:500}") int maxBatchSize,
+                              @Value("${chat.batch.max-delay-ms:10}") long maxDelayMillis,
+                              @Value("${chat.batch.queue-capacity:20000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSizeSummary = DistributionSummary.builder("chat.messages.batch.size")
+                .description("Tek seferde yazılan mesaj sayısı")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("chat.messages.batch.flush")
+                .description("Mesaj batch'inin yazılma süresi")
+                .register(meterRegistry);
+        Gauge.builder("chat.messages.batch.queued", queue, BlockingQueue::size)
+                .description("Yazılmayı bekleyen mesaj sayısı")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer = new Thread(this::runWriter, "chat-message-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Mesajı yazma kuyruğuna ekler. Kuyruk doluysa future hemen hata ile tamamlanır.
+     */
+    public CompletableFuture<Long> submit(long chatId, long senderId, String content, LocalDateTime timestamp) {
+        PendingMessage message = new PendingMessage(chatId, senderId, content, timestamp, new CompletableFuture<>());
+        if (!running || !queue.offer(message)) {
+            message.result().completeExceptionally(new RejectedExecutionException("Mesaj kuyruğu dolu"));
+            return message.result();
+        }
+        // stop() ile yarışan ekleme yazıcı kuyruğu boşalttıktan sonra düşmüş olabilir; hâlâ kuyruktaysa geri alınır.
+        // Alınamadıysa yazıcı ya da stop() mesajı işlemiştir.
+        if (!running && queue.remove(message)) {
+            message.result().completeExceptionally(new RejectedExecutionException("Mesaj yazıcı durduruldu"));
+        }
+        return message.result();
+    }
+
+    private void runWriter() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // İlk mesajdan sonra en fazla maxDelay kadar ya da batch dolana kadar topla
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+        failQueued();
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        long[] ids;
+        try {
+            ids = flushTimer.recordCallable(() -> transactionTemplate.execute(tx -> insertBatch(batch)));
+        } catch (Exception e) {
+            logger.error("{} mesaj kaydedilemedi", batch.size(), e);
+            List<PendingMessage> failed = List.copyOf(batch);
+            runCallback(() -> failed.forEach(message -> message.result().completeExceptionally(e)));
+            return;
+        }
+        batchSizeSummary.record(batch.size());
+        // batch yazıcı tarafından temizleneceği için kopyalanır
+        List<PendingMessage> written = List.copyOf(batch);
+        runCallback(() -> {
+            for (int i = 0; i < written.size(); i++) {
+                written.get(i).result().complete(ids[i]);
+            }
+        });
+    }
+
+    // Callback thread'i kapatılmışsa future'lar yazıcı thread'de tamamlanır; yazıcı hatayla ölmez
+    private void runCallback(Runnable callback) {
+        try {
+            callbackExecutor.execute(callback);
+        } catch (RejectedExecutionException e) {
+            callback.run();
+        }
+    }
+
+    // Durduktan sonra kuyrukta kalan mesajlar hata ile tamamlanır; future'ı bekleyen kalmaz
+    private void failQueued() {
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingMessage message : remaining) {
+            message.result().completeExceptionally(new RejectedExecutionException("Mesaj yazıcı durduruldu"));
+        }
+    }
+
+    private long[] insertBatch(List<PendingMessage> batch) {
+        lockWriteOrder();
+        return JdbcBatchInserts.insertReturningIds(jdbcTemplate, INSERT_SQL, batch, (statement, message) -> {
+            statement.setLong(1, message.chatId());
+            statement.setLong(2, message.senderId());
+            statement.setString(3, message.content());
+            statement.setTimestamp(4, Timestamp.valueOf(message.timestamp()));
+        });
+    }
+
+    // Satır yoksa önce oluşturulur; aynı anda oluşturmaya çalışan diğer yazıcı ilkinin commit'ini bekler
+    private void lockWriteOrder() {
+        if (jdbcTemplate.update(LOCK_SQL, MessageWriteLock.ROW_ID) == 0) {
+            jdbcTemplate.update("insert into message_write_lock (id, batches) values (?, 0) on conflict do nothing",
+                    MessageWriteLock.ROW_ID);
+            jdbcTemplate.update(LOCK_SQL, MessageWriteLock.ROW_ID);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Kuyrukta kalan mesajlar yazıldıktan sonra thread durur
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            if (writer.isAlive()) {
+                // Yazma takıldı; kesilen yazıcı elindeki batch'i hata ile tamamlar
+                logger.warn("Mesaj yazıcı 10 sn içinde durmadı, kesiliyor");
+                writer.interrupt();
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            if (writer.isAlive()) {
+                // Callback thread'i açık kalır; yazıcı bitirdiğinde future'lar yine tamamlanır
+                logger.error("Mesaj yazıcı durdurulamadı");
+                return;
+            }
+        }
+        failQueued();
+        callbackExecutor.shutdown();
+        callbackExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private record PendingMessage(long chatId, long senderId, String content, LocalDateTime timestamp,
+                                  CompletableFuture<Long> result) {
+    }
+}
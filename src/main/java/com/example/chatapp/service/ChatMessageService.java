@@ -0,0 +1,88 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.ChatMessageAck;
+import com.example.chatapp.dto.ChatMessageRequest;
+import com.example.chatapp.dto.ChatMessageResponse;
+import com.example.chatapp.model.StompPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * STOMP üzerinden gelen sohbet mesajlarını doğrular, kaydedilmek üzere batcher'a verir ve
+ * kayıt tamamlanınca gönderene onay (ack), katılımcılara da mesajı iletir.
+ */
+@Service
+public class ChatMessageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageService.class);
+
+    // messages.content sütunu varsayılan uzunlukta (255)
+    static final int MAX_CONTENT_LENGTH = 255;
+
+    static final String ACK_DESTINATION = "/queue/acks";
+    static final String MESSAGE_DESTINATION = "/queue/messages";
+
+    @Autowired
+    private ChatFanoutService chatFanoutService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Yetki kontrolü oturumdaki principal üzerinden yapılır, veritabanına gidilmez
+    public void send(StompPrincipal sender, ChatMessageRequest request) {
+        String username = sender.getName();
+        String clientMessageId = request.getClientMessageId();
+        Long chatId = request.getChatId();
+
+        String content = request.getContent();
+        if (chatId == null || content == null || content.isBlank()) {
+            reject(username, clientMessageId, chatId, "Sohbet ve mesaj içeriği boş olamaz");
+            return;
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            reject(username, clientMessageId, chatId, "Mesaj en fazla " + MAX_CONTENT_LENGTH + " karakter olabilir");
+            return;
+        }
+
+        if (!sender.isChatMember(chatId)) {
+            reject(username, clientMessageId, chatId, "Bu sohbete mesaj gönderme yetkiniz yok");
+            return;
+        }
+
+        LocalDateTime timestamp = LocalDateTime.now();
+        chatMessageBatcher.submit(chatId, sender.getUserId(), content, timestamp)
+                .whenComplete((messageId, error) -> {
+                    if (error != null) {
+                        String reason = error instanceof RejectedExecutionException
+                                ? "Sunucu yoğun, mesaj kaydedilemedi" : "Mesaj kaydedilemedi";
+                        reject(username, clientMessageId, chatId, reason);
+                        return;
+                    }
+                    unreadCounterService.messagePersisted(chatId, sender.getUserId(), messageId);
+                    messagingTemplate.convertAndSendToUser(username, ACK_DESTINATION,
+                            ChatMessageAck.success(clientMessageId, messageId, chatId, timestamp));
+
+                    ChatMessageResponse message = new ChatMessageResponse(
+                            messageId, chatId, sender.getUserId(), username, content, timestamp);
+                    chatFanoutService.deliver(chatId, MESSAGE_DESTINATION, message);
+                });
+    }
+
+    private void reject(String username, String clientMessageId, Long chatId, String reason) {
+        logger.debug("Mesaj reddedildi ({}): {}", username, reason);
+        messagingTemplate.convertAndSendToUser(username, ACK_DESTINATION,
+                ChatMessageAck.failure(clientMessageId, chatId, reason));
+    }
+}
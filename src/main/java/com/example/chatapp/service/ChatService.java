@@ -0,0 +1,98 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.ChatHistoryResponse;
+import com.example.chatapp.dto.ChatMessageResponse;
+import com.example.chatapp.dto.ChatResponse;
+import com.example.chatapp.dto.CreateChatRequest;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatMessageRepository;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class ChatService {
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatFanoutService chatFanoutService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Value("${chat.history.max-page-size:100}")
+    private int maxPageSize;
+
+    // Yeni sohbet oluşturma; oluşturan kullanıcı her zaman katılımcıdır
+    @Transactional
+    public ChatResponse createChat(User creator, CreateChatRequest request) {
+        Set<Long> participantIds = new HashSet<>(request.getParticipantIds());
+        participantIds.remove(creator.getId());
+        if (participantIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sohbete en az bir kullanıcı eklenmeli");
+        }
+
+        List<User> others = userRepository.findAllById(participantIds);
+        if (others.size() != participantIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Kullanıcı bulunamadı");
+        }
+
+        Set<User> participants = new HashSet<>(others);
+        participants.add(creator);
+        Chat chat = chatRepository.save(new Chat(request.getName(), participants));
+
+        // Bağlı oturumların üyelik kopyaları güncellenir; yeniden bağlanmadan mesaj gönderebilirler
+        chatFanoutService.chatJoined(chat.getId(), participants.stream().mapToLong(User::getId).toArray());
+        return new ChatResponse(chat);
+    }
+
+    // Sohbet geçmişi; before verilmezse en yeni mesajlardan başlar
+    @Transactional(readOnly = true)
+    public ChatHistoryResponse getMessages(User user, Long chatId, Long before, int limit) {
+        if (!chatRepository.isParticipant(chatId, user.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sohbet bulunamadı");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+
+        // Bir fazla satır okunarak daha eski mesaj olup olmadığı ayrıca sayılmadan anlaşılır
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ChatMessageResponse> messages = before == null
+                ? chatMessageRepository.findLatest(chatId, fetch)
+                : chatMessageRepository.findBefore(chatId, before, fetch);
+
+        Long nextBefore = null;
+        if (messages.size() > pageSize) {
+            messages = messages.subList(0, pageSize);
+            nextBefore = messages.get(pageSize - 1).getId();
+        }
+        return new ChatHistoryResponse(messages, nextBefore);
+    }
+
+    // Okundu bilgisi; üyelik önbellekteki katılımcı listesinden kontrol edilir
+    public void markRead(User user, Long chatId, Long messageId) {
+        if (Arrays.binarySearch(chatFanoutService.getParticipantIds(chatId), user.getId()) < 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Sohbet bulunamadı");
+        }
+        unreadCounterService.markRead(user.getId(), chatId, messageId);
+    }
+}
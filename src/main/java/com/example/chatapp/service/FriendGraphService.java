@@ -0,0 +1,228 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.util.ExpiringCache;
+import com.example.chatapp.util.LongHashSet;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Kabul edilmiş arkadaşlıkların bellekteki grafı.
+ * Her kullanıcının arkadaşları kutulanmamış bir LongHashSet olarak tutulur; kullanıcı ilk sorulduğunda
+ * veritabanından yüklenir, sonrasında bu düğümdeki kabul/silme işlemleri kümeye yerinde işlenir.
+ * Önbellek boyutu sınırlıdır (en uzun süredir kullanılmayan kullanıcı atılır) ve her küme en fazla ttl süresince tutulur.
+ * Değişiklikler ClusterBus ile yayınlanır; diğer düğümler etkilenen kullanıcıların kümelerini düşürüp yeniden yükler.
+ */
+@Service
+public class FriendGraphService {
+
+    // Yükleme damgası dilimleri; iki kuvveti olmalı
+    private static final int STAMP_STRIPES = 1024;
+
+    // Toplu yüklemede tek sorgudaki en fazla kullanıcı (IN listesi sınırlı kalır)
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final FriendshipRepository friendshipRepository;
+    private final ClusterBus clusterBus;
+    private final long ttlMillis;
+
+    // Kullanıcı id -> arkadaş id'leri; her küme kendi monitörü ile korunur
+    private final ExpiringCache<Long, LongHashSet> friends;
+
+    // Kullanıcının kümesi her değiştiğinde dilimi artar; yükleme sürerken değiştiyse yüklenen küme önbelleğe yazılmaz
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public FriendGraphService(FriendshipRepository friendshipRepository,
+                              MeterRegistry meterRegistry,
+                              ClusterBus clusterBus,
+                              @Value("${friend-graph.max-users:100000}") int maxUsers,
+                              @Value("${friend-graph.ttl-ms:300000}") long ttlMillis) {
+        this.friendshipRepository = friendshipRepository;
+        this.clusterBus = clusterBus;
+        this.ttlMillis = ttlMillis;
+        this.friends = new ExpiringCache<>(maxUsers);
+        Gauge.builder("friend.graph.users", friends, ExpiringCache::size)
+                .description("Arkadaş grafında yüklü kullanıcı sayısı")
+                .register(meterRegistry);
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    public boolean areFriends(long userId, long otherId) {
+        LongHashSet set = load(userId);
+        synchronized (set) {
+            return set.contains(otherId);
+        }
+    }
+
+    // Sırasız kopya; çağıran değiştirebilir
+    public long[] friendsOf(long userId) {
+        LongHashSet set = load(userId);
+        synchronized (set) {
+            return set.toArray();
+        }
+    }
+
+    /**
+     * Birden çok kullanıcının arkadaşları; önbellekte olmayanlar LOAD_BATCH_SIZE'lık gruplar halinde tek sorguyla yüklenir.
+     * Toplu yüklenen kümeler önbelleğe yazılmaz: öneri hesabı yüzlerce arkadaşın komşuluğunu bir kez okur ve bunlar
+     * LRU'daki sık kullanılan kümeleri atmamalıdır. Sonuç girdiyle aynı sıradadır, her dizi sırasız bir kopyadır.
+     */
+    public long[][] friendsOf(long[] userIds) {
+        long[][] result = new long[userIds.length][];
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < userIds.length; i++) {
+            LongHashSet set = friends.get(userIds[i]);
+            if (set == null) {
+                missing.add(userIds[i]);
+                continue;
+            }
+            synchronized (set) {
+                result[i] = set.toArray();
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, LongHashSet> loaded = new HashMap<>(missing.size() * 2);
+        for (int from = 0; from < missing.size(); from += LOAD_BATCH_SIZE) {
+            loaded.putAll(loadBatch(missing.subList(from, Math.min(from + LOAD_BATCH_SIZE, missing.size()))));
+        }
+        for (int i = 0; i < userIds.length; i++) {
+            if (result[i] == null) {
+                result[i] = loaded.get(userIds[i]).toArray();
+            }
+        }
+        return result;
+    }
+
+    public int friendCount(long userId) {
+        LongHashSet set = load(userId);
+        synchronized (set) {
+            return set.size();
+        }
+    }
+
+    // Veritabanına yazıldıktan sonra çağrılır; yalnızca yüklü kümeler güncellenir
+    public void friendshipAdded(long userId, long friendId) {
+        update(userId, friendId, true);
+        update(friendId, userId, true);
+        clusterBus.publish(ClusterEvent.Type.FRIENDS_CHANGED, 0, new long[]{userId, friendId}, 0);
+    }
+
+    public void friendshipRemoved(long userId, long friendId) {
+        update(userId, friendId, false);
+        update(friendId, userId, false);
+        clusterBus.publish(ClusterEvent.Type.FRIENDS_CHANGED, 0, new long[]{userId, friendId}, 0);
+    }
+
+    /**
+     * Kullanıcı silindiğinde kendi kümesi ve diğer kümelerdeki kaydı düşer. Yalnızca bu düğümü etkiler;
+     * diğer düğümler silme işinin yayınladığı USER_REMOVED olayıyla aynı işlemi yapar.
+     */
+    public void userRemoved(long userId) {
+        stamps.incrementAndGet(stripe(userId));
+        friends.invalidate(userId);
+        for (LongHashSet other : friends.values()) {
+            synchronized (other) {
+                other.remove(userId);
+            }
+        }
+    }
+
+    private void update(long userId, long friendId, boolean add) {
+        stamps.incrementAndGet(stripe(userId));
+        LongHashSet set = friends.get(userId);
+        if (set == null) {
+            return;
+        }
+        synchronized (set) {
+            if (add) {
+                set.add(friendId);
+            } else {
+                set.remove(friendId);
+            }
+        }
+    }
+
+    // Diğer düğümdeki değişiklik: etkilenen kümeler düşer, sonraki sorgu veritabanından yükler
+    private void onClusterEvent(ClusterEvent event) {
+        switch (event.type()) {
+            case FRIENDS_CHANGED -> {
+                for (long userId : event.userIds()) {
+                    stamps.incrementAndGet(stripe(userId));
+                    friends.invalidate(userId);
+                }
+            }
+            case USER_REMOVED -> userRemoved(event.id());
+            default -> {
+            }
+        }
+    }
+
+    private LongHashSet load(long userId) {
+        LongHashSet set = friends.get(userId);
+        if (set != null) {
+            return set;
+        }
+
+        long stamp = stamps.get(stripe(userId));
+        List<Long> ids = friendshipRepository.findCounterpartIds(userId, Friendship.FriendshipStatus.ACCEPTED);
+        LongHashSet loaded = new LongHashSet(ids.size());
+        ids.forEach(loaded::add);
+        return cache(userId, loaded, stamp);
+    }
+
+    // Önbelleğe yazılmayan kümeler; yalnızca bu çağrıda kullanılır
+    private Map<Long, LongHashSet> loadBatch(List<Long> userIds) {
+        Map<Long, LongHashSet> loaded = new HashMap<>(userIds.size() * 2);
+        for (Long userId : userIds) {
+            loaded.put(userId, new LongHashSet());
+        }
+        for (FriendshipRepository.FriendshipEdge edge
+                : friendshipRepository.findEdges(userIds, Friendship.FriendshipStatus.ACCEPTED)) {
+            LongHashSet requesterFriends = loaded.get(edge.getRequesterId());
+            if (requesterFriends != null) {
+                requesterFriends.add(edge.getReceiverId());
+            }
+            LongHashSet receiverFriends = loaded.get(edge.getReceiverId());
+            if (receiverFriends != null) {
+                receiverFriends.add(edge.getRequesterId());
+            }
+        }
+        return loaded;
+    }
+
+    // stamp yüklemeden önce okunan damgadır; önbellekte kalan (ya da yeni yazılan) küme döner
+    private LongHashSet cache(long userId, LongHashSet loaded, long stamp) {
+        int stripe = stripe(userId);
+        // Yükleme sırasında kullanıcının kümesi değiştiyse sonuç eski olabilir; önbelleğe alınmaz, sonraki sorgu yeniden yükler
+        if (stamps.get(stripe) != stamp) {
+            return loaded;
+        }
+        LongHashSet existing = friends.putIfAbsent(userId, loaded, ttlMillis);
+        if (existing != null) {
+            return existing;
+        }
+        // Kontrol ile yazma arasında işlenen değişiklik bu kümeyi atlamış olabilir
+        if (stamps.get(stripe) != stamp) {
+            friends.invalidate(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId) & (STAMP_STRIPES - 1);
+    }
+}
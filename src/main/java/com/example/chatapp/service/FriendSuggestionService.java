@@ -0,0 +1,305 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.FriendSuggestion;
+import com.example.chatapp.dto.FriendshipResponse;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.util.ExpiringCache;
+import com.example.chatapp.util.LongIntHashMap;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ortak arkadaş ve arkadaşın arkadaşı önerileri.
+ * Komşuluklar FriendGraphService'ten long dizileri olarak alınır; ortak arkadaşlar iki sıralı dizinin
+ * kesişimi, öneriler ise arkadaşların komşuluklarındaki her id'nin kutulanmamış bir LongIntHashMap'te sayılmasıyla
+ * bulunur. Bellek iki adımlık komşuluğun toplam boyuna değil farklı aday sayısına göre büyür. Arkadaşların
+ * komşulukları saymadan önce toplu sorgularla tek seferde yüklenir. Çok arkadaşı olan kullanıcılarda sayım fork-join
+ * havuzunda paralel yapılır, alt görevlerin tabloları küçüğü büyüğüne eklenerek birleşir. En iyi K aday sınırlı bir
+ * yığında (heap) tutulur. Sonuçlar kullanıcı başına önbelleğe alınır;
+ * arkadaşlık değişince etkilenen kullanıcıların girdileri düşürülür.
+ */
+@Service
+public class FriendSuggestionService {
+
+    // Bu sayıdan az arkadaş aralığı bölünmeden tek görevde toplanır
+    private static final int LEAF_SIZE = 16;
+
+    // Önce ortak arkadaşı çok olan, eşitlikte id'si küçük olan
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingInt(Candidate::mutualCount)
+            .thenComparing(Comparator.comparingLong(Candidate::userId).reversed());
+
+    private final FriendGraphService friendGraphService;
+    private final FriendshipRepository friendshipRepository;
+    private final UserRepository userRepository;
+    private final PresenceService presenceService;
+    private final int maxSuggestions;
+    private final int parallelThreshold;
+    private final long cacheTtlMillis;
+    private final ForkJoinPool pool;
+
+    private final ExpiringCache<Long, Ranking> suggestionCache;
+    private final ExpiringCache<PairKey, MutualFriends> mutualCache;
+
+    public FriendSuggestionService(FriendGraphService friendGraphService,
+                                   FriendshipRepository friendshipRepository,
+                                   UserRepository userRepository,
+                                   PresenceService presenceService,
+                                   @Value("${friendship.suggestions.max-size:20}") int maxSuggestions,
+                                   @Value("${friendship.suggestions.parallel-threshold:256}") int parallelThreshold,
+                                   @Value("${friendship.suggestions.cache-ttl-ms:300000}") long cacheTtlMillis,
+                                   @Value("${friendship.suggestions.cache-max-size:10000}") int cacheMaxSize) {
+        this.friendGraphService = friendGraphService;
+        this.friendshipRepository = friendshipRepository;
+        this.userRepository = userRepository;
+        this.presenceService = presenceService;
+        this.maxSuggestions = maxSuggestions;
+        this.parallelThreshold = parallelThreshold;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.suggestionCache = new ExpiringCache<>(cacheMaxSize);
+        this.mutualCache = new ExpiringCache<>(cacheMaxSize);
+    }
+
+    public List<FriendSuggestion> getSuggestions(User user) {
+        Ranking ranking = suggestionCache.get(user.getId());
+        if (ranking == null) {
+            ranking = rank(user.getId());
+            suggestionCache.putWithTtl(user.getId(), ranking, cacheTtlMillis);
+        }
+
+        Map<Long, FriendshipResponse.UserSummary> summaries = loadSummaries(ranking.userIds());
+        List<FriendSuggestion> suggestions = new ArrayList<>(ranking.userIds().length);
+        for (int i = 0; i < ranking.userIds().length; i++) {
+            FriendshipResponse.UserSummary summary = summaries.get(ranking.userIds()[i]);
+            if (summary != null) { // Bu arada silinmiş kullanıcılar atlanır
+                suggestions.add(new FriendSuggestion(summary, ranking.mutualCounts()[i]));
+            }
+        }
+        return suggestions;
+    }
+
+    public List<FriendshipResponse.UserSummary> getMutualFriends(User user, Long otherUserId) {
+        if (user.getId().equals(otherUserId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Kendinizle ortak arkadaş hesaplanamaz");
+        }
+        PairKey key = PairKey.of(user.getId(), otherUserId);
+        MutualFriends cached = mutualCache.get(key);
+        if (cached == null) {
+            cached = new MutualFriends(key, intersect(sortedFriends(user.getId()), sortedFriends(otherUserId)));
+            mutualCache.putWithTtl(key, cached, cacheTtlMillis);
+        }
+        long[] mutual = cached.userIds();
+
+        Map<Long, FriendshipResponse.UserSummary> summaries = loadSummaries(mutual);
+        List<FriendshipResponse.UserSummary> result = new ArrayList<>(mutual.length);
+        for (long id : mutual) {
+            FriendshipResponse.UserSummary summary = summaries.get(id);
+            if (summary != null) {
+                result.add(summary);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Kabul edilen ya da silinen arkadaşlıktan sonra çağrılır (graf güncellendikten sonra).
+     * a-b kenarı a, b ve ikisinin arkadaşlarının önerilerini, a ya da b'yi içeren çiftlerin ortak arkadaşlarını etkiler.
+     */
+    public void friendshipChanged(long userId, long friendId) {
+        invalidateSuggestions(userId);
+        invalidateSuggestions(friendId);
+        for (long id : friendGraphService.friendsOf(userId)) {
+            invalidateSuggestions(id);
+        }
+        for (long id : friendGraphService.friendsOf(friendId)) {
+            invalidateSuggestions(id);
+        }
+        mutualCache.invalidateIf(entry -> entry.pair().contains(userId) || entry.pair().contains(friendId));
+    }
+
+    // Bekleyen/reddedilen istekler önerilerden çıkarıldığı için yalnızca iki tarafın önerileri düşer
+    public void requestChanged(long userId, long otherUserId) {
+        invalidateSuggestions(userId);
+        invalidateSuggestions(otherUserId);
+    }
+
+    private void invalidateSuggestions(long userId) {
+        suggestionCache.invalidate(userId);
+    }
+
+    private Ranking rank(long userId) {
+        long[] friends = sortedFriends(userId);
+        if (friends.length == 0) {
+            return new Ranking(new long[0], new int[0]);
+        }
+
+        // Komşuluklar havuza girmeden toplu yüklenir; görevler yalnızca bellekte birleştirir
+        long[][] neighbourhoods = friendGraphService.friendsOf(friends);
+
+        // Bir id'nin arkadaşların komşuluklarında kaç kez geçtiği ortak arkadaş sayısıdır
+        LongIntHashMap mutualCounts = friends.length >= parallelThreshold
+                ? pool.invoke(new FriendsOfFriendsTask(neighbourhoods, 0, neighbourhoods.length))
+                : countFriendsOfFriends(neighbourhoods, 0, neighbourhoods.length);
+
+        // İstek gönderilmiş/alınmış ya da reddedilmiş kullanıcılar önerilmez
+        long[] excluded = friendshipRepository.findCounterpartIds(userId,
+                        List.of(Friendship.FriendshipStatus.PENDING, Friendship.FriendshipStatus.REJECTED))
+                .stream().mapToLong(Long::longValue).sorted().toArray();
+
+        // Tablo sırasızdır; eşitlikte id'ye bakan karşılaştırma sonucu sıradan bağımsız kılar
+        PriorityQueue<Candidate> top = new PriorityQueue<>(maxSuggestions + 1, WORST_FIRST);
+        mutualCounts.forEach((candidate, count) -> {
+            if (candidate == userId
+                    || Arrays.binarySearch(friends, candidate) >= 0
+                    || Arrays.binarySearch(excluded, candidate) >= 0) {
+                return;
+            }
+            if (top.size() < maxSuggestions) {
+                top.add(new Candidate(candidate, count));
+            } else if (WORST_FIRST.compare(new Candidate(candidate, count), top.peek()) > 0) {
+                top.poll();
+                top.add(new Candidate(candidate, count));
+            }
+        });
+
+        // Yığından en kötüden en iyiye çıkar; diziye sondan yazılır
+        long[] ids = new long[top.size()];
+        int[] counts = new int[top.size()];
+        for (int j = ids.length - 1; j >= 0; j--) {
+            Candidate candidate = top.poll();
+            ids[j] = candidate.userId();
+            counts[j] = candidate.mutualCount();
+        }
+        return new Ranking(ids, counts);
+    }
+
+    private long[] sortedFriends(long userId) {
+        long[] friends = friendGraphService.friendsOf(userId);
+        Arrays.sort(friends);
+        return friends;
+    }
+
+    // Aralıktaki komşuluklarda her id'nin kaç kez geçtiği
+    private static LongIntHashMap countFriendsOfFriends(long[][] neighbourhoods, int from, int to) {
+        int largest = 0;
+        for (int i = from; i < to; i++) {
+            largest = Math.max(largest, neighbourhoods[i].length);
+        }
+        LongIntHashMap counts = new LongIntHashMap(largest);
+        for (int i = from; i < to; i++) {
+            for (long id : neighbourhoods[i]) {
+                counts.addTo(id, 1);
+            }
+        }
+        return counts;
+    }
+
+    private Map<Long, FriendshipResponse.UserSummary> loadSummaries(long[] userIds) {
+        Map<Long, FriendshipResponse.UserSummary> summaries = new HashMap<>();
+        if (userIds.length == 0) {
+            return summaries;
+        }
+        List<Long> ids = Arrays.stream(userIds).boxed().toList();
+        for (User user : userRepository.findAllById(ids)) {
+            summaries.put(user.getId(), new FriendshipResponse.UserSummary(
+                    user.getId(),
+                    user.getUsername(),
+                    user.getIsim(),
+                    user.getSoyad(),
+                    user.getProfileImageUrl(),
+                    presenceService.isOnline(user.getId())));
+        }
+        return summaries;
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    // Verilen arkadaş aralığının komşuluklarındaki sayımlar
+    private static final class FriendsOfFriendsTask extends RecursiveTask<LongIntHashMap> {
+
+        private final long[][] neighbourhoods;
+        private final int from;
+        private final int to;
+
+        private FriendsOfFriendsTask(long[][] neighbourhoods, int from, int to) {
+            this.neighbourhoods = neighbourhoods;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongIntHashMap compute() {
+            if (to - from <= LEAF_SIZE) {
+                return countFriendsOfFriends(neighbourhoods, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FriendsOfFriendsTask left = new FriendsOfFriendsTask(neighbourhoods, from, mid);
+            left.fork();
+            LongIntHashMap right = new FriendsOfFriendsTask(neighbourhoods, mid, to).compute();
+            LongIntHashMap joined = left.join();
+            // Küçük tablo büyüğüne eklenir; büyük tablo yeniden kopyalanmaz
+            if (joined.size() < right.size()) {
+                right.addAll(joined);
+                return right;
+            }
+            joined.addAll(right);
+            return joined;
+        }
+    }
+
+    private record Candidate(long userId, int mutualCount) {
+    }
+
+    private record Ranking(long[] userIds, int[] mutualCounts) {
+    }
+
+    private record MutualFriends(PairKey pair, long[] userIds) {
+    }
+
+    // Sırasız çift; (a, b) ile (b, a) aynı anahtardır
+    private record PairKey(long low, long high) {
+        static PairKey of(long a, long b) {
+            return a < b ? new PairKey(a, b) : new PairKey(b, a);
+        }
+
+        boolean contains(long userId) {
+            return low == userId || high == userId;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.FriendshipChangeEvent;
+import com.example.chatapp.dto.FriendshipChangesResponse;
+import com.example.chatapp.dto.FriendshipResponse;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.FriendshipChange;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.FriendshipChangeRepository;
+import com.example.chatapp.repository.FriendshipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Arkadaşlık değişiklik günlüğü.
+ * Her değişiklik iki tarafın günlüğüne yazılır. Satırlar kullanıcının kendi sürümüyle numaralanır: sürüm
+ * user_friend_versions satırında tutulur ve yazan transaction bu satırı commit'e kadar kilitler. Böylece bir kullanıcının
+ * sürümleri commit sırasıyla artar; küçük sürüm büyüğünden sonra görünür hale gelip istemcide atlanamaz.
+ * İstemci sürümü ETag olarak ya da /friendship/changes?since= ile kullanarak tam liste yüklemeden güncel kalır.
+ * Değişiklikler transaction tamamlandıktan sonra iki tarafın /user/queue/friendships kuyruğuna da gönderilir.
+ */
+@Service
+public class FriendshipChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FriendshipChangeService.class);
+
+    static final String DESTINATION = "/queue/friendships";
+
+    private static final String INSERT_SQL = "insert into friendship_changes " +
+            "(user_id, version, friendship_id, counterpart_id, change_type, status, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FriendshipChangeRepository friendshipChangeRepository;
+    private final FriendshipRepository friendshipRepository;
+    private final ChatFanoutService chatFanoutService;
+    private final PresenceService presenceService;
+    private final int maxPageSize;
+
+    public FriendshipChangeService(JdbcTemplate jdbcTemplate,
+                                   FriendshipChangeRepository friendshipChangeRepository,
+                                   FriendshipRepository friendshipRepository,
+                                   ChatFanoutService chatFanoutService,
+                                   PresenceService presenceService,
+                                   @Value("${friendship.changes.max-page-size:500}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.friendshipChangeRepository = friendshipChangeRepository;
+        this.friendshipRepository = friendshipRepository;
+        this.chatFanoutService = chatFanoutService;
+        this.presenceService = presenceService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Değişiklikleri iki tarafın günlüğüne tek JDBC batch ile yazar. İlişkiyi değiştiren transaction içinde
+     * çağrılmalıdır; sürüm satırlarının kilitleri commit'e kadar tutulur, bildirimler commit'ten sonra gönderilir.
+     */
+    public void record(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        // Kullanıcı başına kaç satır yazılacağı; kilitler id sırasıyla alınır, iki yazan birbirini kilitlenmeye sokmaz
+        TreeMap<Long, Integer> counts = new TreeMap<>();
+        for (Change change : changes) {
+            counts.merge(change.requesterId(), 1, Integer::sum);
+            counts.merge(change.receiverId(), 1, Integer::sum);
+        }
+        Map<Long, Long> next = new HashMap<>(counts.size() * 2);
+        counts.forEach((userId, count) -> next.put(userId, reserveVersions(userId, count)));
+
+        List<Row> rows = new ArrayList<>(changes.size() * 2);
+        for (Change change : changes) {
+            rows.add(new Row(next.merge(change.requesterId(), 1L, Long::sum) - 1,
+                    change.requesterId(), change.receiverId(), change));
+            rows.add(new Row(next.merge(change.receiverId(), 1L, Long::sum) - 1,
+                    change.receiverId(), change.requesterId(), change));
+        }
+        insert(rows);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(rows);
+                }
+            });
+        } else {
+            publish(rows);
+        }
+    }
+
+    public long getVersion(Long userId) {
+        return friendshipChangeRepository.findVersion(userId);
+    }
+
+    /**
+     * since sürümünden sonraki değişiklikler. Sayfadaki aynı ilişkiye ait değişiklikler tek olaya indirgenir,
+     * ilişkinin güncel hali tek sorguda yüklenir.
+     */
+    public FriendshipChangesResponse getChangesSince(User user, long since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+        List<FriendshipChange> changes = friendshipChangeRepository.findSince(user.getId(), since, Limit.of(pageSize + 1));
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+        if (changes.isEmpty()) {
+            return new FriendshipChangesResponse(List.of(), since, false);
+        }
+
+        // İlişki başına son değişiklik; sayfada eklenip sonra güncellenen ilişki eklenmiş sayılır
+        Map<Long, FriendshipChange> latest = new LinkedHashMap<>();
+        Set<Long> added = new HashSet<>();
+        for (FriendshipChange change : changes) {
+            latest.remove(change.getFriendshipId());
+            latest.put(change.getFriendshipId(), change);
+            if (change.getChangeType() == FriendshipChange.ChangeType.ADDED) {
+                added.add(change.getFriendshipId());
+            }
+        }
+
+        Map<Long, FriendshipResponse> entries = loadEntries(latest.values().stream()
+                .filter(change -> change.getChangeType() != FriendshipChange.ChangeType.DELETED)
+                .map(FriendshipChange::getFriendshipId)
+                .toList());
+
+        List<FriendshipChangeEvent> events = new ArrayList<>(latest.size());
+        for (FriendshipChange change : latest.values()) {
+            FriendshipResponse entry = entries.get(change.getFriendshipId());
+            FriendshipChange.ChangeType type = change.getChangeType();
+            if (type != FriendshipChange.ChangeType.DELETED && entry == null) {
+                type = FriendshipChange.ChangeType.DELETED; // Sonraki sayfada silinmiş
+            } else if (type == FriendshipChange.ChangeType.UPDATED && added.contains(change.getFriendshipId())) {
+                type = FriendshipChange.ChangeType.ADDED;
+            }
+            events.add(event(change.getVersion(), user.getId(), change.getFriendshipId(), change.getCounterpartId(),
+                    type, type == FriendshipChange.ChangeType.DELETED ? null : entry));
+        }
+        events.sort(Comparator.comparingLong(FriendshipChangeEvent::getVersion));
+        return new FriendshipChangesResponse(events, changes.get(changes.size() - 1).getVersion(), hasMore);
+    }
+
+    private void publish(List<Row> rows) {
+        try {
+            Map<Long, FriendshipResponse> entries = loadEntries(rows.stream()
+                    .filter(row -> row.change().type() != FriendshipChange.ChangeType.DELETED)
+                    .map(row -> row.change().friendshipId())
+                    .distinct()
+                    .toList());
+            for (Row row : rows) {
+                FriendshipResponse entry = row.change().type() == FriendshipChange.ChangeType.DELETED
+                        ? null : entries.get(row.change().friendshipId());
+                // Yük gönderilmeden önce serileştirilir; aynı entry diğer taraf için yeniden kullanılabilir
+                chatFanoutService.deliverToUsers(new long[]{row.userId()}, DESTINATION,
+                        event(row.version(), row.userId(), row.change().friendshipId(), row.counterpartId(),
+                                row.change().type(), entry));
+            }
+        } catch (Exception e) {
+            // İstemci bir sonraki eşitlemede /friendship/changes ile yakalar
+            logger.warn("Arkadaşlık değişiklikleri gönderilemedi: {}", e.getMessage());
+        }
+    }
+
+    private FriendshipChangeEvent event(long version, long userId, Long friendshipId, Long counterpartId,
+                                        FriendshipChange.ChangeType type, FriendshipResponse entry) {
+        if (entry != null) {
+            entry.getRequester().setOnline(presenceService.isOnline(entry.getRequester().getId()));
+            entry.getReceiver().setOnline(presenceService.isOnline(entry.getReceiver().getId()));
+            entry.setFriend(entry.getRequester().getId().equals(userId) ? entry.getReceiver() : entry.getRequester());
+        }
+        return new FriendshipChangeEvent(version, type.name(), friendshipId, counterpartId,
+                entry != null ? entry.getStatus() : null, entry);
+    }
+
+    private Map<Long, FriendshipResponse> loadEntries(List<Long> friendshipIds) {
+        if (friendshipIds.isEmpty()) {
+            return Map.of();
+        }
+        return friendshipRepository.findEntriesByIdIn(friendshipIds).stream()
+                .collect(Collectors.toMap(FriendshipResponse::getId, Function.identity()));
+    }
+
+    /**
+     * Kullanıcının sürüm satırını kilitleyip count kadar artırır ve ayrılan ilk sürümü döner.
+     * Satır yoksa önce oluşturulur; aynı anda oluşturmaya çalışan diğer transaction ilkinin commit'ini bekler.
+     */
+    private long reserveVersions(long userId, int count) {
+        jdbcTemplate.update("insert into user_friend_versions (user_id, version) values (?, 0) on conflict do nothing", userId);
+        jdbcTemplate.update("update user_friend_versions set version = version + ? where user_id = ?", count, userId);
+        Long version = jdbcTemplate.queryForObject("select version from user_friend_versions where user_id = ?",
+                Long.class, userId);
+        return version - count + 1;
+    }
+
+    private void insert(List<Row> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+            Change change = row.change();
+            statement.setLong(1, row.userId());
+            statement.setLong(2, row.version());
+            statement.setLong(3, change.friendshipId());
+            statement.setLong(4, row.counterpartId());
+            statement.setString(5, change.type().name());
+            if (change.status() != null) {
+                statement.setString(6, change.status().name());
+            } else {
+                statement.setNull(6, Types.VARCHAR);
+            }
+            statement.setTimestamp(7, now);
+        });
+    }
+
+    /**
+     * Bir ilişkideki değişiklik. Silinen ilişkiler için status null'dır.
+     */
+    public record Change(long friendshipId, long requesterId, long receiverId,
+                         FriendshipChange.ChangeType type, Friendship.FriendshipStatus status) {
+
+        public static Change of(Friendship friendship, FriendshipChange.ChangeType type) {
+            return new Change(friendship.getId(), friendship.getRequester().getId(), friendship.getReceiver().getId(),
+                    type, type == FriendshipChange.ChangeType.DELETED ? null : friendship.getStatus());
+        }
+    }
+
+    private record Row(long version, long userId, long counterpartId, Change change) {
+    }
+}
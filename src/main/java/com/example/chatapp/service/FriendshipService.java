@@ -1,33 +1,103 @@
 package com.example.chatapp.service;
 
+import com.example.chatapp.dto.BulkFriendRequest;
+import com.example.chatapp.dto.BulkFriendshipRequest;
+import com.example.chatapp.dto.BulkFriendshipResult;
+import com.example.chatapp.dto.FriendListPage;
 import com.example.chatapp.dto.FriendListResponse;
 import com.example.chatapp.dto.FriendshipResponse;
 import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.FriendshipChange;
 import com.example.chatapp.model.User;
 import com.example.chatapp.repository.FriendshipRepository;
 import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.util.JdbcBatchInserts;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class FriendshipService {
 
+    private static final String INSERT_REQUEST_SQL =
+            "insert into friendships (requester_id, receiver_id, status, created_at, updated_at) values (?, ?, ?, ?, ?)";
+
+    public static final String BUCKET_FRIENDS = "friends";
+    public static final String BUCKET_PENDING = "pending";
+    public static final String BUCKET_RECEIVED = "received";
+    public static final String ORDER_ONLINE = "online";
+    public static final String ORDER_RECENT = "recent";
+
+    // İlk sayfa için imleç sınırı; tüm kayıtlar bundan önce güncellenmiştir
+    private static final LocalDateTime LIST_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    // Listelerde görünen ilişki durumları (arkadaşlar ve bekleyen istekler)
+    private static final List<Friendship.FriendshipStatus> LISTED_STATUSES =
+            List.of(Friendship.FriendshipStatus.ACCEPTED, Friendship.FriendshipStatus.PENDING);
+
+    // Liste sorgularıyla aynı sıra: en son güncellenen önce, eşitlikte id'si büyük olan
+    private static final Comparator<FriendshipResponse> RECENT_FIRST = Comparator
+            .comparing(FriendshipResponse::getUpdatedAt, Comparator.reverseOrder())
+            .thenComparing(FriendshipResponse::getId, Comparator.reverseOrder());
+
     @Autowired
     private FriendshipRepository friendshipRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private FriendGraphService friendGraphService;
+
+    @Autowired
+    private FriendSuggestionService friendSuggestionService;
+
+    @Autowired
+    private FriendshipChangeService friendshipChangeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${friendship.bulk.max-size:100}")
+    private int bulkMaxSize;
+
+    @Value("${friendship.list.max-page-size:200}")
+    private int listMaxPageSize;
+
     // Arkadaşlık isteği gönderme
     public FriendshipResponse sendFriendRequest(User requester, Long receiverId) {
         // Alıcı kullanıcıyı bul
         User receiver = userRepository.findById(receiverId)
+                .filter(user -> user.getDisabledAt() == null)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Kullanıcı bulunamadı"));
 
         // Kendinize arkadaşlık isteği gönderemezsiniz
@@ -35,9 +105,9 @@ public class FriendshipService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Kendinize arkadaşlık isteği gönderemezsiniz");
         }
 
-        // Mevcut bir arkadaşlık ilişkisi var mı kontrol et
-        boolean existingRequest = friendshipRepository.findByRequesterAndReceiver(requester, receiver).isPresent() ||
-                friendshipRepository.findByRequesterAndReceiver(receiver, requester).isPresent();
+        // Mevcut bir arkadaşlık ilişkisi var mı kontrol et; kabul edilmiş olanlar graftan, diğerleri tek sorguyla
+        boolean existingRequest = friendGraphService.areFriends(requester.getId(), receiverId) ||
+                friendshipRepository.existsBetween(requester.getId(), receiverId);
 
         if(existingRequest) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bu kullanıcı ile zaten bir arkadaşlık ilişkiniz var");
@@ -45,7 +115,12 @@ public class FriendshipService {
 
         // Yeni arkadaşlık isteği oluştur
         Friendship friendship = new Friendship(requester, receiver);
-        friendshipRepository.save(friendship);
+        transactionTemplate.executeWithoutResult(tx -> {
+            friendshipRepository.save(friendship);
+            friendshipChangeService.record(List.of(
+                    FriendshipChangeService.Change.of(friendship, FriendshipChange.ChangeType.ADDED)));
+        });
+        friendSuggestionService.requestChanged(requester.getId(), receiverId);
 
         return new FriendshipResponse(friendship);
     }
@@ -65,9 +140,12 @@ public class FriendshipService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Bu istek zaten kabul edilmiş");
         }
 
-        // İsteği kabul et
+        // İsteği kabul et; updatedAt toplu yanıtlamayla aynı saatten gelir, liste imleçleri sırayı korur
         friendship.setStatus(Friendship.FriendshipStatus.ACCEPTED);
-        friendshipRepository.save(friendship);
+        friendship.setUpdatedAt(now());
+        saveWithChange(friendship, FriendshipChange.ChangeType.UPDATED);
+        friendGraphService.friendshipAdded(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        friendSuggestionService.friendshipChanged(friendship.getRequester().getId(), friendship.getReceiver().getId());
 
         return new FriendshipResponse(friendship);
     }
@@ -89,7 +167,9 @@ public class FriendshipService {
 
         // İsteği reddet
         friendship.setStatus(Friendship.FriendshipStatus.REJECTED);
-        friendshipRepository.save(friendship);
+        friendship.setUpdatedAt(now());
+        saveWithChange(friendship, FriendshipChange.ChangeType.UPDATED);
+        friendSuggestionService.requestChanged(friendship.getRequester().getId(), friendship.getReceiver().getId());
 
         return new FriendshipResponse(friendship);
     }
@@ -110,7 +190,8 @@ public class FriendshipService {
         }
 
         // İsteği sil
-        friendshipRepository.delete(friendship);
+        deleteWithChange(friendship);
+        friendSuggestionService.requestChanged(friendship.getRequester().getId(), friendship.getReceiver().getId());
     }
 
     // Arkadaşı silme
@@ -129,47 +210,415 @@ public class FriendshipService {
         }
 
         // Arkadaşlık ilişkisini sil
-        friendshipRepository.delete(friendship);
-    }
-
-    // Kullanıcının arkadaş listesini ve bekleyen istekleri getir
-    public FriendListResponse getFriendsList(User user) {
-        // Kabul edilmiş arkadaşlıkları bul (kullanıcı hem gönderen hem alıcı olabilir)
-        List<Friendship> acceptedAsSender = friendshipRepository.findByRequesterAndStatus(user, Friendship.FriendshipStatus.ACCEPTED);
-        List<Friendship> acceptedAsReceiver = friendshipRepository.findByReceiverAndStatus(user, Friendship.FriendshipStatus.ACCEPTED);
-
-        // Bekleyen giden istekleri bul
-        List<Friendship> pendingRequests = friendshipRepository.findByRequesterAndStatus(user, Friendship.FriendshipStatus.PENDING);
-
-        // Bekleyen gelen istekleri bul
-        List<Friendship> receivedRequests = friendshipRepository.findByReceiverAndStatus(user, Friendship.FriendshipStatus.PENDING);
-
-        // Arkadaşları özel DTO formatına dönüştür
-        List<FriendshipResponse> friendResponses = new ArrayList<>();
-        
-        // Tüm kabul edilmiş arkadaşlıkları birleştir
-        List<Friendship> allAcceptedFriendships = new ArrayList<>();
-        allAcceptedFriendships.addAll(acceptedAsSender);
-        allAcceptedFriendships.addAll(acceptedAsReceiver);
-        
-        // Arkadaşlıkları dönüştür ve her biri için doğru arkadaş bilgisini belirle
-        for (Friendship friendship : allAcceptedFriendships) {
-            // Kullanıcının ID'sini kullanarak arkadaşı belirleyen constructor'ı kullan
-            FriendshipResponse response = new FriendshipResponse(friendship, user.getId());
-            friendResponses.add(response);
-        }
-
-        // Giden istekleri DTO'lara dönüştür
-        List<FriendshipResponse> pendingResponses = pendingRequests.stream()
-                .map(FriendshipResponse::new)
-                .collect(Collectors.toList());
+        deleteWithChange(friendship);
+        friendGraphService.friendshipRemoved(friendship.getRequester().getId(), friendship.getReceiver().getId());
+        friendSuggestionService.friendshipChanged(friendship.getRequester().getId(), friendship.getReceiver().getId());
+    }
 
-        // Gelen istekleri DTO'lara dönüştür
-        List<FriendshipResponse> receivedResponses = receivedRequests.stream()
-                .map(FriendshipResponse::new)
-                .collect(Collectors.toList());
+    /**
+     * Bekleyen istekleri toplu kabul eder ya da reddeder.
+     * Yetki ve durum tek sorguyla kontrol edilir, uygun olanlar tek UPDATE ile değiştirilir; sonuç istek sırasıyla döner.
+     */
+    public List<BulkFriendshipResult> respondToRequests(User user, BulkFriendshipRequest request) {
+        Set<Long> ids = distinctIds(request.getFriendshipIds());
+        boolean accept = request.getAction() == BulkFriendshipRequest.Action.ACCEPT;
+        Friendship.FriendshipStatus target = accept
+                ? Friendship.FriendshipStatus.ACCEPTED : Friendship.FriendshipStatus.REJECTED;
+
+        Map<Long, FriendshipRepository.FriendshipRow> rows = friendshipRepository.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(FriendshipRepository.FriendshipRow::getId, Function.identity()));
+
+        Map<Long, BulkFriendshipResult> results = new HashMap<>();
+        List<Long> eligible = new ArrayList<>();
+        for (Long id : ids) {
+            FriendshipRepository.FriendshipRow row = rows.get(id);
+            if (row == null) {
+                results.put(id, BulkFriendshipResult.failure(id, "Arkadaşlık isteği bulunamadı"));
+            } else if (!row.getReceiverId().equals(user.getId())) {
+                results.put(id, BulkFriendshipResult.failure(id, "Bu isteği yanıtlamaya yetkiniz yok"));
+            } else if (row.getStatus() != Friendship.FriendshipStatus.PENDING) {
+                results.put(id, BulkFriendshipResult.failure(id, "Sadece bekleyen istekler yanıtlanabilir"));
+            } else {
+                eligible.add(id);
+            }
+        }
+
+        Set<Long> changed = eligible.isEmpty() ? Set.of() : transactionTemplate.execute(tx -> {
+            int updated = friendshipRepository.updateStatus(eligible, user.getId(),
+                    Friendship.FriendshipStatus.PENDING, target, now());
+            // Kontrol ile UPDATE arasında iptal edilen/yanıtlanan istekler ayıklanır
+            Set<Long> applied = updated == eligible.size() ? new HashSet<>(eligible)
+                    : friendshipRepository.findRowsByIdIn(eligible).stream()
+                            .filter(row -> row.getStatus() == target)
+                            .map(FriendshipRepository.FriendshipRow::getId)
+                            .collect(Collectors.toSet());
+            friendshipChangeService.record(applied.stream()
+                    .map(id -> new FriendshipChangeService.Change(id, rows.get(id).getRequesterId(), user.getId(),
+                            FriendshipChange.ChangeType.UPDATED, target))
+                    .toList());
+            return applied;
+        });
+
+        // Önbellekler transaction tamamlandıktan sonra güncellenir
+        for (Long id : eligible) {
+            if (!changed.contains(id)) {
+                results.put(id, BulkFriendshipResult.failure(id, "İstek bu sırada değişti"));
+                continue;
+            }
+            Long requesterId = rows.get(id).getRequesterId();
+            if (accept) {
+                friendGraphService.friendshipAdded(requesterId, user.getId());
+                friendSuggestionService.friendshipChanged(requesterId, user.getId());
+            } else {
+                friendSuggestionService.requestChanged(requesterId, user.getId());
+            }
+            results.put(id, BulkFriendshipResult.success(id, id));
+        }
+
+        return ids.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Birden fazla kullanıcıya arkadaşlık isteği gönderir (örn. rehber içe aktarımı).
+     * Kullanıcıların varlığı ve mevcut ilişkiler tek sorguda kontrol edilir, istekler tek JDBC batch ile eklenir.
+     */
+    public List<BulkFriendshipResult> sendFriendRequests(User requester, BulkFriendRequest request) {
+        Set<Long> ids = distinctIds(request.getReceiverIds());
+        Set<Long> existingUsers = new HashSet<>(userRepository.findExistingIds(ids));
+        Set<Long> related = new HashSet<>(friendshipRepository.findCounterpartIdsAmong(requester.getId(), ids));
+
+        Map<Long, BulkFriendshipResult> results = new HashMap<>();
+        List<Long> receivers = new ArrayList<>();
+        for (Long id : ids) {
+            if (id.equals(requester.getId())) {
+                results.put(id, BulkFriendshipResult.failure(id, "Kendinize arkadaşlık isteği gönderemezsiniz"));
+            } else if (!existingUsers.contains(id)) {
+                results.put(id, BulkFriendshipResult.failure(id, "Kullanıcı bulunamadı"));
+            } else if (related.contains(id)) {
+                results.put(id, BulkFriendshipResult.failure(id, "Bu kullanıcı ile zaten bir arkadaşlık ilişkiniz var"));
+            } else {
+                receivers.add(id);
+            }
+        }
+
+        if (!receivers.isEmpty()) {
+            long[] friendshipIds = transactionTemplate.execute(tx -> {
+                long[] inserted = insertRequests(requester.getId(), receivers);
+                List<FriendshipChangeService.Change> changes = new ArrayList<>(receivers.size());
+                for (int i = 0; i < receivers.size(); i++) {
+                    changes.add(new FriendshipChangeService.Change(inserted[i], requester.getId(), receivers.get(i),
+                            FriendshipChange.ChangeType.ADDED, Friendship.FriendshipStatus.PENDING));
+                }
+                friendshipChangeService.record(changes);
+                return inserted;
+            });
+            for (int i = 0; i < receivers.size(); i++) {
+                Long receiverId = receivers.get(i);
+                results.put(receiverId, BulkFriendshipResult.success(receiverId, friendshipIds[i]));
+                friendSuggestionService.requestChanged(requester.getId(), receiverId);
+            }
+        }
+
+        return ids.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    // İlişki ve değişiklik günlüğü aynı transaction'da yazılır
+    private void saveWithChange(Friendship friendship, FriendshipChange.ChangeType type) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            friendshipRepository.save(friendship);
+            friendshipChangeService.record(List.of(FriendshipChangeService.Change.of(friendship, type)));
+        });
+    }
+
+    private void deleteWithChange(Friendship friendship) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            friendshipRepository.delete(friendship);
+            friendshipChangeService.record(List.of(
+                    FriendshipChangeService.Change.of(friendship, FriendshipChange.ChangeType.DELETED)));
+        });
+    }
+
+    private long[] insertRequests(Long requesterId, List<Long> receiverIds) {
+        Timestamp now = Timestamp.valueOf(now());
+        return JdbcBatchInserts.insertReturningIds(jdbcTemplate, INSERT_REQUEST_SQL, receiverIds, (statement, receiverId) -> {
+            statement.setLong(1, requesterId);
+            statement.setLong(2, receiverId);
+            statement.setString(3, Friendship.FriendshipStatus.PENDING.name());
+            statement.setTimestamp(4, now);
+            statement.setTimestamp(5, now);
+        });
+    }
+
+    // Tekrarlar atılır, istek sırası korunur
+    private Set<Long> distinctIds(List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Liste boş id içeremez");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > bulkMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Tek seferde en fazla " + bulkMaxSize + " kayıt işlenebilir");
+        }
+        return distinct;
+    }
+
+    // Kullanıcının arkadaş listesini ve bekleyen istekleri getir; her liste ilk sayfası ve toplamıyla döner
+    public FriendListResponse getFriendsList(User user, String order, int limit) {
+        return new FriendListResponse(
+                getFriendPage(user, BUCKET_FRIENDS, order, null, limit),
+                getFriendPage(user, BUCKET_PENDING, order, null, limit),
+                getFriendPage(user, BUCKET_RECEIVED, order, null, limit));
+    }
+
+    /**
+     * Tek bir listenin imleçle sayfalanmış hali.
+     * Arkadaşlar order=online ile önce çevrim içi olanlar (id sırasıyla), sonra diğerleri en son güncellenen önce gelir;
+     * istekler her zaman en yeniden eskiye sıralanır. Sayfalar arasında çevrim içi olan/çıkan arkadaş
+     * iki kez görülebilir ya da atlanabilir; liste yenilenince düzelir.
+     */
+    public FriendListPage getFriendPage(User user, String bucket, String order, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), listMaxPageSize);
+        boolean onlineFirst = parseOrder(order);
+        ListCursor position = ListCursor.decode(cursor);
+        return switch (bucket) {
+            case BUCKET_FRIENDS -> friendPage(user.getId(), onlineFirst, position, pageSize);
+            case BUCKET_PENDING -> requestPage(user.getId(), true, position, pageSize);
+            case BUCKET_RECEIVED -> requestPage(user.getId(), false, position, pageSize);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Geçersiz liste: " + bucket);
+        };
+    }
+
+    private FriendListPage friendPage(Long userId, boolean onlineFirst, ListCursor position, int pageSize) {
+        List<FriendshipResponse> items = new ArrayList<>();
+        long total = friendGraphService.friendCount(userId);
+
+        // Çevrim içi arkadaşlar bellekten (graf + presence) bulunur, yalnızca sayfadakiler sorgulanır
+        long[] online = onlineFirst ? onlineFriends(userId) : new long[0];
+        if (onlineFirst && (position == null || position.online())) {
+            int from = position == null ? 0 : upperBound(online, position.id());
+            int to = Math.min(from + pageSize, online.length);
+            if (from < to) {
+                List<Long> ids = Arrays.stream(online, from, to).boxed().toList();
+                List<FriendshipResponse> entries = new ArrayList<>(friendshipRepository.findFriendEntriesAmong(userId,
+                        Friendship.FriendshipStatus.ACCEPTED, ids));
+                entries.sort(Comparator.comparing(entry -> counterpart(entry, userId).getId()));
+                items.addAll(entries);
+            }
+            if (to < online.length) {
+                return new FriendListPage(withFriend(items, userId), total, ListCursor.online(online[to - 1]).encode());
+            }
+            position = null; // Çevrim dışı arkadaşlara baştan geçilir
+        }
+
+        // Kalan yer çevrim dışı arkadaşlarla doldurulur; bir fazla satır okunup devamı olup olmadığı anlaşılır
+        int remaining = pageSize - items.size();
+        List<FriendshipResponse> offline = offlineFriends(userId, online, position, remaining + 1);
+        String next = null;
+        if (offline.size() > remaining) {
+            offline = offline.subList(0, remaining);
+            next = (remaining == 0 ? ListCursor.recentStart() : ListCursor.recent(offline.get(remaining - 1))).encode();
+        }
+        items.addAll(offline);
+        return new FriendListPage(withFriend(items, userId), total, next);
+    }
+
+    /**
+     * (updatedAt, id) imleciyle ilerleyerek çevrim içi olmayan en fazla count arkadaşlık satırı.
+     * Çevrim içi arkadaşlar sorguya liste olarak verilmez, okunan sayfadan bellekte ayıklanır;
+     * böylece sorgu boyutu çevrim içi arkadaş sayısından bağımsız kalır.
+     */
+    private List<FriendshipResponse> offlineFriends(Long userId, long[] online, ListCursor position, int count) {
+        List<FriendshipResponse> result = new ArrayList<>(count);
+        LocalDateTime beforeAt = beforeAt(position);
+        Long beforeId = beforeId(position);
+        while (result.size() < count) {
+            int fetch = count - result.size();
+            List<FriendshipResponse> page = friendEntries(userId, beforeAt, beforeId, fetch);
+            for (FriendshipResponse entry : page) {
+                if (Arrays.binarySearch(online, counterpart(entry, userId).getId()) < 0) {
+                    result.add(entry);
+                }
+            }
+            if (page.size() < fetch) {
+                break;
+            }
+            FriendshipResponse last = page.get(page.size() - 1);
+            beforeAt = last.getUpdatedAt();
+            beforeId = last.getId();
+        }
+        return result;
+    }
+
+    /**
+     * (beforeAt, beforeId) imlecinden sonraki en fazla count kabul edilmiş arkadaşlık, en son güncellenen önce.
+     * requester ve receiver tarafları ayrı sorgularla kendi indekslerinden sırayla okunur ve birleştirilir;
+     * tek sorgudaki "or" indeks sırasını kullanamaz, kullanıcının tüm ilişkilerini okuyup sıralardı.
+     */
+    private List<FriendshipResponse> friendEntries(Long userId, LocalDateTime beforeAt, Long beforeId, int count) {
+        Friendship.FriendshipStatus status = Friendship.FriendshipStatus.ACCEPTED;
+        List<FriendshipResponse> sent = friendshipRepository.findSentEntries(userId, status, beforeAt, beforeId,
+                Limit.of(count));
+        List<FriendshipResponse> received = friendshipRepository.findReceivedEntries(userId, status, beforeAt, beforeId,
+                Limit.of(count));
+
+        List<FriendshipResponse> merged = new ArrayList<>(Math.min(count, sent.size() + received.size()));
+        int i = 0, j = 0;
+        while (merged.size() < count && (i < sent.size() || j < received.size())) {
+            if (j >= received.size() || (i < sent.size() && RECENT_FIRST.compare(sent.get(i), received.get(j)) <= 0)) {
+                merged.add(sent.get(i++));
+            } else {
+                merged.add(received.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private FriendListPage requestPage(Long userId, boolean sent, ListCursor position, int pageSize) {
+        Friendship.FriendshipStatus status = Friendship.FriendshipStatus.PENDING;
+        long total = sent
+                ? friendshipRepository.countByRequester_IdAndStatus(userId, status)
+                : friendshipRepository.countByReceiver_IdAndStatus(userId, status);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<FriendshipResponse> items = sent
+                ? friendshipRepository.findSentEntries(userId, status, beforeAt(position), beforeId(position), fetch)
+                : friendshipRepository.findReceivedEntries(userId, status, beforeAt(position), beforeId(position), fetch);
+
+        String next = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            next = ListCursor.recent(items.get(pageSize - 1)).encode();
+        }
+        items.forEach(this::applyPresence);
+        return new FriendListPage(items, total, next);
+    }
+
+    // Arkadaş tarafı oturum açan kullanıcıya göre belirlenir
+    private List<FriendshipResponse> withFriend(List<FriendshipResponse> items, Long userId) {
+        for (FriendshipResponse item : items) {
+            applyPresence(item);
+            item.setFriend(counterpart(item, userId));
+        }
+        return items;
+    }
+
+    private long[] onlineFriends(Long userId) {
+        long[] friends = friendGraphService.friendsOf(userId);
+        int n = 0;
+        for (long friendId : friends) {
+            if (presenceService.isOnline(friendId)) {
+                friends[n++] = friendId;
+            }
+        }
+        long[] online = Arrays.copyOf(friends, n);
+        Arrays.sort(online);
+        return online;
+    }
+
+    // Bekleyen (gönderilen ya da alınan) isteklerdeki çevrim içi kişiler, sıralı
+    private long[] onlineRequestCounterparts(Long userId) {
+        return friendshipRepository.findCounterpartIds(userId, Friendship.FriendshipStatus.PENDING).stream()
+                .mapToLong(Long::longValue)
+                .filter(presenceService::isOnline)
+                .sorted()
+                .toArray();
+    }
+
+    private static FriendshipResponse.UserSummary counterpart(FriendshipResponse entry, Long userId) {
+        return entry.getRequester().getId().equals(userId) ? entry.getReceiver() : entry.getRequester();
+    }
+
+    // Sıralı dizide value'dan büyük ilk elemanın indeksi
+    private static int upperBound(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        return index + 1;
+    }
+
+    // Veritabanının saklayabildiği hassasiyette (mikrosaniye) zaman; yanıttaki ve tablodaki updatedAt aynı olur
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static LocalDateTime beforeAt(ListCursor position) {
+        return position == null || position.updatedAt() == null ? LIST_END : position.updatedAt();
+    }
+
+    private static Long beforeId(ListCursor position) {
+        return position == null || position.updatedAt() == null ? Long.MAX_VALUE : position.id();
+    }
+
+    private static boolean parseOrder(String order) {
+        return switch (order) {
+            case ORDER_ONLINE -> true;
+            case ORDER_RECENT -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Geçersiz sıralama: " + order);
+        };
+    }
+
+    /**
+     * Sayfa imleci: çevrim içi aşamada son arkadaşın id'si, diğer aşamada son satırın (updatedAt, id) değeri.
+     * İstemciye opak bir base64 metni olarak verilir.
+     */
+    private record ListCursor(boolean online, LocalDateTime updatedAt, long id) {
+
+        static ListCursor online(long lastFriendId) {
+            return new ListCursor(true, null, lastFriendId);
+        }
+
+        static ListCursor recentStart() {
+            return new ListCursor(false, null, 0);
+        }
+
+        static ListCursor recent(FriendshipResponse last) {
+            return new ListCursor(false, last.getUpdatedAt(), last.getId());
+        }
+
+        String encode() {
+            String raw = online ? "o:" + id : updatedAt == null ? "r:" : "r:" + id + ":" + updatedAt;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ListCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (raw.startsWith("o:")) {
+                    return online(Long.parseLong(raw.substring(2)));
+                }
+                if (raw.equals("r:")) {
+                    return recentStart();
+                }
+                if (raw.startsWith("r:")) {
+                    String[] parts = raw.substring(2).split(":", 2);
+                    return new ListCursor(false, LocalDateTime.parse(parts[1]), Long.parseLong(parts[0]));
+                }
+            } catch (RuntimeException e) {
+                // Aşağıda geçersiz imleç olarak bildirilir
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Geçersiz imleç");
+        }
+    }
 
-        return new FriendListResponse(friendResponses, pendingResponses, receivedResponses);
+    /**
+     * Liste yanıtı için ETag: arkadaşlık sürümü, istek parametreleri, listedeki kişilerin en son profil güncellemesi
+     * ve çevrim içi olan arkadaşlar ile bekleyen isteklerdeki kişilerden üretilir.
+     * İlişkiler, listedeki profiller (kullanıcı adı, isim, fotoğraf) ve çevrim içi durumlar değişmedikçe aynı kalır;
+     * istemci If-None-Match ile 304 alır.
+     */
+    public String getListEtag(User user, String order, String cursor, int limit) {
+        Long userId = user.getId();
+        long version = friendshipChangeService.getVersion(userId);
+        LocalDateTime profiles = friendshipRepository.findLatestProfileUpdate(userId, LISTED_STATUSES);
+        int variant = Objects.hash(order, cursor, limit, profiles,
+                Arrays.hashCode(onlineFriends(userId)), Arrays.hashCode(onlineRequestCounterparts(userId)));
+        return version + "-" + Integer.toHexString(variant);
     }
 
     // Kullanıcı arama
@@ -190,8 +639,15 @@ public class FriendshipService {
                         user.getIsim(),
                         user.getSoyad(),
                         user.getProfileImageUrl(),
-                        user.isOnline())
+                        presenceService.isOnline(user.getId()))
                 )
                 .collect(Collectors.toList());
     }
-} 
\ No newline at end of file
+
+    // Çevrim içi durumu veritabanındaki sütundan değil bellekteki kayıttan alınır
+    private FriendshipResponse applyPresence(FriendshipResponse response) {
+        response.getRequester().setOnline(presenceService.isOnline(response.getRequester().getId()));
+        response.getReceiver().setOnline(presenceService.isOnline(response.getReceiver().getId()));
+        return response;
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.chatapp.service;
 
+import com.example.chatapp.model.Role;
+import com.example.chatapp.util.ExpiringCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -12,40 +23,123 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtService {
 
+    private static final String ROLE_CLAIM = "role";
+
+    // iat saniye hassasiyetindedir; oturum kesimleri için milisaniyelik üretim zamanı ayrıca taşınır
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long expirationTime;
 
-    public String generateToken(String username) {
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private byte[] signingKey;
+
+    private final AtomicLong lastIssuedAt = new AtomicLong();
+
+    // İmzası doğrulanmış token'ların claim'leri; anahtar token'ın SHA-256 özeti, girdi token süresi dolunca düşer
+    private ExpiringCache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = secretKey.getBytes();
+        verifiedTokens = new ExpiringCache<>(cacheMaxSize);
+    }
+
+    public String generateToken(String username, Role role) {
+        long issuedAt = nextIssuedAt();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date())
+                .claim(ROLE_CLAIM, role.name())
+                .claim(ISSUED_AT_MILLIS_CLAIM, issuedAt)
+                .setIssuedAt(new Date(issuedAt))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationTime))
-                .signWith(SignatureAlgorithm.HS256, secretKey.getBytes())
+                .signWith(SignatureAlgorithm.HS256, signingKey)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey.getBytes())
+    /**
+     * Token'ı tek seferde çözer ve doğrular (imza + süre). Aynı token daha önce doğrulandıysa
+     * imza kontrolü tekrar yapılmadan önbellekteki claim'ler döner.
+     * Geçersiz veya süresi dolmuş token için JwtException fırlatır.
+     */
+    public Claims validateToken(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.get(digest);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = Jwts.parser()
+                .setSigningKey(signingKey)
                 .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+                .getBody();
+
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new JwtException("Token son geçerlilik zamanı içermiyor");
+        }
+        verifiedTokens.put(digest, claims, expiration.getTime());
+        return claims;
+    }
+
+    /**
+     * Bu düğümde kesin artan, milisaniye hassasiyetinde zaman damgası. Token'lar ve "tüm oturumları kapat"
+     * kesim zamanları aynı kaynaktan alınır; kesimden sonra üretilen token her zaman daha büyük damga taşır.
+     */
+    public long nextIssuedAt() {
+        return lastIssuedAt.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Token'ın milisaniye hassasiyetindeki üretim zamanı. Bu claim'i taşımayan eski token'lar için
+     * saniyeye yuvarlanmış iat kullanılır; iat de yoksa null.
+     */
+    public static Long issuedAtMillis(Claims claims) {
+        Number issuedAt = claims.get(ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAt != null) {
+            return issuedAt.longValue();
+        }
+        Date legacy = claims.getIssuedAt();
+        return legacy != null ? legacy.getTime() : null;
+    }
+
+    // Token'ın hangi depoya (kullanıcı/admin) ait olduğunu döner; rol claim'i olmayan eski token'lar için null
+    public Role extractRole(Claims claims) {
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (role == null) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String extractUsername(String token) {
+        return validateToken(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            return validateToken(token).getSubject().equals(userDetails.getUsername());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expirationDate = Jwts.parser()
-                .setSigningKey(secretKey.getBytes())
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
-        return expirationDate.before(new Date());
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 desteklenmiyor", e);
+        }
     }
 }
@@ -1,34 +1,84 @@
 package com.example.chatapp.service;
 
+import com.example.chatapp.dto.PasswordMigrationStatus;
+import com.example.chatapp.model.MigrationCheckpoint;
 import com.example.chatapp.model.User;
+import com.example.chatapp.repository.MigrationCheckpointRepository;
 import com.example.chatapp.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Bu servis, eski düz metin şifreleri BCrypt ile şifrelenmiş formata taşımak için kullanılır.
  * Servis, eski şifreleri düz metin olarak (BCrypt formatında olmayan) tanımlar ve onları BCrypt formatına dönüştürür.
+ *
+ * Toplu geçiş arka planda çalışır: kullanıcılar id sırasıyla sayfa sayfa (keyset) okunur, her sayfa fork-join
+ * havuzunda paralel hashlenir ve kendi transaction'ında JDBC batch update ile yazılır. Her sayfadan sonra
+ * son işlenen id kaydedilir; iş yarıda kalırsa bir sonraki başlatmada kaldığı yerden devam eder.
  */
 @Service
 public class PasswordMigrationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PasswordMigrationService.class);
+
+    private static final String CHECKPOINT_NAME = "password-migration";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MigrationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${password-migration.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${password-migration.parallelism:0}")
+    private int parallelism;
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("password-migration-"));
+
+    private volatile PasswordMigrationStatus status =
+            new PasswordMigrationStatus(PasswordMigrationStatus.State.IDLE, 0, 0, 0, null, null, null);
+    private volatile boolean stopRequested;
+
     /**
      * Bir şifrenin BCrypt formatında olup olmadığını kontrol eder.
      * BCrypt şifreleri genellikle "$2a$", "$2b$" veya "$2y$" ile başlar.
      */
     public boolean isBCryptPassword(String password) {
-        return password != null && (password.startsWith("$2a$") || 
-                                   password.startsWith("$2b$") || 
+        return password != null && (password.startsWith("$2a$") ||
+                                   password.startsWith("$2b$") ||
                                    password.startsWith("$2y$"));
     }
 
@@ -40,7 +90,7 @@ public class PasswordMigrationService {
         if (user != null && !isBCryptPassword(user.getPassword())) {
             // Şifreyi BCrypt formatına dönüştür
             String rawPassword = user.getPassword();
-            String encodedPassword = passwordEncoder.encode(rawPassword);
+            String encodedPassword = passwordHashingService.encode(rawPassword);
             user.setPassword(encodedPassword);
             userRepository.save(user);
             return true;
@@ -49,21 +99,131 @@ public class PasswordMigrationService {
     }
 
     /**
-     * Tüm kullanıcı şifrelerini kontrol eder ve BCrypt formatında olmayanları dönüştürür.
-     * NOT: Bu metot, büyük veri tabanları için performans sorunu yaratabilir.
-     * Gerçek uygulamalarda, şifre geçişini kademeli olarak yapmak daha iyidir.
+     * Toplu şifre geçişini arka planda başlatır. İş zaten çalışıyorsa mevcut durumu döner.
      */
-    @Transactional
-    public int migrateAllPasswords() {
-        List<User> allUsers = userRepository.findAll();
-        int migratedCount = 0;
+    public synchronized PasswordMigrationStatus startMigration() {
+        if (status.getState() == PasswordMigrationStatus.State.RUNNING) {
+            return status;
+        }
+        stopRequested = false;
+        status = new PasswordMigrationStatus(PasswordMigrationStatus.State.RUNNING, 0, 0, 0, LocalDateTime.now(), null, null);
+        jobExecutor.submit(this::runMigration);
+        return status;
+    }
+
+    /**
+     * Yeniden başlatmadan sonra durum kayıtlı noktadan yüklenir; yarıda kalan geçiş IDLE,
+     * biten geçiş COMPLETED olarak görünür.
+     */
+    @PostConstruct
+    synchronized void restoreStatus() {
+        if (status.getState() == PasswordMigrationStatus.State.RUNNING) {
+            return;
+        }
+        checkpointRepository.findById(CHECKPOINT_NAME).ifPresent(checkpoint -> status = new PasswordMigrationStatus(
+                checkpoint.isCompleted() ? PasswordMigrationStatus.State.COMPLETED : PasswordMigrationStatus.State.IDLE,
+                checkpoint.getLastProcessedId(), checkpoint.getMigratedCount(), 0, null,
+                checkpoint.isCompleted() ? checkpoint.getUpdatedAt() : null, null));
+    }
+
+    public PasswordMigrationStatus getStatus() {
+        return status;
+    }
+
+    private void runMigration() {
+        LocalDateTime startedAt = status.getStartedAt();
+        long startNanos = System.nanoTime();
+
+        MigrationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(() -> new MigrationCheckpoint(CHECKPOINT_NAME));
+        // Tamamlanmış bir geçiş tekrar başlatılırsa tablo baştan taranır
+        if (checkpoint.isCompleted()) {
+            checkpoint.setLastProcessedId(0);
+            checkpoint.setMigratedCount(0);
+            checkpoint.setCompleted(false);
+        }
+        logger.info("Şifre geçişi başlıyor, son işlenen id: {}", checkpoint.getLastProcessedId());
+
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ForkJoinPool hashPool = new ForkJoinPool(threads);
+        long migratedThisRun = 0;
+        try {
+            while (!stopRequested) {
+                List<PendingPassword> chunk = fetchChunk(checkpoint.getLastProcessedId());
+                if (chunk.isEmpty()) {
+                    checkpoint.setCompleted(true);
+                    saveCheckpoint(checkpoint);
+                    break;
+                }
+
+                // Hashleme CPU yoğun; sayfa içinde paralel yapılır
+                List<Object[]> updates = hashPool.submit(() -> chunk.parallelStream()
+                        .map(p -> new Object[]{passwordEncoder.encode(p.password()), p.id(), p.password()})
+                        .toList()).get();
+
+                long lastId = chunk.get(chunk.size() - 1).id();
+                long migrated = transactionTemplate.execute(tx -> {
+                    // Arada şifresi değişen kullanıcının üzerine yazmamak için eski değer de koşula eklenir
+                    int[] rows = jdbcTemplate.batchUpdate("update users set password = ? where id = ? and password = ?", updates);
+                    // Koşul tutmadığı için güncellenmeyen satırlar sayılmaz
+                    long updated = 0;
+                    for (int count : rows) {
+                        if (count > 0) {
+                            updated += count;
+                        }
+                    }
+                    checkpoint.setLastProcessedId(lastId);
+                    checkpoint.setMigratedCount(checkpoint.getMigratedCount() + updated);
+                    saveCheckpoint(checkpoint);
+                    return updated;
+                });
+                chunk.forEach(p -> userDetailsService.evict(p.username()));
 
-        for (User user : allUsers) {
-            if (migrateUserPassword(user)) {
-                migratedCount++;
+                migratedThisRun += migrated;
+                status = new PasswordMigrationStatus(PasswordMigrationStatus.State.RUNNING, lastId,
+                        checkpoint.getMigratedCount(), throughput(migratedThisRun, startNanos), startedAt, null, null);
             }
+
+            PasswordMigrationStatus.State finalState = checkpoint.isCompleted()
+                    ? PasswordMigrationStatus.State.COMPLETED : PasswordMigrationStatus.State.IDLE;
+            status = new PasswordMigrationStatus(finalState, checkpoint.getLastProcessedId(), checkpoint.getMigratedCount(),
+                    throughput(migratedThisRun, startNanos), startedAt, LocalDateTime.now(), null);
+            logger.info("Şifre geçişi bitti: {} kullanıcı dönüştürüldü", checkpoint.getMigratedCount());
+        } catch (Exception e) {
+            logger.error("Şifre geçişi hatası, son işlenen id: {}", checkpoint.getLastProcessedId(), e);
+            status = new PasswordMigrationStatus(PasswordMigrationStatus.State.FAILED, checkpoint.getLastProcessedId(),
+                    checkpoint.getMigratedCount(), throughput(migratedThisRun, startNanos), startedAt, LocalDateTime.now(), e.getMessage());
+        } finally {
+            hashPool.shutdown();
         }
+    }
+
+    // Yalnızca BCrypt olmayan şifreler, id sırasıyla ve son işlenen id'den sonrası okunur
+    private List<PendingPassword> fetchChunk(long afterId) {
+        return jdbcTemplate.query(
+                "select id, username, password from users " +
+                "where id > ? and password is not null and password not like '$2_$%' " +
+                "order by id limit ?",
+                (rs, rowNum) -> new PendingPassword(rs.getLong("id"), rs.getString("username"), rs.getString("password")),
+                afterId, chunkSize);
+    }
+
+    private void saveCheckpoint(MigrationCheckpoint checkpoint) {
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private static double throughput(long count, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopRequested = true;
+        jobExecutor.shutdown();
+    }
 
-        return migratedCount;
+    private record PendingPassword(long id, String username, String password) {
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,301 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import com.example.chatapp.websocket.UserNodeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kullanıcıların çevrim içi durumunu bellekte tutar.
+ * Her WebSocket oturumu bir referans sayılır; kullanıcı son oturumu kapanana kadar çevrim içidir
+ * (birden fazla cihaz/sekme). Değişen kullanıcılar işaretlenir ve users.is_online sütununa
+ * periyodik olarak toplu yazılır; aynı aralıktaki bağlan/kop dalgalanmaları tek yazıma iner.
+ * Birden fazla düğümde bir kullanıcı başka bir düğümde hâlâ bağlıysa (UserNodeRegistry) bu düğüm onu
+ * çevrim dışı yazmaz; açılıştaki sıfırlama da yalnızca hiçbir düğümde bağlı olmayan kullanıcılara uygulanır.
+ * Bir kullanıcı bu düğümde çevrim içi ya da çevrim dışı olunca ClusterBus ile yayınlanır; diğer düğümlerdeki
+ * durumlar ayrıca tutulur ve isOnline her iki kaynağa bakar. Yeni katılan düğüm mevcut durumları açılışta ister.
+ * Elle verilen çevrim içi durumu (PUT /user/status) manual-ttl süresince geçerlidir; istemci tekrar bildirerek uzatır,
+ * bildirmezse ve açık oturumu da yoksa kullanıcı çevrim dışı olur.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private static final int RESET_PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserNodeRegistry userNodeRegistry;
+    private final ClusterBus clusterBus;
+    private final String nodeId;
+    private final long manualTtlMillis;
+
+    // Kullanıcı id -> durum; çevrim dışı kullanıcılar map'te tutulmaz
+    private final ConcurrentHashMap<Long, Presence> presence = new ConcurrentHashMap<>();
+
+    // WebSocket oturum id -> kullanıcı id (kopma olayında kullanıcı bilgisi gelmeyebilir)
+    private final ConcurrentHashMap<String, Long> sessions = new ConcurrentHashMap<>();
+
+    // Kullanıcı id -> kullanıcının çevrim içi olduğu diğer düğümler
+    private final ConcurrentHashMap<Long, Set<String>> remote = new ConcurrentHashMap<>();
+
+    // Veritabanına yazılmayı bekleyen kullanıcılar
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public PresenceService(JdbcTemplate jdbcTemplate, UserNodeRegistry userNodeRegistry, ClusterBus clusterBus,
+                           @Value("${presence.manual-ttl-ms:300000}") long manualTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userNodeRegistry = userNodeRegistry;
+        this.clusterBus = clusterBus;
+        this.nodeId = clusterBus.getNodeId();
+        this.manualTtlMillis = manualTtlMillis;
+    }
+
+    // Bean tamamen kurulduktan sonra kümeye katılır; gelen cevaplar yarım kurulmuş nesneye düşmez
+    @PostConstruct
+    void start() {
+        clusterBus.subscribe(this::onClusterEvent);
+        clusterBus.publish(ClusterEvent.Type.PRESENCE_QUERY, 0, new long[0], 0);
+    }
+
+    /**
+     * Önceki çalışmadan kalan durumlar geçersizdir. Çevrim içi görünen kullanıcılar id sırasıyla sayfa sayfa
+     * okunur; başka bir düğümde bağlı olanlar korunur, diğerleri çevrim dışı yapılır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resetStoredPresence() {
+        long lastId = 0;
+        int updated = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from users where is_online = true and id > ? order by id limit ?",
+                    Long.class, lastId, RESET_PAGE_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            List<Object[]> offline = notConnectedElsewhere(ids);
+            if (!offline.isEmpty()) {
+                jdbcTemplate.batchUpdate("update users set is_online = false where id = ?", offline);
+                updated += offline.size();
+            }
+        }
+        if (updated > 0) {
+            logger.info("Açılışta {} kullanıcı çevrim dışı yapıldı", updated);
+        }
+    }
+
+    public void sessionConnected(String sessionId, Long userId) {
+        if (sessions.putIfAbsent(sessionId, userId) != null) {
+            return;
+        }
+        boolean[] cameOnline = {false};
+        presence.compute(userId, (id, current) -> {
+            if (current == null) {
+                cameOnline[0] = true;
+                return new Presence(1, 0);
+            }
+            return new Presence(current.sessions() + 1, current.manualUntil());
+        });
+        dirty.add(userId);
+        if (cameOnline[0]) {
+            announce(userId, true);
+        }
+    }
+
+    public void sessionDisconnected(String sessionId) {
+        Long userId = sessions.remove(sessionId);
+        if (userId == null) {
+            return;
+        }
+        // Son oturum kapanınca elle verilmiş durum da düşer (tarayıcı çöktüğünde takılı kalmasın)
+        boolean[] wentOffline = {false};
+        presence.computeIfPresent(userId, (id, current) -> {
+            if (current.sessions() <= 1) {
+                wentOffline[0] = true;
+                return null;
+            }
+            return new Presence(current.sessions() - 1, current.manualUntil());
+        });
+        dirty.add(userId);
+        if (wentOffline[0]) {
+            announce(userId, false);
+        }
+    }
+
+    /**
+     * WebSocket kullanmayan istemciler için elle durum bildirimi (PUT /user/status).
+     * Çevrim içi bildirimi manual-ttl sonra düşer; istemci süre dolmadan tekrar bildirmelidir.
+     */
+    public void setStatus(Long userId, boolean online) {
+        long manualUntil = online ? System.currentTimeMillis() + manualTtlMillis : 0;
+        boolean[] changed = {false};
+        presence.compute(userId, (id, current) -> {
+            int connected = current == null ? 0 : current.sessions();
+            Presence next = connected == 0 && !online ? null : new Presence(connected, manualUntil);
+            changed[0] = (current == null) != (next == null);
+            return next;
+        });
+        dirty.add(userId);
+        if (changed[0]) {
+            announce(userId, online);
+        }
+    }
+
+    public boolean isOnline(Long userId) {
+        return userId != null && (presence.containsKey(userId) || remote.containsKey(userId));
+    }
+
+    public int onlineCount() {
+        int count = presence.size();
+        for (Long userId : remote.keySet()) {
+            if (!presence.containsKey(userId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void announce(Long userId, boolean online) {
+        try {
+            clusterBus.publish(ClusterEvent.Type.PRESENCE, 0, new long[]{userId}, online ? 1 : 0);
+        } catch (Exception e) {
+            logger.warn("Çevrim içi durumu yayınlanamadı: {}", e.getMessage());
+        }
+    }
+
+    private void onClusterEvent(ClusterEvent event) {
+        switch (event.type()) {
+            case PRESENCE -> {
+                for (long userId : event.userIds()) {
+                    if (event.value() == 1) {
+                        remote.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(event.origin());
+                    } else {
+                        removeRemote(userId, event.origin());
+                    }
+                }
+            }
+            case PRESENCE_QUERY -> {
+                long[] online = presence.keySet().stream().mapToLong(Long::longValue).toArray();
+                if (online.length > 0) {
+                    clusterBus.publish(ClusterEvent.Type.PRESENCE, 0, online, 1);
+                }
+            }
+            // Ayrılan düğümdeki herkes oradan çevrim dışı sayılır
+            case NODE_LEFT -> remote.keySet().forEach(userId -> removeRemote(userId, event.origin()));
+            default -> {
+            }
+        }
+    }
+
+    private void removeRemote(long userId, String origin) {
+        remote.computeIfPresent(userId, (id, nodeIds) -> {
+            nodeIds.remove(origin);
+            return nodeIds.isEmpty() ? null : nodeIds;
+        });
+    }
+
+    // Süresi dolan elle durumlar düşer; açık oturumu olmayan kullanıcı çevrim dışı olur
+    void expireManualStatus() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Presence> entry : presence.entrySet()) {
+            Presence current = entry.getValue();
+            if (current.manualUntil() == 0 || current.manualUntil() > now) {
+                continue;
+            }
+            boolean[] wentOffline = {false};
+            presence.computeIfPresent(entry.getKey(), (id, latest) -> {
+                // Arada yenilendiyse dokunulmaz
+                if (latest.manualUntil() == 0 || latest.manualUntil() > now) {
+                    return latest;
+                }
+                if (latest.sessions() == 0) {
+                    wentOffline[0] = true;
+                    return null;
+                }
+                return new Presence(latest.sessions(), 0);
+            });
+            if (wentOffline[0]) {
+                dirty.add(entry.getKey());
+                announce(entry.getKey(), false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:1000}")
+    public void flush() {
+        expireManualStatus();
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Object[]> online = new ArrayList<>();
+        List<Object[]> offline = new ArrayList<>();
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext()) {
+            Long userId = it.next();
+            it.remove();
+            // Yazılan değer işaretlendiği andaki değil, şu anki durumdur
+            (isOnline(userId) ? online : offline).add(new Object[]{userId});
+        }
+        if (!offline.isEmpty()) {
+            offline = notConnectedElsewhere(offline.stream().map(row -> (Long) row[0]).toList());
+        }
+        try {
+            if (!online.isEmpty()) {
+                jdbcTemplate.batchUpdate("update users set is_online = true where id = ?", online);
+            }
+            if (!offline.isEmpty()) {
+                jdbcTemplate.batchUpdate("update users set is_online = false where id = ?", offline);
+            }
+        } catch (Exception e) {
+            // Bir sonraki turda tekrar denenir
+            online.forEach(row -> dirty.add((Long) row[0]));
+            offline.forEach(row -> dirty.add((Long) row[0]));
+            logger.warn("Çevrim içi durumları yazılamadı: {}", e.getMessage());
+        }
+    }
+
+    // Başka düğümlerde bağlı oturumu olmayan kullanıcılar (batchUpdate satırları olarak)
+    private List<Object[]> notConnectedElsewhere(List<Long> userIds) {
+        long[] ids = userIds.stream().mapToLong(Long::longValue).toArray();
+        Set<Long> elsewhere = new HashSet<>();
+        userNodeRegistry.groupByNode(ids).forEach((node, connected) -> {
+            if (!node.equals(nodeId)) {
+                elsewhere.addAll(connected);
+            }
+        });
+        List<Object[]> rows = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            if (!elsewhere.contains(userId)) {
+                rows.add(new Object[]{userId});
+            }
+        }
+        return rows;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    // manualUntil: elle verilen çevrim içi durumun bittiği an (epoch ms); 0 ise elle durum yok
+    private record Presence(int sessions, long manualUntil) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.ChatMessageResponse;
+import com.example.chatapp.dto.SyncResponse;
+import com.example.chatapp.repository.ChatMessageRepository;
+import com.example.chatapp.repository.ChatRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Yeniden bağlanan istemcilere yalnızca kaçırdıkları mesajları döner.
+ * Mesaj id'leri tüm sohbetlerde commit sırasıyla artar (bkz. ChatMessageBatcher); istemci tek bir imleç (since) ile
+ * tüm sohbetlerini eşitler ve imlecin ilerisinde sonradan görünür hale gelen bir mesaj kalmaz.
+ * İstemci imleç göndermezse sunucuda cihaz ve sohbet başına tutulan son teslim edilen id kullanılır.
+ * Bu imleç hem eşitleme sayfalarıyla hem de canlı teslim edilen mesajların onaylarıyla ilerler.
+ */
+@Service
+public class SyncService {
+
+    // Cihaz kimliği göndermeyen istemciler bu ortak imleci kullanır
+    public static final String DEFAULT_DEVICE = "default";
+    private static final int MAX_DEVICE_ID_LENGTH = 64;
+
+    // Eşzamanlı ilk eklemeler benzersiz anahtarda çakışır; kaybeden satır güncelleme ile ilerletilir
+    private static final String INSERT_SQL = "insert into sync_device_cursors " +
+            "(user_id, device_id, chat_id, last_message_id, updated_at) values (?, ?, ?, ?, ?) on conflict do nothing";
+    private static final String ADVANCE_SQL = "update sync_device_cursors set last_message_id = ?, updated_at = ? " +
+            "where user_id = ? and device_id = ? and chat_id = ? and last_message_id < ?";
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${sync.max-page-size:500}")
+    private int maxPageSize;
+
+    // REST için: kullanıcının sohbetleri veritabanından okunur
+    @Transactional
+    public SyncResponse sync(Long userId, String deviceId, Long since, int limit) {
+        return sync(userId, deviceId, chatRepository.findChatIdsByParticipant(userId), since, limit);
+    }
+
+    // STOMP için: sohbet listesi oturumdaki principal'dan gelir
+    @Transactional
+    public SyncResponse sync(Long userId, String deviceId, Collection<Long> chatIds, Long since, int limit) {
+        if (chatIds.isEmpty()) {
+            return new SyncResponse(List.of(), since, false);
+        }
+        int pageSize = Math.min(Math.max(limit, 1), maxPageSize);
+
+        // Bir fazla satır okunarak devamı olup olmadığı anlaşılır
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ChatMessageResponse> messages = since != null
+                ? chatMessageRepository.findSince(chatIds, since, fetch)
+                : chatMessageRepository.findAfterCursors(userId, device(deviceId), chatIds, fetch);
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+        if (messages.isEmpty()) {
+            return new SyncResponse(messages, since, false);
+        }
+
+        Map<Long, Long> lastIdByChat = new HashMap<>();
+        for (ChatMessageResponse message : messages) {
+            lastIdByChat.merge(message.getChatId(), message.getId(), Math::max);
+        }
+        advance(userId, deviceId, lastIdByChat);
+        return new SyncResponse(messages, messages.get(messages.size() - 1).getId(), hasMore);
+    }
+
+    /**
+     * Canlı teslim edilen mesajın onayı. Cihazın o sohbetteki imleci messageId'ye ilerler;
+     * böylece yeniden bağlanınca aynı mesajlar tekrar gönderilmez. Geride kalan onaylar imleci geri almaz.
+     */
+    @Transactional
+    public void acknowledge(Long userId, String deviceId, Long chatId, long messageId) {
+        advance(userId, deviceId, Map.of(chatId, messageId));
+    }
+
+    // Her sohbet için teslim edilen en büyük id kaydedilir; imleç yalnızca ileri gider
+    private void advance(Long userId, String deviceId, Map<Long, Long> lastIdByChat) {
+        String device = device(deviceId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>(lastIdByChat.size());
+        List<Object[]> updates = new ArrayList<>(lastIdByChat.size());
+        lastIdByChat.forEach((chatId, lastId) -> {
+            inserts.add(new Object[]{userId, device, chatId, lastId, now});
+            updates.add(new Object[]{lastId, now, userId, device, chatId, lastId});
+        });
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, updates);
+    }
+
+    private static String device(String deviceId) {
+        if (deviceId == null || deviceId.isBlank()) {
+            return DEFAULT_DEVICE;
+        }
+        return deviceId.length() > MAX_DEVICE_ID_LENGTH ? deviceId.substring(0, MAX_DEVICE_ID_LENGTH) : deviceId;
+    }
+}
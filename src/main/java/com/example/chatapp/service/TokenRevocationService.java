@@ -0,0 +1,202 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.RevokedToken;
+import com.example.chatapp.model.SessionRevocation;
+import com.example.chatapp.repository.RevokedTokenRepository;
+import com.example.chatapp.repository.SessionRevocationRepository;
+import com.example.chatapp.util.BloomFilter;
+import com.example.chatapp.util.ExpiringCache;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Süresi dolmadan iptal edilen token'ları yönetir.
+ * İptal edilen jti'ler veritabanında tutulur; istek yolunda önce bellekteki Bloom filtresine bakılır,
+ * yalnızca filtre "olabilir" derse kesin kontrol yapılır. "Tüm oturumları kapat" kayıtları kullanıcı başına
+ * bir kesim zamanı olarak bellekte tutulur. Her iki iptal de ClusterBus ile yayınlanır; diğer düğümler jti'yi kendi
+ * filtrelerine ekler ya da kesim zamanını veritabanından okur.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SessionRevocationRepository sessionRevocationRepository;
+    private final JwtService jwtService;
+    private final ClusterBus clusterBus;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long tokenLifetimeMillis;
+
+    private volatile BloomFilter revokedTokenFilter;
+
+    // Bloom filtresi pozitif dediğinde yapılan kesin kontrolün sonucu; token süresi dolana kadar tutulur
+    private final ExpiringCache<String, Boolean> exactChecks;
+
+    // Kullanıcı adı -> bu damgadan önce üretilmiş token'lar geçersiz
+    private final ConcurrentHashMap<String, Long> sessionCutoffs = new ConcurrentHashMap<>();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  SessionRevocationRepository sessionRevocationRepository,
+                                  JwtService jwtService,
+                                  ClusterBus clusterBus,
+                                  @Value("${jwt.revocation.bloom.expected-insertions:100000}") long expectedInsertions,
+                                  @Value("${jwt.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.revocation.exact-cache.max-size:10000}") int exactCacheMaxSize,
+                                  @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.sessionRevocationRepository = sessionRevocationRepository;
+        this.jwtService = jwtService;
+        this.clusterBus = clusterBus;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.exactChecks = new ExpiringCache<>(exactCacheMaxSize);
+    }
+
+    // Açılışta filtre ve kesim zamanları veritabanından yeniden kurulur
+    @PostConstruct
+    void init() {
+        rebuild();
+        sessionRevocationRepository.findAll()
+                .forEach(revocation -> sessionCutoffs.put(revocation.getUsername(), revocation.getRevokedBefore()));
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    /**
+     * Token iptal edilmiş mi? Yaygın durumda (iptal yok) yalnızca bellek okunur ve nesne oluşturulmaz.
+     */
+    public boolean isRevoked(Claims claims) {
+        Long cutoff = sessionCutoffs.get(claims.getSubject());
+        if (cutoff != null) {
+            Long issuedAt = JwtService.issuedAtMillis(claims);
+            if (issuedAt == null || issuedAt < cutoff) {
+                return true;
+            }
+        }
+
+        String tokenId = claims.getId();
+        if (tokenId == null || !revokedTokenFilter.mightContain(tokenId)) {
+            return false;
+        }
+
+        Boolean revoked = exactChecks.get(tokenId);
+        if (revoked == null) {
+            revoked = revokedTokenRepository.existsById(tokenId);
+            exactChecks.put(tokenId, revoked, claims.getExpiration().getTime());
+        }
+        return revoked;
+    }
+
+    // Tek bir token'ı (çıkış) iptal eder
+    public void revokeToken(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId == null) {
+            // jti taşımayan eski token'lar tek tek iptal edilemez
+            revokeAllSessions(claims.getSubject());
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(tokenId, claims.getSubject(), expiresAt));
+        addRevokedToken(tokenId);
+        clusterBus.publish(ClusterEvent.Type.TOKEN_REVOKED, 0, encodeTokenId(tokenId), 0);
+        logger.info("Token iptal edildi: {}", claims.getSubject());
+    }
+
+    /**
+     * Kullanıcının şu ana kadar üretilmiş tüm token'larını iptal eder.
+     * Kesim, token damgalarıyla aynı kesin artan kaynaktan alınır: önceki token'lar daha küçük, hemen ardından
+     * yapılan yeni girişin token'ı daha büyük damga taşır. Milisaniyelik damgası olmayan eski token'lar
+     * saniyeye yuvarlanmış iat ile karşılaştırılır ve aynı saniyede üretilmişlerse de geçersiz sayılır.
+     */
+    public void revokeAllSessions(String username) {
+        long cutoff = jwtService.nextIssuedAt();
+        sessionRevocationRepository.save(new SessionRevocation(username, cutoff));
+        sessionCutoffs.put(username, cutoff);
+        clusterBus.publish(ClusterEvent.Type.SESSIONS_REVOKED, 0, new long[0], cutoff);
+        logger.info("Kullanıcının tüm oturumları kapatıldı: {}", username);
+    }
+
+    // Başka düğümde kapatılan oturumlar: kesim zamanı veritabanından okunur
+    public void reloadSessionCutoff(String username) {
+        sessionRevocationRepository.findById(username).ifPresent(revocation ->
+                sessionCutoffs.merge(username, revocation.getRevokedBefore(), Math::max));
+    }
+
+    // Diğer düğümdeki iptaller; kayıtlar yayından önce veritabanına yazılmıştır
+    private void onClusterEvent(ClusterEvent event) {
+        switch (event.type()) {
+            case TOKEN_REVOKED -> {
+                String tokenId = decodeTokenId(event.userIds());
+                if (tokenId != null) {
+                    addRevokedToken(tokenId);
+                } else {
+                    rebuild();
+                    exactChecks.clear();
+                }
+            }
+            case SESSIONS_REVOKED -> sessionRevocationRepository.findByCutoff(event.value()).forEach(revocation ->
+                    sessionCutoffs.merge(revocation.getUsername(), revocation.getRevokedBefore(), Math::max));
+            default -> {
+            }
+        }
+    }
+
+    private void addRevokedToken(String tokenId) {
+        synchronized (this) {
+            revokedTokenFilter.put(tokenId);
+        }
+        exactChecks.invalidate(tokenId);
+    }
+
+    // Bu uygulamanın ürettiği jti'ler UUID'dir; küme olayında iki long olarak taşınır. Başka biçimdeki jti için boş dizi döner
+    static long[] encodeTokenId(String tokenId) {
+        try {
+            UUID uuid = UUID.fromString(tokenId);
+            if (uuid.toString().equals(tokenId)) {
+                return new long[]{uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()};
+            }
+        } catch (IllegalArgumentException e) {
+            // UUID değil
+        }
+        return new long[0];
+    }
+
+    // encodeTokenId'nin tersi; boş dizi için null
+    static String decodeTokenId(long[] bits) {
+        return bits.length == 2 ? new UUID(bits[0], bits[1]).toString() : null;
+    }
+
+    // Süresi dolan kayıtlar silinir ve filtre yeniden kurulur (Bloom filtresinden eleman silinemez)
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}",
+               initialDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removedTokens = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        long threshold = System.currentTimeMillis() - tokenLifetimeMillis;
+        int removedCutoffs = sessionRevocationRepository.deleteOlderThan(threshold);
+        sessionCutoffs.values().removeIf(cutoff -> cutoff < threshold);
+        rebuild();
+        logger.info("İptal listesi temizlendi: {} token, {} oturum kaydı", removedTokens, removedCutoffs);
+    }
+
+    private synchronized void rebuild() {
+        List<String> activeTokenIds = revokedTokenRepository.findActiveTokenIds(LocalDateTime.now());
+        BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, activeTokenIds.size() * 2L), falsePositiveRate);
+        activeTokenIds.forEach(filter::put);
+        revokedTokenFilter = filter;
+    }
+}
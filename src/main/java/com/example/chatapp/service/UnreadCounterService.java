@@ -0,0 +1,399 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.BadgeResponse;
+import com.example.chatapp.dto.InboxEntry;
+import com.example.chatapp.model.ChatReadState;
+import com.example.chatapp.model.MigrationCheckpoint;
+import com.example.chatapp.repository.ChatReadStateRepository;
+import com.example.chatapp.repository.MigrationCheckpointRepository;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kullanıcı/sohbet başına okunmamış mesaj sayaçları.
+ * Sayaçlar bellekte tutulur: mesaj kaydedilince gönderen dışındaki katılımcılar için artar, okundu bilgisiyle azalır.
+ * Okundu bilgisi sayılan son mesajı kapsıyorsa sayaç sıfırlanır; daha eski bir mesaj için gelirse (geç ya da sıra dışı
+ * ulaşan bilgi) yalnızca o mesajdan sonrakiler yeniden sayılır. Okunan son mesajı ilerletmeyen bilgiler yok sayılır.
+ * Her düğüm sayaçların tamamını tutar: bu düğümde kaydedilen mesajlar ve okundu bilgileri ClusterBus ile yayınlanır,
+ * diğer düğümler aynı işlemi kendi sayaçlarına uygular.
+ * Değişen sayaçlar periyodik olarak chat_read_state tablosuna toplu yazılır. Birlikte sayılan en büyük mesaj id'si
+ * de kaydedilir; açılışta tablo yüklenir ve bu id'den sonraki mesajlar yeniden sayılır.
+ */
+@Service
+public class UnreadCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    private static final String CHECKPOINT_NAME = "unread-counters";
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final ChatReadStateRepository readStateRepository;
+    private final MigrationCheckpointRepository checkpointRepository;
+    private final ChatFanoutService chatFanoutService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterBus clusterBus;
+
+    // Kullanıcı id -> (sohbet id -> durum)
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, ReadState>> states = new ConcurrentHashMap<>();
+
+    // Son kayıttan beri değişen durumlar (her durum kuyrukta en fazla bir kez bulunur)
+    private final ConcurrentLinkedQueue<ReadState> dirty = new ConcurrentLinkedQueue<>();
+
+    // Sayaçlara yansıtılmış en büyük mesaj id'si
+    private final AtomicLong countedThrough = new AtomicLong();
+
+    // Tabloya en son yazılan sayılmış mesaj id'si
+    private volatile long savedWatermark = -1;
+
+    public UnreadCounterService(ChatReadStateRepository readStateRepository,
+                                MigrationCheckpointRepository checkpointRepository,
+                                ChatFanoutService chatFanoutService,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ClusterBus clusterBus) {
+        this.readStateRepository = readStateRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.chatFanoutService = chatFanoutService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.clusterBus = clusterBus;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        long watermark = checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(MigrationCheckpoint::getLastProcessedId)
+                .orElseGet(() -> {
+                    // İlk çalıştırma: mevcut mesajlar okunmuş kabul edilir
+                    Long maxId = jdbcTemplate.queryForObject("select max(id) from messages", Long.class);
+                    return maxId != null ? maxId : 0L;
+                });
+        countedThrough.set(watermark);
+        savedWatermark = watermark;
+
+        // Tablo ve kaçırılan mesajlar id sırasıyla sayfa sayfa okunur; hiçbiri tek seferde belleğe alınmaz
+        long lastId = 0;
+        List<ChatReadState> rows;
+        while (!(rows = readStateRepository.findByIdGreaterThanOrderById(lastId, Limit.of(REBUILD_PAGE_SIZE))).isEmpty()) {
+            for (ChatReadState row : rows) {
+                ReadState state = state(row.getUserId(), row.getChatId());
+                state.unread = row.getUnreadCount();
+                state.lastReadMessageId = row.getLastReadMessageId();
+                // Hangi mesajların sayıldığı kaydedilmez; okunmamış varsa kayıt noktasına kadar sayılmış kabul edilir
+                state.lastCountedMessageId = state.unread > 0 ? Math.max(watermark, state.lastReadMessageId)
+                        : state.lastReadMessageId;
+            }
+            lastId = rows.get(rows.size() - 1).getId();
+        }
+
+        // Son kayıt noktasından sonra yazılmış mesajlar yeniden sayılır
+        long replayed = 0;
+        long afterId = watermark;
+        List<long[]> missed;
+        while (!(missed = jdbcTemplate.query(
+                "select id, chat_id, sender_id from messages where id > ? order by id limit ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                afterId, REBUILD_PAGE_SIZE)).isEmpty()) {
+            missed.forEach(m -> count(m[1], m[2], m[0]));
+            replayed += missed.size();
+            afterId = missed.get(missed.size() - 1)[0];
+        }
+        logger.info("Okunmamış sayaçları yüklendi: {} durum, {} mesaj yeniden sayıldı", readStatesCount(), replayed);
+
+        // Diğer düğümlerin olayları yükleme bittikten sonra dinlenir; yeniden sayılan mesajlar iki kez sayılmaz
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    /**
+     * Mesaj kaydedildikten sonra çağrılır; gönderen dışındaki katılımcıların sayacı artar.
+     */
+    public void messagePersisted(long chatId, long senderId, long messageId) {
+        count(chatId, senderId, messageId);
+        publish(ClusterEvent.Type.UNREAD_MESSAGE, chatId, senderId, messageId);
+    }
+
+    private void count(long chatId, long senderId, long messageId) {
+        for (long userId : chatFanoutService.getParticipantIds(chatId)) {
+            if (userId == senderId) {
+                continue;
+            }
+            ReadState state = state(userId, chatId);
+            synchronized (state) {
+                if (messageId <= state.lastReadMessageId) {
+                    continue;
+                }
+                state.unread++;
+                state.lastCountedMessageId = Math.max(state.lastCountedMessageId, messageId);
+                markDirty(state);
+            }
+        }
+        countedThrough.accumulateAndGet(messageId, Math::max);
+    }
+
+    /**
+     * Okundu bilgisi: okunan son mesaj ilerletilir. Sayılan son mesaj da okunduysa sayaç sıfırlanır;
+     * aksi halde yalnızca okunan mesajdan sonra sayılmış olanlar kalır. Geride kalan bilgiler yok sayılır.
+     * Mesaj bu sohbete ait değilse bilgi yok sayılır; henüz sayılmamışsa sohbette sayılmış son mesaja indirilir.
+     *
+     * @return uygulanan mesaj id'si; okunan son mesaj ilerlemediyse 0
+     */
+    public long markRead(long userId, long chatId, long messageId) {
+        long applied = resolveRead(chatId, messageId);
+        if (applied == 0 || !applyRead(userId, chatId, applied)) {
+            return 0;
+        }
+        publish(ClusterEvent.Type.UNREAD_READ, chatId, userId, applied);
+        return applied;
+    }
+
+    // İstemciden gelen id'nin sohbetteki karşılığı; sohbete ait değilse 0
+    private long resolveRead(long chatId, long messageId) {
+        List<Long> owner = jdbcTemplate.queryForList("select chat_id from messages where id = ?", Long.class, messageId);
+        if (owner.isEmpty() || owner.get(0) != chatId) {
+            return 0;
+        }
+        long counted = countedThrough.get();
+        if (messageId <= counted) {
+            return messageId;
+        }
+        Long last = jdbcTemplate.queryForObject("select max(id) from messages where chat_id = ? and id <= ?",
+                Long.class, chatId, counted);
+        return last != null ? last : 0;
+    }
+
+    private boolean applyRead(long userId, long chatId, long messageId) {
+        // Henüz sayılmamış id'ler kabul edilmez; aksi halde sonraki mesajlar hiç sayılmazdı (diğer düğümden gelen
+        // bilgi bu düğümde sayılmamış bir mesaja ait olabilir)
+        messageId = Math.min(messageId, countedThrough.get());
+        ReadState state = state(userId, chatId);
+        synchronized (state) {
+            if (messageId <= state.lastReadMessageId) {
+                return false;
+            }
+            state.lastReadMessageId = messageId;
+            if (messageId >= state.lastCountedMessageId) {
+                state.unread = 0;
+            } else {
+                // Yalnızca sayaca yansımış aralık sayılır; sonraki mesajlar messagePersisted ile ayrıca eklenir
+                Integer remaining = jdbcTemplate.queryForObject(
+                        "select count(*) from messages where chat_id = ? and sender_id <> ? and id > ? and id <= ?",
+                        Integer.class, chatId, userId, messageId, state.lastCountedMessageId);
+                state.unread = remaining != null ? Math.min(remaining, state.unread) : 0;
+            }
+            markDirty(state);
+            return true;
+        }
+    }
+
+    /**
+     * Silinen kullanıcının sayaçları bellekten düşer. Kuyruktaki durumları artık yazılmaz; aksi halde
+     * kayıt noktası silinmiş satırları yeniden oluştururdu. Diğer düğümler USER_REMOVED olayıyla aynı işlemi yapar.
+     */
+    public void userRemoved(long userId) {
+        Map<Long, ReadState> byChat = states.remove(userId);
+        if (byChat == null) {
+            return;
+        }
+        for (ReadState state : byChat.values()) {
+            synchronized (state) {
+                state.removed = true;
+            }
+        }
+    }
+
+    public int getUnreadCount(long userId, long chatId) {
+        Map<Long, ReadState> byChat = states.get(userId);
+        ReadState state = byChat != null ? byChat.get(chatId) : null;
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.unread;
+        }
+    }
+
+    // Okunmamış mesajı olan sohbetler, en çok okunmamıştan aza
+    public List<InboxEntry> getInbox(long userId) {
+        Map<Long, ReadState> byChat = states.get(userId);
+        if (byChat == null) {
+            return List.of();
+        }
+        List<InboxEntry> inbox = new ArrayList<>();
+        for (ReadState state : byChat.values()) {
+            synchronized (state) {
+                if (state.unread > 0) {
+                    inbox.add(new InboxEntry(state.chatId, state.unread, state.lastReadMessageId));
+                }
+            }
+        }
+        inbox.sort(Comparator.comparingInt(InboxEntry::getUnreadCount).reversed());
+        return inbox;
+    }
+
+    public BadgeResponse getBadge(long userId) {
+        Map<Long, ReadState> byChat = states.get(userId);
+        if (byChat == null) {
+            return new BadgeResponse(0, 0);
+        }
+        int chats = 0;
+        long messages = 0;
+        for (ReadState state : byChat.values()) {
+            synchronized (state) {
+                if (state.unread > 0) {
+                    chats++;
+                    messages += state.unread;
+                }
+            }
+        }
+        return new BadgeResponse(chats, messages);
+    }
+
+    @Scheduled(fixedDelayString = "${unread.checkpoint-interval-ms:5000}")
+    public void checkpoint() {
+        // Önce id okunur: bu id'ye kadar olan artışlar kuyruktaki durumlara yansımış olur
+        long watermark = countedThrough.get();
+
+        List<ReadState> flushed = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        ReadState state;
+        while ((state = dirty.poll()) != null) {
+            synchronized (state) {
+                state.dirty = false;
+                if (state.removed) {
+                    continue;
+                }
+                rows.add(new Object[]{state.unread, state.lastReadMessageId, state.userId, state.chatId});
+            }
+            flushed.add(state);
+        }
+        if (rows.isEmpty() && watermark == savedWatermark) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (!rows.isEmpty()) {
+                    upsert(rows, now);
+                }
+                MigrationCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                        .orElseGet(() -> new MigrationCheckpoint(CHECKPOINT_NAME));
+                checkpoint.setLastProcessedId(watermark);
+                checkpoint.setUpdatedAt(now.toLocalDateTime());
+                checkpointRepository.save(checkpoint);
+            });
+            savedWatermark = watermark;
+        } catch (RuntimeException e) {
+            // Yazılamayan durumlar bir sonraki turda tekrar denenir
+            for (ReadState failed : flushed) {
+                synchronized (failed) {
+                    markDirty(failed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            logger.warn("Okunmamış sayaçları kapanışta kaydedilemedi: {}", e.getMessage());
+        }
+    }
+
+    // Önce güncelleme denenir, satırı olmayanlar eklenir
+    private void upsert(List<Object[]> rows, Timestamp now) {
+        List<Object[]> updates = rows.stream()
+                .map(r -> new Object[]{r[0], r[1], now, r[2], r[3]})
+                .toList();
+        int[] updated = jdbcTemplate.batchUpdate(
+                "update chat_read_state set unread_count = ?, last_read_message_id = ?, updated_at = ? " +
+                "where user_id = ? and chat_id = ?", updates);
+
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] == 0) {
+                Object[] r = rows.get(i);
+                inserts.add(new Object[]{r[2], r[3], r[0], r[1], now});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "insert into chat_read_state (user_id, chat_id, unread_count, last_read_message_id, updated_at) " +
+                    "values (?, ?, ?, ?, ?)", inserts);
+        }
+    }
+
+    private void publish(ClusterEvent.Type type, long chatId, long userId, long messageId) {
+        try {
+            clusterBus.publish(type, chatId, new long[]{userId}, messageId);
+        } catch (Exception e) {
+            // Diğer düğümler kayıt noktasından yeniden yüklenince düzelir
+            logger.warn("Okunmamış sayaç değişikliği yayınlanamadı: {}", e.getMessage());
+        }
+    }
+
+    private void onClusterEvent(ClusterEvent event) {
+        switch (event.type()) {
+            case UNREAD_MESSAGE -> count(event.id(), event.userIds()[0], event.value());
+            case UNREAD_READ -> applyRead(event.userIds()[0], event.id(), event.value());
+            case USER_REMOVED -> userRemoved(event.id());
+            default -> {
+            }
+        }
+    }
+
+    private ReadState state(long userId, long chatId) {
+        return states.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chatId, id -> new ReadState(userId, chatId));
+    }
+
+    // state kilidi altında çağrılır
+    private void markDirty(ReadState state) {
+        if (!state.dirty && !state.removed) {
+            state.dirty = true;
+            dirty.add(state);
+        }
+    }
+
+    private int readStatesCount() {
+        return states.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static final class ReadState {
+        private final long userId;
+        private final long chatId;
+        private int unread;
+        private long lastReadMessageId;
+        private long lastCountedMessageId; // Sayaca yansıyan en büyük mesaj id'si
+        private boolean dirty;
+        private boolean removed; // Kullanıcı silindi; durum bir daha yazılmaz
+
+        private ReadState(long userId, long chatId) {
+            this.userId = userId;
+            this.chatId = chatId;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.UserDeletionStatus;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.FriendshipChange;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Kullanıcı silme işi.
+ * Kullanıcı hemen devre dışı bırakılır (token'ları iptal, principal önbellekten düşer, WebSocket oturumları kapanır);
+ * oturumlar SESSIONS_CLOSED, önbellekteki principal USER_DISABLED olayıyla diğer düğümlerde de düşer. İlişkili kayıtlar ancak bundan sonra arka planda
+ * parça parça silinir. Her parça id listesiyle tek DELETE ifadesi olarak kendi transaction'ında çalışır, böylece büyük
+ * bir arkadaşlık grafı satırları uzun süre kilitlemez. Son transaction kullanıcı satırını kilitler ve parçalar silinirken
+ * yazılmış satırları da silip kullanıcıyı kaldırır; bellek içi durumlar (okunmamış sayaçlar, arkadaş grafı) tüm
+ * düğümlerde USER_REMOVED ile düşer.
+ * İş yarıda kalırsa devre dışı kullanıcılar bir sonraki açılışta yeniden kuyruğa alınır; adımlar tekrar çalıştırılabilir.
+ */
+@Service
+public class UserDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDeletionService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private FriendGraphService friendGraphService;
+
+    @Autowired
+    private FriendSuggestionService friendSuggestionService;
+
+    @Autowired
+    private FriendshipChangeService friendshipChangeService;
+
+    @Autowired
+    private ChatFanoutService chatFanoutService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ClusterBus clusterBus;
+
+    @Autowired
+    private UserSessionService userSessionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${user-deletion.chunk-size:500}")
+    private int chunkSize;
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-deletion-"));
+
+    // Kullanıcı id -> son durum; biten işler durum sorgusu için tutulur
+    private final ConcurrentHashMap<Long, UserDeletionStatus> jobs = new ConcurrentHashMap<>();
+
+    private volatile boolean stopRequested;
+
+    @PostConstruct
+    void subscribe() {
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    /**
+     * Kullanıcıyı devre dışı bırakır ve silme işini kuyruğa alır. İş zaten sürüyorsa mevcut durumu döner;
+     * başarısız olmuş bir iş yeniden başlatılabilir.
+     */
+    public synchronized UserDeletionStatus startDeletion(User user) {
+        UserDeletionStatus current = jobs.get(user.getId());
+        if (current != null && (current.getState() == UserDeletionStatus.State.PENDING
+                || current.getState() == UserDeletionStatus.State.RUNNING)) {
+            return current;
+        }
+        disable(user);
+        return submit(user.getId(), false);
+    }
+
+    // İş bilinmiyorsa null
+    public UserDeletionStatus getStatus(Long userId) {
+        UserDeletionStatus status = jobs.get(userId);
+        if (status != null) {
+            return status;
+        }
+        return userRepository.findById(userId)
+                .filter(user -> user.getDisabledAt() != null)
+                .map(user -> new UserDeletionStatus(userId, UserDeletionStatus.State.PENDING, 0, 0, 0, 0, false, null, null, null))
+                .orElse(null);
+    }
+
+    // Önceki çalışmada yarıda kalan silmeler
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void resumePending() {
+        List<Long> userIds = userRepository.findDisabledIds();
+        for (Long userId : userIds) {
+            if (!jobs.containsKey(userId)) {
+                submit(userId, true);
+            }
+        }
+        if (!userIds.isEmpty()) {
+            logger.info("Yarıda kalan {} kullanıcı silme işi yeniden kuyruğa alındı", userIds.size());
+        }
+    }
+
+    private void disable(User user) {
+        if (user.getDisabledAt() == null) {
+            user.setDisabledAt(LocalDateTime.now());
+            userRepository.save(user);
+        }
+        disconnect(user);
+        logger.info("Kullanıcı devre dışı bırakıldı: {}", user.getId());
+    }
+
+    // Token'lar iptal edilir ve oturumlar tüm düğümlerde kapatılır; silme adımları bundan sonra başlar
+    private void disconnect(User user) {
+        tokenRevocationService.revokeAllSessions(user.getUsername());
+        userDetailsService.evict(user.getUsername());
+        userSessionService.closeAll(user.getId());
+        clusterBus.publish(ClusterEvent.Type.USER_DISABLED, user.getId(), new long[0], 0);
+    }
+
+    // Diğer düğümde devre dışı bırakılan kullanıcı: kesim zamanı yüklenir, önbellekteki principal düşer.
+    // Oturumlar SESSIONS_CLOSED ile zaten kapatılmıştır
+    private void onClusterEvent(ClusterEvent event) {
+        if (event.type() != ClusterEvent.Type.USER_DISABLED) {
+            return;
+        }
+        userRepository.findById(event.id()).ifPresent(user -> {
+            tokenRevocationService.reloadSessionCutoff(user.getUsername());
+            userDetailsService.evict(user.getUsername());
+        });
+    }
+
+    private UserDeletionStatus submit(Long userId, boolean resumed) {
+        UserDeletionStatus status = new UserDeletionStatus(userId, UserDeletionStatus.State.PENDING, 0, 0, 0, 0, false, null, null, null);
+        jobs.put(userId, status);
+        jobExecutor.submit(() -> run(userId, resumed));
+        return status;
+    }
+
+    private void run(Long userId, boolean resumed) {
+        Progress progress = new Progress(userId, LocalDateTime.now());
+        jobs.put(userId, progress.snapshot(UserDeletionStatus.State.RUNNING, null));
+        logger.info("Kullanıcı silme işi başladı: {}", userId);
+        try {
+            User user = userRepository.findById(userId).orElse(null);
+            if (user != null) {
+                // Yeniden başlatılan işte oturumlar (diğer düğümler dahil) silmeden önce tekrar kapatılır
+                if (resumed) {
+                    disconnect(user);
+                }
+                progress.deletedFriendships = deleteFriendships(userId, progress);
+                progress.deletedMessages = deleteInChunks("messages", "sender_id", userId, progress);
+                progress.deletedMemberships = deleteMemberships(userId, progress);
+                deleteInChunks("chat_read_state", "user_id", userId, progress);
+                deleteInChunks("sync_device_cursors", "user_id", userId, progress);
+                progress.deletedStories = deleteInChunks("stories", "user_id", userId, progress);
+                // Karşı tarafların günlüğündeki DELETED kayıtları kalır; yalnızca kullanıcının kendi günlüğü silinir
+                deleteInChunks("friendship_changes", "user_id", userId, progress);
+                if (stopRequested) {
+                    jobs.put(userId, progress.snapshot(UserDeletionStatus.State.PENDING, null));
+                    return;
+                }
+                progress.imageDeleted = userService.deleteProfileImage(user.getProfileImageUrl());
+
+                // Bellek içi durumlar önce düşer; kayıt noktası silinen sayaçları bundan sonra geri yazmaz
+                unreadCounterService.userRemoved(userId);
+                friendGraphService.userRemoved(userId);
+                clusterBus.publish(ClusterEvent.Type.USER_REMOVED, userId, new long[0], 0);
+
+                Leftovers leftovers = transactionTemplate.execute(tx -> deleteUser(userId, progress));
+                friendshipsDeleted(leftovers.friendships());
+                leftovers.chatIds().forEach(chatId -> chatFanoutService.chatLeft(chatId, new long[]{userId}));
+                userDetailsService.evict(user.getUsername());
+            }
+            jobs.put(userId, progress.snapshot(UserDeletionStatus.State.COMPLETED, null));
+            logger.info("Kullanıcı silindi: {} ({} arkadaşlık, {} mesaj, {} sohbet üyeliği, {} hikaye)", userId,
+                    progress.deletedFriendships, progress.deletedMessages, progress.deletedMemberships, progress.deletedStories);
+        } catch (Exception e) {
+            logger.error("Kullanıcı silme hatası: {}", userId, e);
+            jobs.put(userId, progress.snapshot(UserDeletionStatus.State.FAILED, e.getMessage()));
+        }
+    }
+
+    /**
+     * Son transaction: kullanıcı satırı kilitlenir (yabancı anahtarla ona bağlanan eklemeler commit'e kadar bekler),
+     * parçalar silinirken yazılmış satırlar silinir ve kullanıcı kaldırılır. Silinen arkadaşlıklar ve üyelikler
+     * önbellekleri commit'ten sonra güncellemek için döner.
+     */
+    private Leftovers deleteUser(long userId, Progress progress) {
+        jdbcTemplate.queryForList("select id from users where id = ? for update", Long.class, userId);
+
+        List<FriendshipRow> friendships = findFriendships(userId, Integer.MAX_VALUE);
+        deleteFriendshipRows(friendships);
+        progress.deletedFriendships += friendships.size();
+
+        List<Long> chatIds = jdbcTemplate.queryForList("select chat_id from chat_users where user_id = ?", Long.class, userId);
+        progress.deletedMemberships += jdbcTemplate.update("delete from chat_users where user_id = ?", userId);
+        progress.deletedMessages += jdbcTemplate.update("delete from messages where sender_id = ?", userId);
+        progress.deletedStories += jdbcTemplate.update("delete from stories where user_id = ?", userId);
+        jdbcTemplate.update("delete from chat_read_state where user_id = ?", userId);
+        jdbcTemplate.update("delete from sync_device_cursors where user_id = ?", userId);
+        jdbcTemplate.update("delete from friendship_changes where user_id = ?", userId);
+        jdbcTemplate.update("delete from user_friend_versions where user_id = ?", userId);
+        userRepository.deleteById(userId);
+        return new Leftovers(friendships, chatIds);
+    }
+
+    private List<FriendshipRow> findFriendships(long userId, int limit) {
+        return jdbcTemplate.query(
+                "select id, requester_id, receiver_id, status from friendships " +
+                "where requester_id = ? or receiver_id = ? order by id limit ?",
+                (rs, rowNum) -> new FriendshipRow(rs.getLong("id"), rs.getLong("requester_id"),
+                        rs.getLong("receiver_id"), Friendship.FriendshipStatus.valueOf(rs.getString("status"))),
+                userId, userId, limit);
+    }
+
+    // Silinen arkadaşlıklar iki tarafın değişiklik günlüğüne aynı transaction'da yazılır
+    private void deleteFriendshipRows(List<FriendshipRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Long> ids = rows.stream().map(FriendshipRow::id).toList();
+        jdbcTemplate.update("delete from friendships where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+        friendshipChangeService.record(rows.stream()
+                .map(row -> new FriendshipChangeService.Change(row.id(), row.requesterId(), row.receiverId(),
+                        FriendshipChange.ChangeType.DELETED, null))
+                .toList());
+    }
+
+    // Commit'ten sonra graf ve öneri önbellekleri güncellenir
+    private void friendshipsDeleted(List<FriendshipRow> rows) {
+        for (FriendshipRow row : rows) {
+            if (row.status() == Friendship.FriendshipStatus.ACCEPTED) {
+                friendGraphService.friendshipRemoved(row.requesterId(), row.receiverId());
+                friendSuggestionService.friendshipChanged(row.requesterId(), row.receiverId());
+            } else {
+                friendSuggestionService.requestChanged(row.requesterId(), row.receiverId());
+            }
+        }
+    }
+
+    private long deleteFriendships(long userId, Progress progress) {
+        long deleted = 0;
+        while (!stopRequested) {
+            List<FriendshipRow> chunk = findFriendships(userId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(tx -> deleteFriendshipRows(chunk));
+            friendshipsDeleted(chunk);
+            deleted += chunk.size();
+            progress.deletedFriendships = deleted;
+            jobs.put(userId, progress.snapshot(UserDeletionStatus.State.RUNNING, null));
+        }
+        return deleted;
+    }
+
+    // Sohbet üyelikleri; sohbetin katılımcı önbelleği de düşürülür
+    private long deleteMemberships(long userId, Progress progress) {
+        long deleted = 0;
+        while (!stopRequested) {
+            List<Long> chatIds = jdbcTemplate.queryForList(
+                    "select chat_id from chat_users where user_id = ? order by chat_id limit ?", Long.class, userId, chunkSize);
+            if (chatIds.isEmpty()) {
+                break;
+            }
+            List<Object> args = new ArrayList<>(chatIds.size() + 1);
+            args.add(userId);
+            args.addAll(chatIds);
+            Integer removed = transactionTemplate.execute(tx -> jdbcTemplate.update(
+                    "delete from chat_users where user_id = ? and chat_id in (" + placeholders(chatIds.size()) + ")",
+                    args.toArray()));
+            chatIds.forEach(chatId -> chatFanoutService.chatLeft(chatId, new long[]{userId}));
+            deleted += removed != null ? removed : 0;
+            progress.deletedMemberships = deleted;
+            jobs.put(userId, progress.snapshot(UserDeletionStatus.State.RUNNING, null));
+        }
+        return deleted;
+    }
+
+    // Tablodaki kullanıcıya ait satırlar id sırasıyla parça parça silinir
+    private long deleteInChunks(String table, String userColumn, long userId, Progress progress) {
+        long deleted = 0;
+        while (!stopRequested) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "select id from " + table + " where " + userColumn + " = ? order by id limit ?", Long.class, userId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer removed = transactionTemplate.execute(tx -> jdbcTemplate.update(
+                    "delete from " + table + " where id in (" + placeholders(ids.size()) + ")", ids.toArray()));
+            deleted += removed != null ? removed : 0;
+            jobs.put(userId, progress.snapshot(UserDeletionStatus.State.RUNNING, null));
+        }
+        return deleted;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopRequested = true;
+        jobExecutor.shutdown();
+    }
+
+    // İş parçacığına ait sayaçlar; dışarıya her adımda anlık kopya yayınlanır
+    private static class Progress {
+        private final Long userId;
+        private final LocalDateTime startedAt;
+        private long deletedFriendships;
+        private long deletedMessages;
+        private long deletedMemberships;
+        private long deletedStories;
+        private boolean imageDeleted;
+
+        Progress(Long userId, LocalDateTime startedAt) {
+            this.userId = userId;
+            this.startedAt = startedAt;
+        }
+
+        UserDeletionStatus snapshot(UserDeletionStatus.State state, String error) {
+            boolean finished = state == UserDeletionStatus.State.COMPLETED || state == UserDeletionStatus.State.FAILED;
+            return new UserDeletionStatus(userId, state, deletedFriendships, deletedMessages, deletedMemberships,
+                    deletedStories, imageDeleted, startedAt, finished ? LocalDateTime.now() : null, error);
+        }
+    }
+
+    private record FriendshipRow(long id, long requesterId, long receiverId, Friendship.FriendshipStatus status) {
+    }
+
+    private record Leftovers(List<FriendshipRow> friendships, List<Long> chatIds) {
+    }
+}
@@ -1,27 +1,68 @@
 package com.example.chatapp.service;
 
+import com.example.chatapp.model.AuthenticatedUser;
 import com.example.chatapp.model.User;
 import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service("userDetailsServiceImpl")
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    // Her istekte veritabanına gitmemek için kullanıcı adı -> principal önbelleği
+    private final ExpiringCache<String, UserDetails> principalCache;
+    private final long principalTtlMillis;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.principal-cache.ttl-ms:300000}") long principalTtlMillis,
+                                  @Value("${security.principal-cache.max-size:10000}") int principalCacheMaxSize) {
         this.userRepository = userRepository;
+        this.principalTtlMillis = principalTtlMillis;
+        this.principalCache = new ExpiringCache<>(principalCacheMaxSize);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        return findUserByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Kullanıcı bulunamadı"));
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
+    }
+
+    // Kullanıcı yoksa exception yerine boş döner
+    public Optional<UserDetails> findUserByUsername(String username) {
+        return findUserByUsername(username, user -> { });
+    }
+
+    // Önbellekte yoksa kullanıcı yüklenir ve entity onLoaded'a verilir; aynı istek içinde tekrar sorgulanmaz
+    public Optional<UserDetails> findUserByUsername(String username, Consumer<User> onLoaded) {
+        UserDetails cached = principalCache.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<User> user = userRepository.findByUsername(username);
+        // Silinmekte olan kullanıcı yokmuş gibi davranır
+        if (user.isEmpty() || user.get().getDisabledAt() != null) {
+            return Optional.empty();
+        }
+        onLoaded.accept(user.get());
+        UserDetails userDetails = new AuthenticatedUser(
+                user.get().getId(), user.get().getUsername(), user.get().getPassword(), new ArrayList<>());
+        principalCache.putWithTtl(username, userDetails, principalTtlMillis);
+        return Optional.of(userDetails);
+    }
+
+    // Şifre değişikliği veya kullanıcı silme sonrası önbellekteki principal'ı düşürür
+    public void evict(String username) {
+        principalCache.invalidate(username);
     }
 }
@@ -4,19 +4,17 @@ import com.example.chatapp.dto.LoginRequest;
 import com.example.chatapp.dto.ProfileResponse;
 import com.example.chatapp.dto.ProfileUpdateRequest;
 import com.example.chatapp.dto.RegisterRequest;
+import com.example.chatapp.model.Role;
 import com.example.chatapp.model.User;
 import com.example.chatapp.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -35,7 +33,15 @@ public class UserService {
     @Autowired
     private JwtService jwtService;
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private PresenceService presenceService;
+    @Autowired
+    private UserSessionService userSessionService;
     
     @Value("${file.upload-dir:uploads/images}")
     private String uploadDir;
@@ -75,7 +81,7 @@ public class UserService {
         user.setEmail(registerRequest.getEmail());
         
         // Şifreyi BCrypt ile hashle ve kaydet
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHashingService.encode(registerRequest.getPassword()));
         
         userRepository.save(user);
         // Kayıt işlemini yap...
@@ -95,57 +101,57 @@ public class UserService {
         }
 
         User user = userOpt.get();
+        if (user.getDisabledAt() != null) {
+            throw new Exception("Kullanıcı bulunamadı.");
+        }
         
         // Şifreyi BCrypt ile doğrula
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new Exception("Şifre yanlış.");
         }
+
+        // Kayıtlı maliyet faktörü yapılandırılandan farklıysa şifreyi yeni maliyetle tekrar hashle
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(loginRequest.getPassword()));
+            userRepository.save(user);
+            userDetailsService.evict(user.getUsername());
+        }
         
         // Kullanıcı girişinde online durumunu değiştirmiyoruz
         // Kullanıcı son durumunu koruyor
         
         // Şifre doğruysa token oluştur ve dön
-        return jwtService.generateToken(loginRequest.getUsername());
+        return jwtService.generateToken(loginRequest.getUsername(), Role.USER);
     }
 
-    // Profil bilgisini getirdxcdcdscdc
-    public ProfileResponse getProfile(String token) throws Exception {
+    // Çıkış: kullanılan token süresi dolmadan geçersiz olur, bu token ile açılmış WebSocket oturumları kapanır
+    public void logout(String token, User user) {
+        Claims claims = jwtService.validateToken(token);
+        tokenRevocationService.revokeToken(claims);
+        userSessionService.closeToken(user.getId(), claims.getId());
+    }
 
-        if (token.isEmpty()) {
-            throw new Exception("token bulunamadı.");
-        }
-        String userName = jwtService.extractUsername(token);
-        Optional<User> user = userRepository.findByUsername(userName);
+    // Kullanıcının tüm cihazlardaki oturumlarını kapatır
+    public void revokeAllSessions(User user) {
+        tokenRevocationService.revokeAllSessions(user.getUsername());
+        userSessionService.closeAll(user.getId());
+    }
 
-        if (user.isEmpty()) {
-            throw new Exception("Kullanıcı bulunamadı.");
-        }
+    // Profil bilgisini getir
+    public ProfileResponse getProfile(User user) {
         return ProfileResponse.builder()
-                .bio(user.get().getBio())
-                .email(user.get().getEmail())
-                .isim(user.get().getIsim())
-                .userName(user.get().getUsername())
-                .profileImageUrl(user.get().getProfileImageUrl())
-                .soyad(user.get().getSoyad())
-                .isOnline(user.get().isOnline())
+                .bio(user.getBio())
+                .email(user.getEmail())
+                .isim(user.getIsim())
+                .userName(user.getUsername())
+                .profileImageUrl(user.getProfileImageUrl())
+                .soyad(user.getSoyad())
+                .isOnline(presenceService.isOnline(user.getId()))
                 .build();
     }
     
     // Profil güncelleme
-    public ProfileResponse updateProfile(String token, ProfileUpdateRequest updateRequest) throws Exception {
-        if (token.isEmpty()) {
-            throw new Exception("Token bulunamadı.");
-        }
-        
-        String username = jwtService.extractUsername(token);
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        
-        if (userOpt.isEmpty()) {
-            throw new Exception("Kullanıcı bulunamadı.");
-        }
-        
-        User user = userOpt.get();
-        
+    public ProfileResponse updateProfile(User user, ProfileUpdateRequest updateRequest) throws Exception {
         // Güncellenecek alanları kontrol et ve güncelle
         if (updateRequest.getBio() != null && !updateRequest.getBio().isEmpty()) {
             user.setBio(updateRequest.getBio());
@@ -156,9 +162,11 @@ public class UserService {
         }
         
         // Şifre güncelleme (opsiyonel)
+        boolean passwordChanged = false;
         if (updateRequest.getPassword() != null && !updateRequest.getPassword().isEmpty()) {
             // Yeni şifreyi BCrypt ile hashle
-            user.setPassword(passwordEncoder.encode(updateRequest.getPassword()));
+            user.setPassword(passwordHashingService.encode(updateRequest.getPassword()));
+            passwordChanged = true;
         }
         
         // Güncelleme zamanını ayarla
@@ -166,6 +174,11 @@ public class UserService {
         
         // Kullanıcıyı kaydet
         userRepository.save(user);
+
+        // Şifre değiştiyse önbellekteki kimlik bilgisi geçersiz olur
+        if (passwordChanged) {
+            userDetailsService.evict(user.getUsername());
+        }
         
         // Güncellenmiş profil bilgilerini döndür
         return ProfileResponse.builder()
@@ -175,25 +188,12 @@ public class UserService {
                 .userName(user.getUsername())
                 .profileImageUrl(user.getProfileImageUrl())
                 .soyad(user.getSoyad())
-                .isOnline(user.isOnline())
+                .isOnline(presenceService.isOnline(user.getId()))
                 .build();
     }
     
     // Profil fotoğrafı yükleme
-    public ProfileResponse updateProfileImage(String token, MultipartFile file) throws Exception {
-        if (token.isEmpty()) {
-            throw new Exception("Token bulunamadı.");
-        }
-        
-        String username = jwtService.extractUsername(token);
-        Optional<User> userOpt = userRepository.findByUsername(username);
-        
-        if (userOpt.isEmpty()) {
-            throw new Exception("Kullanıcı bulunamadı.");
-        }
-        
-        User user = userOpt.get();
-        
+    public ProfileResponse updateProfileImage(User user, MultipartFile file) throws Exception {
         // Dosya adını benzersiz yap (UUID ile)
         String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
@@ -226,7 +226,7 @@ public class UserService {
                 .userName(user.getUsername())
                 .profileImageUrl(user.getProfileImageUrl())
                 .soyad(user.getSoyad())
-                .isOnline(user.isOnline())
+                .isOnline(presenceService.isOnline(user.getId()))
                 .build();
     }
     
@@ -245,125 +245,30 @@ public class UserService {
         }
     }
     
-    // Online durum güncelleme
-    public ProfileResponse updateOnlineStatus(String token, boolean isOnline) throws Exception {
-        System.out.println("UserService: Updating online status to: " + isOnline + " for token: " + token.substring(0, 10) + "...");
-        
-        if (token == null || token.isEmpty()) {
-            System.err.println("Token is empty or null");
-            throw new Exception("Token bulunamadı.");
+    // Yüklenmiş profil fotoğrafını diskten siler; harici adresler ve varsayılan resim atlanır
+    public boolean deleteProfileImage(String profileImageUrl) throws IOException {
+        if (profileImageUrl == null || !profileImageUrl.startsWith("/user/images/")) {
+            return false;
         }
-        
-        try {
-            // Token'dan kullanıcı adını çıkar
-            String username = jwtService.extractUsername(token);
-            System.out.println("UserService: Extracted username from token: " + username);
-            
-            if (username == null || username.isEmpty()) {
-                throw new Exception("Geçersiz token - kullanıcı adı alınamadı");
-            }
-            
-            // Kullanıcıyı bul
-            Optional<User> userOpt = userRepository.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
-                System.err.println("User not found for username: " + username);
-                throw new Exception("Kullanıcı bulunamadı.");
-            }
-            
-            User user = userOpt.get();
-            System.out.println("UserService: Found user: " + user.getUsername() + ", current online status: " + user.isOnline());
-            
-            // Online durumunu güncelle - Boolean değerini double-check et
-            boolean newStatus = Boolean.valueOf(isOnline);
-            System.out.println("UserService: Setting status to " + newStatus + " (boolean type)");
-            user.setOnline(newStatus);
-            
-            // Güncelleme zamanını ayarla
-            user.setUpdatedAt(LocalDateTime.now());
-            
-            // Kullanıcıyı kaydet
-            User savedUser = userRepository.save(user);
-            
-            // Veritabanına doğru kaydedildiğinden emin ol
-            if (savedUser.isOnline() != newStatus) {
-                System.err.println("WARNING: Database update did not reflect the requested status change!");
-                System.err.println("Requested: " + newStatus + ", Saved: " + savedUser.isOnline());
-                // Tekrar kaydetmeyi dene
-                savedUser.setOnline(newStatus);
-                savedUser = userRepository.save(savedUser);
-                
-                if (savedUser.isOnline() != newStatus) {
-                    throw new Exception("Durum güncellemesi veritabanına kaydedilemedi.");
-                }
-            }
-            
-            System.out.println("UserService: User saved successfully with new online status: " + savedUser.isOnline());
-            
-            // Güncellenmiş profil bilgilerini döndür
-            ProfileResponse response = ProfileResponse.builder()
-                    .bio(user.getBio())
-                    .email(user.getEmail())
-                    .isim(user.getIsim())
-                    .userName(user.getUsername())
-                    .profileImageUrl(user.getProfileImageUrl())
-                    .soyad(user.getSoyad())
-                    .isOnline(user.isOnline())
-                    .build();
-            
-            System.out.println("UserService: Returning profile response with online status: " + response.isOnline());
-            return response;
-        } catch (Exception e) {
-            System.err.println("ERROR in updateOnlineStatus: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+        Path uploadPath = getUploadPath().toAbsolutePath().normalize();
+        Path filePath = uploadPath.resolve(profileImageUrl.substring("/user/images/".length())).normalize();
+        if (!filePath.startsWith(uploadPath)) {
+            return false;
         }
+        return Files.deleteIfExists(filePath);
     }
-    
-    // Online durum güncelleme - token olmadan (test için)
-    public ProfileResponse updateOnlineStatusWithoutToken(boolean isOnline) throws Exception {
-        System.out.println("Updating online status without token check to: " + isOnline);
-        
-        try {
-            // Test için ilk kullanıcının durumunu güncelle
-            User user = userRepository.findAll().stream().findFirst().orElseThrow(() -> new Exception("Kullanıcı bulunamadı"));
-            System.out.println("Found first user: " + user.getUsername() + ", updating online status");
-            
-            // Online durumunu parametreden gelen değere göre ayarla
-            user.setOnline(isOnline);
-            
-            // Güncelleme zamanını ayarla
-            user.setUpdatedAt(LocalDateTime.now());
-            
-            // Kullanıcıyı kaydet
-            User savedUser = userRepository.save(user);
-            System.out.println("User saved successfully with new online status: " + savedUser.isOnline());
-            
-            // Güncellenmiş profil bilgilerini döndür
-            return ProfileResponse.builder()
-                    .bio(user.getBio())
-                    .email(user.getEmail())
-                    .isim(user.getIsim())
-                    .userName(user.getUsername())
-                    .profileImageUrl(user.getProfileImageUrl())
-                    .soyad(user.getSoyad())
-                    .isOnline(user.isOnline())
-                    .build();
-        } catch (Exception e) {
-            System.err.println("ERROR in updateOnlineStatusWithoutToken: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+
+    // Online durum güncelleme
+    public ProfileResponse updateOnlineStatus(User user, boolean isOnline) {
+        // Durum bellekte tutulur, veritabanına PresenceService toplu yazar
+        presenceService.setStatus(user.getId(), isOnline);
+        return getProfile(user);
     }
 
-    public User getCurrentUser(Authentication authentication) {
-        if (authentication == null) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Kullanıcı oturum açmamış");
-        }
-        
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Kullanıcı bulunamadı"));
+    public ProfileResponse updateOnlineStatusWithoutToken(boolean isOnline) throws Exception {
+        // Test için ilk kullanıcının durumunu güncelle
+        User user = userRepository.findAll().stream().findFirst().orElseThrow(() -> new Exception("Kullanıcı bulunamadı"));
+        return updateOnlineStatus(user, isOnline);
     }
 }
 
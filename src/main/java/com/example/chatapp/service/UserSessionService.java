@@ -0,0 +1,64 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.ClusterEvent;
+import com.example.chatapp.websocket.StompPrincipalRegistry;
+import com.example.chatapp.websocket.WebSocketSessionRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+
+/**
+ * Kullanıcının açık WebSocket oturumlarını tüm düğümlerde kapatır. Bu düğümdekiler hemen kapatılır,
+ * diğer düğümler SESSIONS_CLOSED olayıyla kendi oturumlarını kapatır.
+ * Token iptali TokenRevocationService ile ayrıca yapılmalıdır; aksi halde istemci aynı token ile yeniden bağlanır.
+ */
+@Service
+public class UserSessionService {
+
+    private final StompPrincipalRegistry principalRegistry;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final ClusterBus clusterBus;
+
+    public UserSessionService(StompPrincipalRegistry principalRegistry,
+                              WebSocketSessionRegistry sessionRegistry,
+                              ClusterBus clusterBus) {
+        this.principalRegistry = principalRegistry;
+        this.sessionRegistry = sessionRegistry;
+        this.clusterBus = clusterBus;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        clusterBus.subscribe(this::onClusterEvent);
+    }
+
+    // Kullanıcının tüm cihazlardaki oturumları
+    public void closeAll(long userId) {
+        closeLocal(userId, null);
+        clusterBus.publish(ClusterEvent.Type.SESSIONS_CLOSED, userId, new long[0], 0);
+    }
+
+    // Yalnızca verilen token ile açılmış oturumlar; jti yoksa ya da UUID değilse tüm oturumlar kapatılır
+    public void closeToken(long userId, String tokenId) {
+        long[] encoded = tokenId == null ? new long[0] : TokenRevocationService.encodeTokenId(tokenId);
+        if (encoded.length == 0) {
+            closeAll(userId);
+            return;
+        }
+        closeLocal(userId, tokenId);
+        clusterBus.publish(ClusterEvent.Type.SESSIONS_CLOSED, userId, encoded, 0);
+    }
+
+    private void closeLocal(long userId, String tokenId) {
+        for (String sessionId : principalRegistry.getSessionIds(userId, tokenId)) {
+            sessionRegistry.close(sessionId, CloseStatus.POLICY_VIOLATION);
+        }
+    }
+
+    private void onClusterEvent(ClusterEvent event) {
+        if (event.type() == ClusterEvent.Type.SESSIONS_CLOSED) {
+            closeLocal(event.id(), TokenRevocationService.decodeTokenId(event.userIds()));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.chatapp.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Boyutu sınırlı, her girdisi kendi son geçerlilik zamanına sahip basit bir önbellek.
+ * Girdiler erişim sırasıyla tutulur; önbellek dolduğunda en uzun süredir kullanılmayan girdi O(1) ile atılır.
+ * Süresi dolan girdiler okuma sırasında temizlenir, okunmayanlar zamanla LRU sırasıyla düşer.
+ */
+public class ExpiringCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final int maxSize;
+
+    public ExpiringCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize pozitif olmalı");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAtMillis));
+        }
+    }
+
+    public void putWithTtl(K key, V value, long ttlMillis) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    // Geçerli bir girdi varsa onu döndürür ve yazmaz; yoksa yazar ve null döndürür
+    public V putIfAbsent(K key, V value, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                return entry.value;
+            }
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+            return null;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    // Girdi yalnızca hâlâ aynı değere bağlıysa silinir
+    public boolean invalidate(K key, V value) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null || entry.value != value) {
+                return false;
+            }
+            entries.remove(key);
+            return true;
+        }
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> predicate.test(entry.value));
+        }
+    }
+
+    // Erişim sırasını değiştirmeyen anlık kopya
+    public List<V> values() {
+        synchronized (entries) {
+            List<V> values = new ArrayList<>(entries.size());
+            entries.values().forEach(entry -> values.add(entry.value));
+            return values;
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
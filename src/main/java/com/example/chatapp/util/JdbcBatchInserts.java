@@ -0,0 +1,50 @@
+package com.example.chatapp.util;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Tek JDBC batch ile INSERT edip üretilen id'leri dönen yardımcı.
+ * Çağıranın transaction'ında (aynı bağlantıda) çalışır.
+ */
+public final class JdbcBatchInserts {
+
+    private JdbcBatchInserts() {
+    }
+
+    /**
+     * Her satır için setter ile parametreleri bağlayıp tek batch çalıştırır.
+     *
+     * @return satırlarla aynı sırada üretilen id'ler
+     */
+    public static <T> long[] insertReturningIds(JdbcTemplate jdbcTemplate, String sql, List<T> rows,
+                                                ParameterizedPreparedStatementSetter<T> setter) {
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+                for (T row : rows) {
+                    setter.setValues(statement, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                // Üretilen id'ler ekleme sırasıyla döner
+                long[] ids = new long[rows.size()];
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < ids.length) {
+                        ids[i++] = keys.getLong(1);
+                    }
+                    if (i != ids.length) {
+                        throw new IllegalStateException("Beklenen " + ids.length + " id, dönen " + i);
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+}
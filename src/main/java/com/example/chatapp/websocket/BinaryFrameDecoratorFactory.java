@@ -0,0 +1,59 @@
+package com.example.chatapp.websocket;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Yerel uç noktaya (/ws-chat-native) bağlanan oturumları işaretler. CBOR seçen oturumlarda STOMP çerçeveleri
+ * ikili WebSocket mesajı olarak gönderilir; Spring yalnızca application/octet-stream gövdeleri ikili gönderdiği
+ * için metin mesajı burada aynı baytlarla ikiliye çevrilir.
+ */
+@Component
+public class BinaryFrameDecoratorFactory implements WebSocketHandlerDecoratorFactory {
+
+    public static final String NATIVE_ENDPOINT = "/ws-chat-native";
+
+    static final String NATIVE_ENDPOINT_ATTRIBUTE = "nativeEndpoint";
+    static final String BINARY_FRAMES_ATTRIBUTE = "binaryFrames";
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                URI uri = session.getUri();
+                if (uri != null && uri.getPath().endsWith(NATIVE_ENDPOINT)) {
+                    session.getAttributes().put(NATIVE_ENDPOINT_ATTRIBUTE, Boolean.TRUE);
+                    session = new BinaryFrameSession(session);
+                }
+                super.afterConnectionEstablished(session);
+            }
+        };
+    }
+
+    private static final class BinaryFrameSession extends WebSocketSessionDecorator {
+
+        private BinaryFrameSession(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            if (message instanceof TextMessage text && Boolean.TRUE.equals(getAttributes().get(BINARY_FRAMES_ATTRIBUTE))) {
+                // TextMessage(byte[]) özgün baytları saklar; kod çözme kaybı yoktur
+                message = new BinaryMessage(text.asBytes(), text.isLast());
+            }
+            super.sendMessage(message);
+        }
+    }
+}
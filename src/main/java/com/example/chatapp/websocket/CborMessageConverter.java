@@ -0,0 +1,19 @@
+package com.example.chatapp.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * content-type: application/cbor olan STOMP gövdelerini çevirir.
+ * Yalnızca başlık açıkça CBOR ise devreye girer; başlıksız mesajlar JSON dönüştürücüsüne kalır.
+ */
+public class CborMessageConverter extends MappingJackson2MessageConverter {
+
+    public static final MimeType APPLICATION_CBOR = new MimeType("application", "cbor");
+
+    public CborMessageConverter(ObjectMapper cborMapper) {
+        super(cborMapper, APPLICATION_CBOR);
+        setStrictContentTypeMatch(true);
+    }
+}
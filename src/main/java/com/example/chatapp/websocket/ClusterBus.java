@@ -0,0 +1,36 @@
+package com.example.chatapp.websocket;
+
+import java.util.function.Consumer;
+
+/**
+ * Uygulama düğümleri arasında noktadan noktaya çerçeve taşıyan veri yolu.
+ * Simple broker yalnızca aynı JVM'e bağlı oturumlara iletir; başka düğümde bağlı alıcılar için
+ * çerçeve, UserNodeRegistry'den bulunan düğüme gönderilir (yayın yapılmaz).
+ * Bellek içi durumu değiştiren olaylar (üyelik, çevrim içi bilgisi, okunmamış sayaçları) ise
+ * ClusterEvent olarak diğer tüm düğümlere yayınlanır.
+ */
+public interface ClusterBus {
+
+    String getNodeId();
+
+    /**
+     * Çerçeveyi verilen düğüme iletir. Düğüm artık yoksa çerçeve düşer (alıcılar yeniden bağlanınca eşitler).
+     */
+    void send(String nodeId, ClusterFrame frame);
+
+    // Bu düğüme gelen çerçeveleri işleyen alıcı
+    void setReceiver(Consumer<ClusterFrame> receiver);
+
+    /**
+     * Olayı bu düğüm dışındaki tüm düğümlere iletir. Ulaşamayan düğümler olayı kaçırır;
+     * dinleyiciler bunu önbellek süresi ya da kalıcı kayıt noktalarıyla telafi eder.
+     */
+    void publish(ClusterEvent event);
+
+    default void publish(ClusterEvent.Type type, long id, long[] userIds, long value) {
+        publish(new ClusterEvent(type, getNodeId(), id, userIds, value));
+    }
+
+    // Diğer düğümlerden gelen olayları dinler; birden fazla dinleyici olabilir
+    void subscribe(Consumer<ClusterEvent> listener);
+}
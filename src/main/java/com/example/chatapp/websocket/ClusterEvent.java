@@ -0,0 +1,29 @@
+package com.example.chatapp.websocket;
+
+/**
+ * Düğümler arasında yayınlanan durum değişikliği. Çerçevelerin aksine belirli alıcılara değil,
+ * kümedeki diğer tüm düğümlere gider; her düğüm kendi bellek içi durumunu (önbellek, sayaç, çevrim içi bilgisi) günceller.
+ * Alanların anlamı türe göre değişir:
+ * <ul>
+ *     <li>CHAT_JOINED / CHAT_LEFT: id sohbet, userIds katılan/ayrılan kullanıcılar</li>
+ *     <li>PRESENCE: userIds kaynak düğümde çevrim içi olan (value 1) ya da olmayan (value 0) kullanıcılar</li>
+ *     <li>PRESENCE_QUERY: yeni katılan düğüm çevrim içi kullanıcıları ister; diğerleri PRESENCE ile cevaplar</li>
+ *     <li>UNREAD_MESSAGE: id sohbet, userIds[0] gönderen, value mesaj id'si</li>
+ *     <li>UNREAD_READ: id sohbet, userIds[0] okuyan, value okunan son mesaj id'si</li>
+ *     <li>FRIENDS_CHANGED: userIds arkadaş kümeleri değişen kullanıcılar</li>
+ *     <li>USER_DISABLED: id silinmek üzere devre dışı bırakılan kullanıcı; önbellekteki principal her düğümde düşer</li>
+ *     <li>USER_REMOVED: id silinen kullanıcı; bellek içi durumları (arkadaş grafı, okunmamış sayaçlar) düşer</li>
+ *     <li>TOKEN_REVOKED: userIds iptal edilen jti (UUID'nin yüksek ve düşük 64 biti); boşsa jti UUID değildir,
+ *     iptal listesi veritabanından yeniden yüklenir</li>
+ *     <li>SESSIONS_REVOKED: value "tüm oturumları kapat" kesim damgası; kesim veritabanından okunur</li>
+ *     <li>SESSIONS_CLOSED: id kullanıcı; userIds boşsa tüm WebSocket oturumları, değilse yalnızca bu jti ile açılanlar kapatılır</li>
+ *     <li>NODE_LEFT: origin düğümü kümeden ayrıldı</li>
+ * </ul>
+ */
+public record ClusterEvent(Type type, String origin, long id, long[] userIds, long value) {
+
+    public enum Type {
+        CHAT_JOINED, CHAT_LEFT, PRESENCE, PRESENCE_QUERY, UNREAD_MESSAGE, UNREAD_READ, FRIENDS_CHANGED, USER_DISABLED, USER_REMOVED,
+        TOKEN_REVOKED, SESSIONS_REVOKED, SESSIONS_CLOSED, NODE_LEFT
+    }
+}
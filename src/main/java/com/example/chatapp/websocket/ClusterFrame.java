@@ -0,0 +1,8 @@
+package com.example.chatapp.websocket;
+
+/**
+ * Düğümler arasında taşınan teslim isteği: önceden serileştirilmiş yük, hedef düğümde
+ * bağlı olan alıcıların id'leri ve kullanıcıya göre çözülecek adres (/queue/messages gibi).
+ */
+public record ClusterFrame(String destination, byte[] payload, String coalesceKey, long[] userIds) {
+}
@@ -0,0 +1,143 @@
+package com.example.chatapp.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Yerel WebSocket uç noktasındaki oturumlar için gövde kodlaması.
+ * İstemci CONNECT çerçevesinde "accept-content-type: application/cbor" gönderirse oturuma giden JSON
+ * MESSAGE çerçeveleri CBOR'a çevrilir ve ikili WebSocket mesajı olarak yollanır. SockJS oturumları JSON kalır.
+ * Aynı yük çok sayıda oturuma dağıtıldığında (fan-out) çeviri bir kez yapılır; farklı yüklerin çerçeveleri
+ * outbound thread'lerinde iç içe geçse de her yük kendi çevirisini bulur.
+ */
+@Component
+public class FrameEncodingInterceptor implements ChannelInterceptor {
+
+    public static final String ACCEPT_CONTENT_TYPE_HEADER = "accept-content-type";
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameEncodingInterceptor.class);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+
+    // CBOR kodlaması seçmiş oturumlar
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+
+    // JSON yük -> CBOR karşılığı. Fan-out'ta aynı byte[] her alıcı oturum için gelir; byte[] kimliğe göre
+    // karşılaştırıldığından anahtar yükün kendisidir ve yük bırakıldığında kayıt da düşer
+    private final Map<byte[], byte[]> transcoded = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Counter transcodedCounter;
+
+    public FrameEncodingInterceptor(MeterRegistry meterRegistry) {
+        this.transcodedCounter = Counter.builder("websocket.outbound.transcoded")
+                .description("JSON'dan CBOR'a çevrilen yükler (önbellekten dönenler hariç)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            negotiate(accessor);
+            return message;
+        }
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                && cborSessions.contains(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()))) {
+            return toCbor(message);
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+
+    public boolean isCborSession(String sessionId) {
+        return cborSessions.contains(sessionId);
+    }
+
+    private void negotiate(StompHeaderAccessor accessor) {
+        String accepted = accessor.getFirstNativeHeader(ACCEPT_CONTENT_TYPE_HEADER);
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (accepted == null || attributes == null || !Boolean.TRUE.equals(attributes.get(BinaryFrameDecoratorFactory.NATIVE_ENDPOINT_ATTRIBUTE))) {
+            return;
+        }
+        if (MimeTypeUtils.parseMimeTypes(accepted).stream().anyMatch(CborMessageConverter.APPLICATION_CBOR::equalsTypeAndSubtype)) {
+            cborSessions.add(accessor.getSessionId());
+            attributes.put(BinaryFrameDecoratorFactory.BINARY_FRAMES_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    private Message<?> toCbor(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[] json) || json.length == 0) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.equalsTypeAndSubtype(contentType)) {
+            return message;
+        }
+        byte[] cbor;
+        try {
+            cbor = transcode(json);
+        } catch (IOException e) {
+            logger.warn("Yük CBOR'a çevrilemedi, JSON gönderiliyor: {}", e.getMessage());
+            return message;
+        }
+        accessor.setContentType(CborMessageConverter.APPLICATION_CBOR);
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    private byte[] transcode(byte[] json) throws IOException {
+        byte[] cbor = transcoded.get(json);
+        if (cbor != null) {
+            return cbor;
+        }
+        // İki thread aynı yükü aynı anda çevirebilir; sonuç aynıdır
+        cbor = jsonToCbor(json);
+        transcoded.put(json, cbor);
+        transcodedCounter.increment();
+        return cbor;
+    }
+
+    // Ağaç kurmadan akış halinde kopyalanır
+    byte[] jsonToCbor(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = jsonFactory.createParser(json);
+             JsonGenerator generator = cborFactory.createGenerator(out)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toByteArray();
+    }
+}
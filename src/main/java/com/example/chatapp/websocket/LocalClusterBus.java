@@ -0,0 +1,60 @@
+package com.example.chatapp.websocket;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * LocalClusterHub'a katılmış bir düğüm. Çerçeveler gönderen thread'de, hedef düğümün alıcısına
+ * doğrudan verilir. Bean olarak kapatıldığında düğüm kümeden ayrılır.
+ */
+public class LocalClusterBus implements ClusterBus, AutoCloseable {
+
+    private final LocalClusterHub hub;
+    private final String nodeId;
+    private volatile Consumer<ClusterFrame> receiver;
+    private final List<Consumer<ClusterEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    LocalClusterBus(LocalClusterHub hub, String nodeId) {
+        this.hub = hub;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void send(String nodeId, ClusterFrame frame) {
+        hub.deliver(nodeId, frame);
+    }
+
+    @Override
+    public void setReceiver(Consumer<ClusterFrame> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void publish(ClusterEvent event) {
+        hub.broadcast(nodeId, event);
+    }
+
+    @Override
+    public void subscribe(Consumer<ClusterEvent> listener) {
+        listeners.add(listener);
+    }
+
+    Consumer<ClusterFrame> receiver() {
+        return receiver;
+    }
+
+    List<Consumer<ClusterEvent>> listeners() {
+        return listeners;
+    }
+
+    @Override
+    public void close() {
+        hub.leave(nodeId);
+    }
+}
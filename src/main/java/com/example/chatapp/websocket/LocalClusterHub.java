@@ -0,0 +1,124 @@
+package com.example.chatapp.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Aynı JVM içindeki düğümleri birbirine bağlayan yerel küme: hem veri yolu hem kullanıcı-düğüm kaydı.
+ * Tek düğümlü çalışmada ve testlerde (aynı JVM'de birden fazla uygulama bağlamı) kullanılır; dış servis gerektirmez.
+ * Aynı isimle alınan hub'lar aynı kümedir. Son düğüm ayrılınca hub isim tablosundan silinir;
+ * kapanan uygulama bağlamları (ör. testler) hub ve kayıtlarını JVM'de bırakmaz.
+ */
+public final class LocalClusterHub implements UserNodeRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalClusterHub.class);
+
+    private static final ConcurrentHashMap<String, LocalClusterHub> HUBS = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    // Düğüm id -> düğüm
+    private final ConcurrentHashMap<String, LocalClusterBus> nodes = new ConcurrentHashMap<>();
+
+    // Kullanıcı id -> oturumu olan düğümler
+    private final ConcurrentHashMap<Long, Set<String>> userNodes = new ConcurrentHashMap<>();
+
+    private LocalClusterHub(String name) {
+        this.name = name;
+    }
+
+    public static LocalClusterHub named(String name) {
+        return HUBS.computeIfAbsent(name, LocalClusterHub::new);
+    }
+
+    public LocalClusterBus join(String nodeId) {
+        LocalClusterBus node = new LocalClusterBus(this, nodeId);
+        // İsim tablosu üzerinden yapılır; son düğümün ayrılmasıyla yarışan katılım silinmiş hub'a düşmez
+        HUBS.compute(name, (key, current) -> {
+            if (current != null && current != this) {
+                throw new IllegalStateException("Küme kapatılmış: " + name);
+            }
+            if (nodes.putIfAbsent(nodeId, node) != null) {
+                throw new IllegalStateException("Düğüm zaten kümede: " + nodeId);
+            }
+            return this;
+        });
+        logger.info("{} düğümü {} kümesine katıldı", nodeId, name);
+        return node;
+    }
+
+    // Ayrılan düğümdeki oturumlar kapanmış sayılır; diğer düğümler NODE_LEFT ile haberdar edilir
+    void leave(String nodeId) {
+        if (nodes.remove(nodeId) == null) {
+            return;
+        }
+        for (Long userId : userNodes.keySet()) {
+            unregister(userId, nodeId);
+        }
+        HUBS.computeIfPresent(name, (key, current) -> current == this && nodes.isEmpty() ? null : current);
+        broadcast(nodeId, new ClusterEvent(ClusterEvent.Type.NODE_LEFT, nodeId, 0, new long[0], 0));
+        logger.info("{} düğümü {} kümesinden ayrıldı", nodeId, name);
+    }
+
+    // Kaynak düğüm dışındaki tüm düğümlerin dinleyicilerine iletilir
+    void broadcast(String originNodeId, ClusterEvent event) {
+        for (LocalClusterBus node : nodes.values()) {
+            if (node.getNodeId().equals(originNodeId)) {
+                continue;
+            }
+            for (Consumer<ClusterEvent> listener : node.listeners()) {
+                try {
+                    listener.accept(event);
+                } catch (Exception e) {
+                    logger.warn("{} düğümünde {} olayı işlenemedi: {}", node.getNodeId(), event.type(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    void deliver(String nodeId, ClusterFrame frame) {
+        LocalClusterBus node = nodes.get(nodeId);
+        Consumer<ClusterFrame> receiver = node != null ? node.receiver() : null;
+        if (receiver == null) {
+            logger.debug("{} düğümü bulunamadı, çerçeve düştü", nodeId);
+            return;
+        }
+        receiver.accept(frame);
+    }
+
+    @Override
+    public void register(long userId, String nodeId) {
+        userNodes.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(nodeId);
+    }
+
+    @Override
+    public void unregister(long userId, String nodeId) {
+        userNodes.computeIfPresent(userId, (id, nodeIds) -> {
+            nodeIds.remove(nodeId);
+            return nodeIds.isEmpty() ? null : nodeIds;
+        });
+    }
+
+    @Override
+    public Map<String, List<Long>> groupByNode(long[] userIds) {
+        Map<String, List<Long>> groups = new HashMap<>();
+        for (long userId : userIds) {
+            Set<String> nodeIds = userNodes.get(userId);
+            if (nodeIds == null) {
+                continue;
+            }
+            for (String nodeId : nodeIds) {
+                groups.computeIfAbsent(nodeId, id -> new ArrayList<>()).add(userId);
+            }
+        }
+        return groups;
+    }
+}
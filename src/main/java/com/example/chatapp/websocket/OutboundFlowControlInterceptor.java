@@ -0,0 +1,220 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.dto.WebSocketSessionStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * clientOutboundChannel üzerinde oturum başına kuyruk sınırı uygular.
+ * Kanala giren her MESSAGE çerçevesi oturumun kuyruğuna sayılır, işlendiğinde düşülür.
+ * <ul>
+ *     <li>"coalesce-key" başlığı taşıyan çerçeveler (çevrim içi durumu, yazıyor bilgisi gibi) atılabilir kabul edilir:
+ *     aynı anahtarla daha yeni bir çerçeve geldiyse eskisi gönderilmeden düşer, kuyruk doluysa yenisi düşer.</li>
+ *     <li>Atılamayan bir çerçeve mesaj ya da bayt sınırını aşarsa istemci yavaş kabul edilir ve bağlantısı kapatılır.</li>
+ * </ul>
+ */
+@Component
+public class OutboundFlowControlInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String COALESCE_KEY_HEADER = "coalesce-key";
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundFlowControlInterceptor.class);
+
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final int maxQueuedMessages;
+    private final long maxQueuedBytes;
+
+    private final ConcurrentHashMap<String, SessionQueue> queues = new ConcurrentHashMap<>();
+
+    private final Counter coalescedCounter;
+    private final Counter overflowCounter;
+    private final Counter slowConsumerCounter;
+
+    public OutboundFlowControlInterceptor(WebSocketSessionRegistry sessionRegistry,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${websocket.outbound.max-queued-messages:500}") int maxQueuedMessages,
+                                          @Value("${websocket.outbound.max-queued-bytes:1048576}") long maxQueuedBytes) {
+        this.sessionRegistry = sessionRegistry;
+        this.maxQueuedMessages = maxQueuedMessages;
+        this.maxQueuedBytes = maxQueuedBytes;
+
+        this.coalescedCounter = Counter.builder("websocket.outbound.dropped")
+                .tag("reason", "coalesced")
+                .description("Daha yenisi geldiği için gönderilmeyen çerçeveler")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("websocket.outbound.dropped")
+                .tag("reason", "overflow")
+                .description("Oturum kuyruğu dolu olduğu için gönderilmeyen çerçeveler")
+                .register(meterRegistry);
+        this.slowConsumerCounter = Counter.builder("websocket.outbound.slow-consumers")
+                .description("Kuyruk sınırını aştığı için kapatılan oturumlar")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued", queues, q -> q.values().stream().mapToInt(s -> s.messages.get()).sum())
+                .description("Tüm oturumlarda gönderilmeyi bekleyen çerçeveler")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.max", queues, q -> q.values().stream().mapToInt(s -> s.messages.get()).max().orElse(0))
+                .description("En dolu oturum kuyruğundaki çerçeve sayısı")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null || sessionRegistry.get(sessionId) == null) {
+            return message;
+        }
+        SessionQueue queue = queues.computeIfAbsent(sessionId, id -> new SessionQueue());
+        String coalesceKey = coalesceKey(message);
+        int size = payloadSize(message);
+
+        if (queue.messages.get() >= maxQueuedMessages || queue.bytes.get() + size > maxQueuedBytes) {
+            if (coalesceKey != null) {
+                queue.dropped.incrementAndGet();
+                overflowCounter.increment();
+                return null;
+            }
+            closeSlowConsumer(sessionId, queue);
+            return null;
+        }
+
+        queue.messages.incrementAndGet();
+        queue.bytes.addAndGet(size);
+        if (coalesceKey != null) {
+            // En son gelen çerçeve hatırlanır; gönderim sırası geldiğinde eski olanlar atlanır
+            queue.latest.put(coalesceKey, message);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (!sent) {
+            // Kanal çerçeveyi kabul etmedi (ör. executor reddetti); kuyruktan düş
+            release(message);
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return message;
+        }
+        String coalesceKey = coalesceKey(message);
+        SessionQueue queue = queues.get(sessionId);
+        if (coalesceKey != null && queue != null && queue.latest.get(coalesceKey) != message) {
+            queue.dropped.incrementAndGet();
+            coalescedCounter.increment();
+            release(message);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        queues.remove(event.getSessionId());
+    }
+
+    /**
+     * Oturum başına anlık kuyruk durumu (yönetim ekranı için).
+     */
+    public List<WebSocketSessionStats> getStats() {
+        return sessionRegistry.getSessions().stream()
+                .map(session -> {
+                    SessionQueue queue = queues.get(session.getId());
+                    String username = session.getPrincipal() != null ? session.getPrincipal().getName() : null;
+                    return queue == null
+                            ? new WebSocketSessionStats(session.getId(), username, 0, 0, 0)
+                            : new WebSocketSessionStats(session.getId(), username,
+                                    queue.messages.get(), queue.bytes.get(), queue.dropped.get());
+                })
+                .toList();
+    }
+
+    private void release(Message<?> message) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return;
+        }
+        SessionQueue queue = queues.get(sessionId);
+        if (queue == null) {
+            return;
+        }
+        queue.messages.decrementAndGet();
+        queue.bytes.addAndGet(-payloadSize(message));
+        String coalesceKey = coalesceKey(message);
+        if (coalesceKey != null) {
+            // Message.equals içerik karşılaştırır; aynı içerikli yeni çerçeveyi silmemek için referans kontrol edilir
+            queue.latest.computeIfPresent(coalesceKey, (key, latest) -> latest == message ? null : latest);
+        }
+    }
+
+    private void closeSlowConsumer(String sessionId, SessionQueue queue) {
+        if (queue.closing.compareAndSet(false, true)) {
+            slowConsumerCounter.increment();
+            logger.warn("Yavaş istemci kapatılıyor: oturum {}, {} çerçeve / {} bayt kuyrukta",
+                    sessionId, queue.messages.get(), queue.bytes.get());
+            sessionRegistry.close(sessionId, CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+
+    // Yalnızca istemciye giden MESSAGE çerçeveleri sayılır (CONNECTED, heartbeat vb. hariç)
+    private static String trackedSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String coalesceKey(Message<?> message) {
+        Object nativeHeaders = message.getHeaders().get(NativeMessageHeaderAccessor.NATIVE_HEADERS);
+        if (nativeHeaders instanceof Map<?, ?> map) {
+            List<String> values = ((Map<String, List<String>>) map).get(COALESCE_KEY_HEADER);
+            if (values != null && !values.isEmpty()) {
+                return values.get(0);
+            }
+        }
+        return null;
+    }
+
+    private static int payloadSize(Message<?> message) {
+        return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+    }
+
+    private static final class SessionQueue {
+        private final AtomicInteger messages = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicBoolean closing = new AtomicBoolean();
+        private final ConcurrentHashMap<String, Message<?>> latest = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.model.AuthenticatedUser;
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.service.PresenceService;
+import com.example.chatapp.service.UserDetailsServiceImpl;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+
+/**
+ * STOMP oturum olaylarını çevrim içi durum servisine aktarır.
+ * Bağlantı kopması (sekme kapanması, tarayıcı çökmesi, heartbeat zaman aşımı) her durumda
+ * SessionDisconnectEvent üretir; böylece durum istemciye bağlı kalmaz.
+ */
+@Component
+public class PresenceEventListener {
+
+    private final PresenceService presenceService;
+    private final UserDetailsServiceImpl userDetailsService;
+
+    public PresenceEventListener(PresenceService presenceService, UserDetailsServiceImpl userDetailsService) {
+        this.presenceService = presenceService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        Principal principal = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (principal == null || sessionId == null) {
+            return;
+        }
+        if (principal instanceof StompPrincipal stompPrincipal) {
+            presenceService.sessionConnected(sessionId, stompPrincipal.getUserId());
+            return;
+        }
+        userDetailsService.findUserByUsername(principal.getName())
+                .filter(AuthenticatedUser.class::isInstance)
+                .map(user -> ((AuthenticatedUser) user).getId())
+                .ifPresent(userId -> presenceService.sessionConnected(sessionId, userId));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        presenceService.sessionDisconnected(event.getSessionId());
+    }
+}
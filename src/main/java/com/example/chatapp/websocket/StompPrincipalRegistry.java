@@ -0,0 +1,115 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.model.StompPrincipal;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Bağlı STOMP oturumlarının principal'larını kullanıcı id'sine göre tutar.
+ * Sohbet üyeliği değişiklikleri buradan bağlı oturumların kopyalarına işlenir.
+ * Kullanıcının bu düğümdeki ilk oturumu açılınca ve son oturumu kapanınca UserNodeRegistry güncellenir.
+ */
+@Component
+public class StompPrincipalRegistry {
+
+    // Kullanıcı id -> (oturum id -> principal); bir kullanıcının birden fazla cihazı olabilir
+    private final ConcurrentHashMap<Long, Map<String, StompPrincipal>> principals = new ConcurrentHashMap<>();
+
+    // Oturum id -> kullanıcı id
+    private final ConcurrentHashMap<String, Long> sessions = new ConcurrentHashMap<>();
+
+    private final UserNodeRegistry userNodeRegistry;
+    private final String nodeId;
+
+    public StompPrincipalRegistry(UserNodeRegistry userNodeRegistry, ClusterBus clusterBus) {
+        this.userNodeRegistry = userNodeRegistry;
+        this.nodeId = clusterBus.getNodeId();
+    }
+
+    public void register(String sessionId, StompPrincipal principal) {
+        sessions.put(sessionId, principal.getUserId());
+        principals.compute(principal.getUserId(), (id, bySession) -> {
+            if (bySession == null) {
+                bySession = new ConcurrentHashMap<>();
+                userNodeRegistry.register(id, nodeId);
+            }
+            bySession.put(sessionId, principal);
+            return bySession;
+        });
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Long userId = sessions.remove(event.getSessionId());
+        if (userId == null) {
+            return;
+        }
+        principals.computeIfPresent(userId, (id, bySession) -> {
+            bySession.remove(event.getSessionId());
+            if (!bySession.isEmpty()) {
+                return bySession;
+            }
+            userNodeRegistry.unregister(id, nodeId);
+            return null;
+        });
+    }
+
+    // Kullanıcı bağlıysa kullanıcı adı, değilse null
+    public String getOnlineUsername(Long userId) {
+        Map<String, StompPrincipal> bySession = principals.get(userId);
+        if (bySession == null) {
+            return null;
+        }
+        for (StompPrincipal principal : bySession.values()) {
+            return principal.getName();
+        }
+        return null;
+    }
+
+    // Kullanıcının bu düğümdeki açık oturumları
+    public List<String> getSessionIds(Long userId) {
+        Map<String, StompPrincipal> bySession = principals.get(userId);
+        return bySession == null ? List.of() : List.copyOf(bySession.keySet());
+    }
+
+    // Kullanıcının bu düğümde verilen token ile açtığı oturumlar; tokenId null ise tüm oturumları
+    public List<String> getSessionIds(Long userId, String tokenId) {
+        if (tokenId == null) {
+            return getSessionIds(userId);
+        }
+        Map<String, StompPrincipal> bySession = principals.get(userId);
+        if (bySession == null) {
+            return List.of();
+        }
+        List<String> sessionIds = new ArrayList<>();
+        bySession.forEach((sessionId, principal) -> {
+            if (tokenId.equals(principal.getTokenId())) {
+                sessionIds.add(sessionId);
+            }
+        });
+        return sessionIds;
+    }
+
+    public void chatJoined(Collection<Long> userIds, Long chatId) {
+        userIds.forEach(userId -> update(userId, principal -> principal.addChat(chatId)));
+    }
+
+    public void chatLeft(Long userId, Long chatId) {
+        update(userId, principal -> principal.removeChat(chatId));
+    }
+
+    private void update(Long userId, Consumer<StompPrincipal> change) {
+        Map<String, StompPrincipal> bySession = principals.get(userId);
+        if (bySession != null) {
+            bySession.values().forEach(change);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.chatapp.websocket;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hangi kullanıcının hangi düğümlerde bağlı oturumu olduğunu tutar.
+ * Bir düğüm kullanıcının orada ilk oturumu açılınca kaydeder, son oturumu kapanınca siler.
+ */
+public interface UserNodeRegistry {
+
+    void register(long userId, String nodeId);
+
+    void unregister(long userId, String nodeId);
+
+    /**
+     * Alıcıları bağlı oldukları düğümlere göre gruplar; hiçbir düğümde bağlı olmayanlar dönmez.
+     * Birden fazla düğümde oturumu olan kullanıcı her grupta yer alır. Tek çağrıda çözülür
+     * (uzak bir kayıt deposunda alıcı başına ayrı istek yapılmasın diye).
+     */
+    Map<String, List<Long>> groupByNode(long[] userIds);
+}
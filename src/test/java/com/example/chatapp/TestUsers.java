@@ -0,0 +1,32 @@
+package com.example.chatapp;
+
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.UserRepository;
+
+import java.util.UUID;
+
+/**
+ * Testlerin ortak kullanıcı fabrikası. Testler aynı veritabanını paylaştığı için her kullanıcı
+ * önek + rastgele son ekle benzersiz bir ad alır.
+ */
+public final class TestUsers {
+
+    // BCrypt biçiminde ama hiçbir şifreyle eşleşmeyen sabit hash
+    public static final String PASSWORD_HASH = "$2a$10$abcdefghijklmnopqrstuv";
+
+    private TestUsers() {
+    }
+
+    public static String uniqueUsername(String prefix) {
+        return prefix + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public static User newUser(String username) {
+        return new User("Deneme", "Kullanici", username, PASSWORD_HASH, username + "@test.com", Role.USER, false, null, "bio");
+    }
+
+    public static User save(UserRepository userRepository, String prefix) {
+        return userRepository.save(newUser(uniqueUsername(prefix)));
+    }
+}
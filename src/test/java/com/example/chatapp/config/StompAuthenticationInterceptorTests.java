@@ -0,0 +1,130 @@
+package com.example.chatapp.config;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class StompAuthenticationInterceptorTests {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Autowired
+    private StompAuthenticationInterceptor interceptor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private User user;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.save(userRepository, "s");
+        chat = chatRepository.save(new Chat(null, Set.of(user)));
+    }
+
+    @Test
+    void connectBindsPrincipalWithMembershipSnapshot() {
+        StompHeaderAccessor accessor = accessor(StompCommand.CONNECT);
+        String token = jwtService.generateToken(user.getUsername(), Role.USER);
+        accessor.setNativeHeader("Authorization", "Bearer " + token);
+
+        interceptor.preSend(message(accessor), channel);
+
+        assertThat(accessor.getUser()).isInstanceOf(StompPrincipal.class);
+        StompPrincipal principal = (StompPrincipal) accessor.getUser();
+        assertThat(principal.getUserId()).isEqualTo(user.getId());
+        assertThat(principal.isChatMember(chat.getId())).isTrue();
+        // Çıkışta bu token ile açılan oturum bulunabilsin
+        assertThat(principal.getTokenId()).isEqualTo(jwtService.validateToken(token).getId());
+    }
+
+    @Test
+    void connectWithoutValidTokenIsRejected() {
+        StompHeaderAccessor missing = accessor(StompCommand.CONNECT);
+        assertThatThrownBy(() -> interceptor.preSend(message(missing), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        StompHeaderAccessor forged = accessor(StompCommand.CONNECT);
+        forged.setNativeHeader("Authorization", "Bearer not-a-token");
+        assertThatThrownBy(() -> interceptor.preSend(message(forged), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void sendAndSubscribeRequireAuthenticatedSession() {
+        StompHeaderAccessor send = accessor(StompCommand.SEND);
+        send.setDestination("/app/chat.send");
+        assertThatThrownBy(() -> interceptor.preSend(message(send), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        StompHeaderAccessor subscribe = accessor(StompCommand.SUBSCRIBE);
+        subscribe.setUser(new StompPrincipal(user.getId(), user.getUsername(), Set.of()));
+        subscribe.setDestination("/queue/messages-userabc");
+        assertThatThrownBy(() -> interceptor.preSend(message(subscribe), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void sendIsOnlyAllowedToApplicationDestinations() {
+        StompPrincipal principal = new StompPrincipal(user.getId(), user.getUsername(), Set.of());
+
+        // Başka kullanıcının kuyruğuna doğrudan gönderim
+        StompHeaderAccessor toOtherUser = accessor(StompCommand.SEND);
+        toOtherUser.setUser(principal);
+        toOtherUser.setDestination("/user/baskasi/queue/messages");
+        assertThatThrownBy(() -> interceptor.preSend(message(toOtherUser), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        StompHeaderAccessor toSessionQueue = accessor(StompCommand.SEND);
+        toSessionQueue.setUser(principal);
+        toSessionQueue.setDestination("/queue/messages-userabc");
+        assertThatThrownBy(() -> interceptor.preSend(message(toSessionQueue), channel))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        StompHeaderAccessor toApp = accessor(StompCommand.SEND);
+        toApp.setUser(principal);
+        toApp.setDestination("/app/chat.send");
+        assertThat(interceptor.preSend(message(toApp), channel)).isNotNull();
+    }
+
+    private static StompHeaderAccessor accessor(StompCommand command) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(UUID.randomUUID().toString());
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+
+    private static Message<byte[]> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
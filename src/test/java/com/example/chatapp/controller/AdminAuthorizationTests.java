@@ -0,0 +1,116 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Admin;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.AdminRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rol claim'inin token'ı doğru depoya yönlendirdiğini ve admin işlemlerinin yalnızca ADMIN rolüyle yapılabildiğini doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminAuthorizationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private String username;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        username = TestUsers.uniqueUsername("a");
+        user = userRepository.save(TestUsers.newUser(username));
+    }
+
+    @Test
+    void userTokenForAdminNameCannotCallAdminEndpoints() throws Exception {
+        // Aynı adla hem kullanıcı hem admin kaydı var; USER token'ı kullanıcı olarak doğrulanır ama admin yetkisi almaz
+        saveAdmin(username);
+
+        mockMvc.perform(get("/admin/websocket/sessions")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(username, Role.USER)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin/users")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(username, Role.USER)))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/admin/websocket/sessions")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(username, Role.ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void roleClaimSelectsPrincipalStore() throws Exception {
+        String adminName = TestUsers.uniqueUsername("a");
+        saveAdmin(adminName);
+
+        // USER token'ı yalnızca kullanıcı deposuna, ADMIN token'ı yalnızca admin deposuna bakar
+        mockMvc.perform(get("/user/profile")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(username, Role.USER)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/user/profile")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(username, Role.ADMIN)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/websocket/sessions")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(adminName, Role.USER)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/admin/websocket/sessions")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(adminName, Role.ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void evictForcesPrincipalReload() throws Exception {
+        String token = jwtService.generateToken(username, Role.USER);
+        mockMvc.perform(get("/user/profile").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // Veritabanındaki değişiklik önbellekteki principal'ı etkilemez
+        user.setDisabledAt(LocalDateTime.now());
+        userRepository.save(user);
+        assertThat(userDetailsService.findUserByUsername(username)).isPresent();
+
+        // Düşürüldükten sonra principal yeniden yüklenir ve devre dışı kullanıcı reddedilir
+        userDetailsService.evict(username);
+        assertThat(userDetailsService.findUserByUsername(username)).isEmpty();
+        mockMvc.perform(get("/user/profile").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private void saveAdmin(String name) {
+        Admin admin = new Admin();
+        admin.setUsername(name);
+        admin.setPassword("sifre");
+        adminRepository.save(admin);
+    }
+}
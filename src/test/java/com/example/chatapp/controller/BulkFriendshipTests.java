@@ -0,0 +1,104 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.FriendGraphService;
+import com.example.chatapp.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Toplu istek gönderme ve toplu kabul/ret uçlarının kayıt başına sonuç döndüğünü doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BulkFriendshipTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private FriendGraphService friendGraphService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void sendsAndAnswersRequestsInBulk() throws Exception {
+        User sender = saveUser();
+        User first = saveUser();
+        User second = saveUser();
+        User alreadyAsked = saveUser();
+        friendshipRepository.save(new Friendship(sender, alreadyAsked));
+
+        JsonNode sent = perform(sender, "/friendship/request/bulk", "{\"receiverIds\":[" + first.getId() + ","
+                + second.getId() + "," + first.getId() + "," + sender.getId() + "," + alreadyAsked.getId() + ",999999]}");
+        assertThat(sent).hasSize(5);
+        assertThat(sent.get(0).get("success").asBoolean()).isTrue();
+        assertThat(sent.get(1).get("success").asBoolean()).isTrue();
+        assertThat(sent.get(2).get("error").asText()).isEqualTo("Kendinize arkadaşlık isteği gönderemezsiniz");
+        assertThat(sent.get(3).get("error").asText()).isEqualTo("Bu kullanıcı ile zaten bir arkadaşlık ilişkiniz var");
+        assertThat(sent.get(4).get("error").asText()).isEqualTo("Kullanıcı bulunamadı");
+        long firstRequest = sent.get(0).get("friendshipId").asLong();
+        long secondRequest = sent.get(1).get("friendshipId").asLong();
+        assertThat(friendshipRepository.findById(firstRequest)).get()
+                .extracting(Friendship::getStatus).isEqualTo(Friendship.FriendshipStatus.PENDING);
+
+        // İkinci kullanıcıya ait istek birinci kullanıcı tarafından yanıtlanamaz
+        JsonNode accepted = perform(first, "/friendship/bulk",
+                "{\"action\":\"ACCEPT\",\"friendshipIds\":[" + firstRequest + "," + secondRequest + "]}");
+        assertThat(accepted.get(0).get("success").asBoolean()).isTrue();
+        assertThat(accepted.get(1).get("error").asText()).isEqualTo("Bu isteği yanıtlamaya yetkiniz yok");
+        assertThat(friendGraphService.areFriends(sender.getId(), first.getId())).isTrue();
+
+        JsonNode rejected = perform(second, "/friendship/bulk",
+                "{\"action\":\"REJECT\",\"friendshipIds\":[" + secondRequest + "," + secondRequest + "]}");
+        assertThat(rejected).hasSize(1);
+        assertThat(rejected.get(0).get("success").asBoolean()).isTrue();
+        assertThat(friendshipRepository.findById(secondRequest)).get()
+                .extracting(Friendship::getStatus).isEqualTo(Friendship.FriendshipStatus.REJECTED);
+
+        JsonNode again = perform(first, "/friendship/bulk",
+                "{\"action\":\"REJECT\",\"friendshipIds\":[" + firstRequest + "]}");
+        assertThat(again.get(0).get("error").asText()).isEqualTo("Sadece bekleyen istekler yanıtlanabilir");
+    }
+
+    private JsonNode perform(User user, String url, String body) throws Exception {
+        String token = jwtService.generateToken(user.getUsername(), Role.USER);
+        String response = mockMvc.perform(post(url)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "b");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.ChatMessageBatcher;
+import com.example.chatapp.service.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sohbet geçmişinin before/limit ile eksiksiz ve tekrarsız sayfalandığını doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChatHistoryTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User member;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        member = saveUser();
+        chat = chatRepository.save(new Chat(null, Set.of(member)));
+    }
+
+    @Test
+    void pagesThroughHistoryNewestFirst() throws Exception {
+        List<CompletableFuture<Long>> sent = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            sent.add(chatMessageBatcher.submit(chat.getId(), member.getId(), "mesaj " + i, LocalDateTime.now()));
+        }
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        String token = jwtService.generateToken(member.getUsername(), Role.USER);
+        List<Long> seen = new ArrayList<>();
+        Long before = null;
+        int pages = 0;
+        do {
+            String url = "/chats/" + chat.getId() + "/messages?limit=10" + (before != null ? "&before=" + before : "");
+            String body = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("messages").forEach(m -> seen.add(m.get("id").asLong()));
+            before = page.get("nextBefore").isNull() ? null : page.get("nextBefore").asLong();
+            pages++;
+        } while (before != null);
+
+        List<Long> expected = new ArrayList<>(sent.stream().map(CompletableFuture::join).toList());
+        expected.sort((a, b) -> Long.compare(b, a));
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void nonParticipantCannotReadHistory() throws Exception {
+        User outsider = saveUser();
+        String token = jwtService.generateToken(outsider.getUsername(), Role.USER);
+        mockMvc.perform(get("/chats/" + chat.getId() + "/messages").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "h");
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.UserDetailsServiceImpl;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Her endpoint'in oturum açmış kullanıcı için en fazla bir kullanıcı sorgusu yaptığını doğrular.
+ * Principal önbelleği hem boşken hem doluyken denenir.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.chatapp.controller.CurrentUserLookupTests$UserLookupCounter")
+@AutoConfigureMockMvc
+class CurrentUserLookupTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    private String username;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        username = TestUsers.uniqueUsername("u");
+        userRepository.save(TestUsers.newUser(username));
+        token = jwtService.generateToken(username, Role.USER);
+    }
+
+    @Test
+    void getProfileLooksUpUserAtMostOnce() throws Exception {
+        assertAtMostOneUserLookup(get("/user/profile"));
+    }
+
+    @Test
+    void updateProfileLooksUpUserAtMostOnce() throws Exception {
+        assertAtMostOneUserLookup(put("/user/profile")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"yeni bio\"}"));
+    }
+
+    @Test
+    void uploadProfileImageLooksUpUserAtMostOnce() throws Exception {
+        MockMultipartFile image = new MockMultipartFile("image", "avatar.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        assertAtMostOneUserLookup(multipart("/user/upload-profile-image").file(image));
+    }
+
+    @Test
+    void updateStatusLooksUpUserAtMostOnce() throws Exception {
+        assertAtMostOneUserLookup(put("/user/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"isOnline\":true}"));
+    }
+
+    @Test
+    void friendListLooksUpUserAtMostOnce() throws Exception {
+        assertAtMostOneUserLookup(get("/friendship/list"));
+    }
+
+    @Test
+    void searchLooksUpUserAtMostOnce() throws Exception {
+        assertAtMostOneUserLookup(get("/friendship/search").param("query", "zzz"));
+    }
+
+    private void assertAtMostOneUserLookup(MockHttpServletRequestBuilder request) throws Exception {
+        // Principal önbelleği boş: filtre kullanıcıyı yükler, controller aynı entity'yi kullanır
+        userDetailsService.evict(username);
+        UserLookupCounter.reset();
+        mockMvc.perform(request.header("Authorization", "Bearer " + token)).andExpect(status().is2xxSuccessful());
+        assertThat(UserLookupCounter.count()).as("soğuk önbellek").isLessThanOrEqualTo(1);
+
+        // Principal önbellekte: yalnızca controller için tek sorgu
+        UserLookupCounter.reset();
+        mockMvc.perform(request.header("Authorization", "Bearer " + token)).andExpect(status().is2xxSuccessful());
+        assertThat(UserLookupCounter.count()).as("sıcak önbellek").isLessThanOrEqualTo(1);
+    }
+
+    // users tablosunda id veya kullanıcı adına göre yapılan tekil sorguları sayar
+    public static class UserLookupCounter implements StatementInspector {
+
+        private static final Pattern USER_LOOKUP =
+                Pattern.compile("from users (\\w+) where \\1\\.(id|username)=\\?$", Pattern.CASE_INSENSITIVE);
+        private static final AtomicInteger COUNT = new AtomicInteger();
+
+        @Override
+        public String inspect(String sql) {
+            if (USER_LOOKUP.matcher(sql.trim()).find()) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+
+        static void reset() {
+            COUNT.set(0);
+        }
+
+        static int count() {
+            return COUNT.get();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.PresenceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Arkadaş listesinin kovalara ayrıldığını ve imleçle eksiksiz, tekrarsız sayfalandığını doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FriendListTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void splitsFriendshipsIntoBuckets() throws Exception {
+        User me = saveUser();
+        User acceptedByMe = saveUser();
+        User acceptedMine = saveUser();
+        User outgoing = saveUser();
+        User incoming = saveUser();
+        User rejected = saveUser();
+
+        saveFriendship(acceptedByMe, me, Friendship.FriendshipStatus.ACCEPTED);
+        saveFriendship(me, acceptedMine, Friendship.FriendshipStatus.ACCEPTED);
+        saveFriendship(me, outgoing, Friendship.FriendshipStatus.PENDING);
+        saveFriendship(incoming, me, Friendship.FriendshipStatus.PENDING);
+        saveFriendship(rejected, me, Friendship.FriendshipStatus.REJECTED);
+        // Başka kullanıcılar arasındaki ilişki listeye girmemeli
+        saveFriendship(outgoing, incoming, Friendship.FriendshipStatus.ACCEPTED);
+
+        String token = jwtService.generateToken(me.getUsername(), Role.USER);
+        String body = mockMvc.perform(get("/friendship/list").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode list = objectMapper.readTree(body);
+
+        JsonNode friends = list.get("friends");
+        assertThat(friends).hasSize(2);
+        assertThat(friends.findValuesAsText("status")).containsOnly("ACCEPTED");
+        // En son güncellenen önce
+        assertThat(friends.get(0).get("friend").get("username").asText()).isEqualTo(acceptedMine.getUsername());
+        assertThat(friends.get(1).get("friend").get("username").asText()).isEqualTo(acceptedByMe.getUsername());
+        assertThat(friends.get(0).get("requester").get("isim").asText()).isEqualTo(me.getIsim());
+        assertThat(list.get("friendsTotal").asLong()).isEqualTo(2);
+        assertThat(list.get("friendsNextCursor").isNull()).isTrue();
+
+        JsonNode pending = list.get("pendingRequests");
+        assertThat(pending).hasSize(1);
+        assertThat(pending.get(0).get("receiver").get("id").asLong()).isEqualTo(outgoing.getId());
+        assertThat(pending.get(0).get("friend").isNull()).isTrue();
+
+        JsonNode received = list.get("receivedRequests");
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).get("requester").get("id").asLong()).isEqualTo(incoming.getId());
+        assertThat(list.get("receivedRequestsTotal").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void pagesThroughFriendsOnlineFirst() throws Exception {
+        User me = saveUser();
+        List<User> friends = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User friend = saveUser();
+            saveFriendship(me, friend, Friendship.FriendshipStatus.ACCEPTED);
+            friends.add(friend);
+        }
+        for (int i = 0; i < 3; i++) {
+            saveFriendship(saveUser(), me, Friendship.FriendshipStatus.PENDING);
+        }
+        // İlk ve dördüncü arkadaş çevrim içi
+        presenceService.setStatus(friends.get(0).getId(), true);
+        presenceService.setStatus(friends.get(3).getId(), true);
+        try {
+            String token = jwtService.generateToken(me.getUsername(), Role.USER);
+            JsonNode first = objectMapper.readTree(mockMvc.perform(get("/friendship/list").param("limit", "2")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(first.get("friendsTotal").asLong()).isEqualTo(5);
+            assertThat(first.get("receivedRequestsTotal").asLong()).isEqualTo(3);
+            assertThat(first.get("receivedRequests")).hasSize(2);
+
+            List<Long> seen = new ArrayList<>();
+            first.get("friends").forEach(f -> seen.add(f.get("friend").get("id").asLong()));
+            String cursor = first.get("friendsNextCursor").asText();
+            while (cursor != null) {
+                JsonNode page = objectMapper.readTree(mockMvc.perform(get("/friendship/list/friends")
+                                .param("limit", "2").param("cursor", cursor)
+                                .header("Authorization", "Bearer " + token))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+                page.get("items").forEach(f -> seen.add(f.get("friend").get("id").asLong()));
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            }
+
+            // Önce çevrim içiler (id sırasıyla), sonra diğerleri en son eklenenden başlayarak
+            assertThat(seen).containsExactly(friends.get(0).getId(), friends.get(3).getId(),
+                    friends.get(4).getId(), friends.get(2).getId(), friends.get(1).getId());
+        } finally {
+            presenceService.setStatus(friends.get(0).getId(), false);
+            presenceService.setStatus(friends.get(3).getId(), false);
+        }
+    }
+
+    @Test
+    void answeredRequestsAreOrderedByAnswerTime() throws Exception {
+        User me = saveUser();
+        List<Long> requests = new ArrayList<>();
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User requester = saveUser();
+            requesters.add(requester);
+            requests.add(friendshipRepository.save(new Friendship(requester, me)).getId());
+        }
+        String token = jwtService.generateToken(me.getUsername(), Role.USER);
+
+        // Sırayla: ikinci tekli, üçüncü toplu, birinci tekli kabul edilir
+        JsonNode accepted = accept(token, "/friendship/accept", "{\"friendshipId\":" + requests.get(1) + "}");
+        accept(token, "/friendship/bulk", "{\"action\":\"ACCEPT\",\"friendshipIds\":[" + requests.get(2) + "]}");
+        accept(token, "/friendship/accept", "{\"friendshipId\":" + requests.get(0) + "}");
+
+        List<Long> seen = new ArrayList<>();
+        List<String> updatedAt = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/friendship/list/friends").param("order", "recent").param("limit", "1")
+                    .header("Authorization", "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(f -> {
+                seen.add(f.get("friend").get("id").asLong());
+                updatedAt.add(f.get("updatedAt").asText());
+            });
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(requesters.get(0).getId(), requesters.get(2).getId(), requesters.get(1).getId());
+        // Yanıttaki zaman tablodakiyle aynıdır
+        assertThat(accepted.get("updatedAt").asText()).isEqualTo(updatedAt.get(2));
+    }
+
+    @Test
+    void recentOrderMergesBothSides() throws Exception {
+        User me = saveUser();
+        List<User> friends = new ArrayList<>();
+        List<Long> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            User other = saveUser();
+            friends.add(other);
+            // Çift sıradakilere ben, tek sıradakiler bana istek gönderir
+            Friendship request = i % 2 == 0 ? new Friendship(me, other) : new Friendship(other, me);
+            requests.add(friendshipRepository.save(request).getId());
+        }
+
+        // Kabul sırası iki tarafı karıştırır: 2 (onlar), 1 (ben), 3 (ben), 0 (onlar)
+        for (int i : new int[]{2, 1, 3, 0}) {
+            User receiver = i % 2 == 0 ? friends.get(i) : me;
+            accept(jwtService.generateToken(receiver.getUsername(), Role.USER), "/friendship/accept",
+                    "{\"friendshipId\":" + requests.get(i) + "}");
+        }
+        String token = jwtService.generateToken(me.getUsername(), Role.USER);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/friendship/list/friends").param("order", "recent").param("limit", "1")
+                    .header("Authorization", "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(f -> seen.add(f.get("friend").get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(friends.get(0).getId(), friends.get(3).getId(),
+                friends.get(1).getId(), friends.get(2).getId());
+    }
+
+    private JsonNode accept(String token, String url, String body) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post(url).header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    @Test
+    void rejectsUnknownBucketAndCursor() throws Exception {
+        String token = jwtService.generateToken(saveUser().getUsername(), Role.USER);
+        mockMvc.perform(get("/friendship/list/blocked").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/friendship/list/friends").param("cursor", "bozuk!")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void saveFriendship(User requester, User receiver, Friendship.FriendshipStatus status) {
+        Friendship friendship = new Friendship(requester, receiver);
+        friendship.setStatus(status);
+        friendshipRepository.save(friendship);
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "f");
+    }
+}
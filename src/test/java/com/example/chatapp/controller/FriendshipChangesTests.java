@@ -0,0 +1,162 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.PresenceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Arkadaşlık sürümünün ETag ile 304 döndürdüğünü ve /friendship/changes'in yalnızca
+ * verilen sürümden sonraki değişiklikleri döndürdüğünü doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FriendshipChangesTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listIsNotModifiedUntilFriendshipsChange() throws Exception {
+        User owner = saveUser();
+        User other = saveUser();
+
+        String etag = mockMvc.perform(get("/friendship/list").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/friendship/list").header("Authorization", bearer(owner)).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        sendRequest(other, owner);
+
+        String changed = mockMvc.perform(get("/friendship/list").header("Authorization", bearer(owner))
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void listIsModifiedWhenCounterpartProfileOrPresenceChanges() throws Exception {
+        User owner = saveUser();
+        User requester = saveUser();
+        sendRequest(requester, owner);
+        String etag = listEtag(owner);
+
+        // Alınan istekteki kişi çevrim içi olur
+        presenceService.setStatus(requester.getId(), true);
+        try {
+            String online = listEtag(owner);
+            assertThat(online).isNotEqualTo(etag);
+
+            // Aynı kişi profil fotoğrafını değiştirir
+            requester.setProfileImageUrl("/user/images/yeni.png");
+            requester.setUpdatedAt(LocalDateTime.now().plusSeconds(1));
+            userRepository.save(requester);
+            assertThat(listEtag(owner)).isNotEqualTo(online);
+        } finally {
+            presenceService.setStatus(requester.getId(), false);
+        }
+    }
+
+    @Test
+    void returnsOnlyChangesSinceVersion() throws Exception {
+        User owner = saveUser();
+        User first = saveUser();
+        User second = saveUser();
+
+        long requestId = sendRequest(owner, first);
+        JsonNode initial = changes(owner, 0);
+        assertThat(initial.get("changes")).hasSize(1);
+        assertThat(initial.get("changes").get(0).get("type").asText()).isEqualTo("ADDED");
+        assertThat(initial.get("changes").get(0).get("friendship").get("friend").get("id").asLong())
+                .isEqualTo(first.getId());
+        long version = initial.get("version").asLong();
+
+        // Karşı taraf da aynı değişikliği kendi günlüğünde görür
+        assertThat(changes(first, 0).get("changes").get(0).get("friendshipId").asLong()).isEqualTo(requestId);
+
+        mockMvc.perform(post("/friendship/accept").header("Authorization", bearer(first))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"friendshipId\":" + requestId + "}"))
+                .andExpect(status().isOk());
+        long secondRequest = sendRequest(owner, second);
+        mockMvc.perform(delete("/friendship/cancel/" + secondRequest).header("Authorization", bearer(owner)))
+                .andExpect(status().isOk());
+
+        JsonNode since = changes(owner, version);
+        assertThat(since.get("changes")).hasSize(2);
+        JsonNode accepted = since.get("changes").get(0);
+        assertThat(accepted.get("type").asText()).isEqualTo("UPDATED");
+        assertThat(accepted.get("status").asText()).isEqualTo("ACCEPTED");
+        JsonNode cancelled = since.get("changes").get(1);
+        assertThat(cancelled.get("type").asText()).isEqualTo("DELETED");
+        assertThat(cancelled.get("friendshipId").asLong()).isEqualTo(secondRequest);
+        assertThat(cancelled.get("friendship").isNull()).isTrue();
+
+        assertThat(changes(owner, since.get("version").asLong()).get("changes")).isEmpty();
+    }
+
+    private long sendRequest(User requester, User receiver) throws Exception {
+        String response = mockMvc.perform(post("/friendship/request").header("Authorization", bearer(requester))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"receiverId\":" + receiver.getId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private String listEtag(User user) throws Exception {
+        return mockMvc.perform(get("/friendship/list").header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private JsonNode changes(User user, long since) throws Exception {
+        String response = mockMvc.perform(get("/friendship/changes").param("since", String.valueOf(since))
+                        .header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtService.generateToken(user.getUsername(), Role.USER);
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "c");
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.chatapp.controller;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.repository.SyncCursorRepository;
+import com.example.chatapp.service.ChatMessageBatcher;
+import com.example.chatapp.service.JwtService;
+import com.example.chatapp.service.SyncService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Eşitlemenin tüm sohbetlerdeki yeni mesajları sayfalı döndüğünü, sunucu imlecinin cihaz başına ilerlediğini
+ * ve canlı teslim onaylarıyla da ilerlediğini doğrular. Sonraki id, önceki id'nin batch'i commit olmadan görünmez.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SyncTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private SyncCursorRepository syncCursorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private User member;
+    private String token;
+    private List<Long> sent;
+    private Chat first;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        member = saveUser();
+        User other = saveUser();
+        first = chatRepository.save(new Chat(null, Set.of(member, other)));
+        Chat second = chatRepository.save(new Chat("grup", Set.of(member)));
+        Chat foreign = chatRepository.save(new Chat(null, Set.of(other)));
+        token = jwtService.generateToken(member.getUsername(), Role.USER);
+
+        sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            sent.add(send(first, other));
+            send(foreign, other);
+            sent.add(send(second, member));
+        }
+    }
+
+    @Test
+    void clientCursorReturnsOnlyNewerMessagesAcrossChats() throws Exception {
+        JsonNode page = sync("?since=" + sent.get(3) + "&limit=4");
+        assertThat(ids(page)).containsExactlyElementsOf(sent.subList(4, 8));
+        assertThat(page.get("hasMore").asBoolean()).isTrue();
+
+        page = sync("?since=" + page.get("cursor").asLong() + "&limit=4");
+        assertThat(ids(page)).containsExactlyElementsOf(sent.subList(8, 10));
+        assertThat(page.get("hasMore").asBoolean()).isFalse();
+    }
+
+    @Test
+    void serverCursorResumesWhereLastSyncStopped() throws Exception {
+        assertThat(ids(sync("?limit=6"))).containsExactlyElementsOf(sent.subList(0, 6));
+        assertThat(ids(sync("?limit=6"))).containsExactlyElementsOf(sent.subList(6, 10));
+        assertThat(ids(sync(""))).isEmpty();
+    }
+
+    @Test
+    void eachDeviceHasItsOwnCursor() throws Exception {
+        assertThat(ids(sync("?limit=6", "telefon"))).containsExactlyElementsOf(sent.subList(0, 6));
+        assertThat(ids(sync("?limit=20", "tablet"))).containsExactlyElementsOf(sent);
+        assertThat(ids(sync("?limit=20", "telefon"))).containsExactlyElementsOf(sent.subList(6, 10));
+    }
+
+    @Test
+    void acknowledgedLiveMessagesAreNotReplayed() throws Exception {
+        // İlk sohbetin mesajları canlı alınıp onaylandı; eski bir onay imleci geri almaz
+        syncService.acknowledge(member.getId(), "telefon", first.getId(), sent.get(8));
+        syncService.acknowledge(member.getId(), "telefon", first.getId(), sent.get(2));
+
+        assertThat(ids(sync("?limit=20", "telefon")))
+                .containsExactly(sent.get(1), sent.get(3), sent.get(5), sent.get(7), sent.get(9));
+    }
+
+    @Test
+    void concurrentFirstAcknowledgementsKeepOneCursor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i += 2) {
+                long messageId = sent.get(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    syncService.acknowledge(member.getId(), "saat", first.getId(), messageId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(syncCursorRepository.findByUserIdAndDeviceId(member.getId(), "saat"))
+                .singleElement()
+                .satisfies(cursor -> assertThat(cursor.getLastMessageId()).isEqualTo(sent.get(8)));
+    }
+
+    @Test
+    void laterIdIsNotVisibleBeforeEarlierBatchCommits() throws Exception {
+        assertThat(ids(sync("?limit=20", "telefon"))).containsExactlyElementsOf(sent);
+
+        long earlier;
+        CompletableFuture<Long> later;
+        try (Connection otherNode = dataSource.getConnection()) {
+            // Başka bir düğümün batch'i gibi: kilit alındı, id alındı ama commit edilmedi
+            otherNode.setAutoCommit(false);
+            earlier = insertLocked(otherNode, first, member);
+            later = chatMessageBatcher.submit(first.getId(), member.getId(), "sonraki", LocalDateTime.now());
+
+            // Sonraki batch kilidi bekler; eşitleme imleci açık id'nin ötesine geçemez
+            Thread.sleep(200);
+            assertThat(later).isNotDone();
+            assertThat(ids(sync("?limit=20", "telefon"))).isEmpty();
+
+            otherNode.commit();
+        }
+        assertThat(later.get(5, TimeUnit.SECONDS)).isGreaterThan(earlier);
+        assertThat(ids(sync("?limit=20", "telefon"))).containsExactly(earlier, later.get());
+    }
+
+    private JsonNode sync(String query) throws Exception {
+        return sync(query, null);
+    }
+
+    private JsonNode sync(String query, String deviceId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/sync" + query).header("Authorization", "Bearer " + token);
+        if (deviceId != null) {
+            request.header("X-Device-Id", deviceId);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("messages").forEach(m -> ids.add(m.get("id").asLong()));
+        return ids;
+    }
+
+    private Long send(Chat chat, User sender) throws Exception {
+        return chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now()).get(5, TimeUnit.SECONDS);
+    }
+
+    // ChatMessageBatcher gibi önce yazım kilidi alınır
+    private static long insertLocked(Connection connection, Chat chat, User sender) throws Exception {
+        try (Statement lock = connection.createStatement()) {
+            lock.executeUpdate("update message_write_lock set batches = batches + 1 where id = 1");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into messages (chat_id, sender_id, content, \"timestamp\") values (?, ?, ?, ?)", new String[]{"id"})) {
+            statement.setLong(1, chat.getId());
+            statement.setLong(2, sender.getId());
+            statement.setString(3, "önceki");
+            statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "y");
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.ReadReceiptEvent;
+import com.example.chatapp.dto.ReadReceiptRequest;
+import com.example.chatapp.dto.TypingRequest;
+import com.example.chatapp.model.StompPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatActivityServiceTests {
+
+    private ChatFanoutService chatFanoutService;
+    private UnreadCounterService unreadCounterService;
+    private ChatActivityService activityService;
+    private StompPrincipal user;
+
+    @BeforeEach
+    void setUp() {
+        chatFanoutService = mock(ChatFanoutService.class);
+        unreadCounterService = mock(UnreadCounterService.class);
+        activityService = new ChatActivityService(chatFanoutService, unreadCounterService,
+                new SimpleMeterRegistry(), 60_000);
+        user = new StompPrincipal(1L, "ali", List.of(10L));
+    }
+
+    @Test
+    void typingIsThrottledPerUserAndChatUntilStateChanges() {
+        for (int i = 0; i < 5; i++) {
+            activityService.typing(user, new TypingRequest(10L, true));
+        }
+        activityService.typing(user, new TypingRequest(10L, false));
+        activityService.typing(user, new TypingRequest(10L, false));
+
+        verify(chatFanoutService, times(2)).deliver(eq(10L), eq(ChatActivityService.TYPING_DESTINATION),
+                any(), eq(1L), eq("typing:10:1"));
+    }
+
+    @Test
+    void typingForForeignChatIsIgnored() {
+        activityService.typing(user, new TypingRequest(99L, true));
+        verify(chatFanoutService, never()).deliver(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void readReceiptsCollapseToHighestIdPerWindow() {
+        activityService.read(user, new ReadReceiptRequest(10L, 5L));
+        activityService.read(user, new ReadReceiptRequest(10L, 9L));
+        activityService.read(user, new ReadReceiptRequest(10L, 7L));
+        verify(unreadCounterService, never()).markRead(anyLong(), anyLong(), anyLong());
+        when(unreadCounterService.markRead(1L, 10L, 9L)).thenReturn(9L);
+
+        activityService.flush();
+
+        verify(unreadCounterService).markRead(1L, 10L, 9L);
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(chatFanoutService).deliver(eq(10L), eq(ChatActivityService.RECEIPT_DESTINATION),
+                event.capture(), eq(1L), eq("receipt:10:1"));
+        assertThat(((ReadReceiptEvent) event.getValue()).getMessageId()).isEqualTo(9L);
+
+        // Boş aralıkta tekrar yazılmaz
+        activityService.flush();
+        verify(unreadCounterService, times(1)).markRead(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void receiptCarriesTheAppliedMessageId() {
+        // Sayaç istemcinin id'sini henüz sayılmış son mesaja indirdi
+        activityService.read(user, new ReadReceiptRequest(10L, 9L));
+        when(unreadCounterService.markRead(1L, 10L, 9L)).thenReturn(6L);
+
+        activityService.flush();
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(chatFanoutService).deliver(eq(10L), eq(ChatActivityService.RECEIPT_DESTINATION),
+                event.capture(), eq(1L), eq("receipt:10:1"));
+        assertThat(((ReadReceiptEvent) event.getValue()).getMessageId()).isEqualTo(6L);
+    }
+
+    @Test
+    void rejectedReceiptIsNotBroadcast() {
+        activityService.read(user, new ReadReceiptRequest(10L, 9L));
+
+        activityService.flush();
+
+        verify(unreadCounterService).markRead(1L, 10L, 9L);
+        verify(chatFanoutService, never()).deliver(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import com.example.chatapp.websocket.StompPrincipalRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatFanoutServiceTests {
+
+    private ChatRepository chatRepository;
+    private SimpMessagingTemplate messagingTemplate;
+    private StompPrincipalRegistry principalRegistry;
+    private ChatFanoutService fanoutService;
+    private LocalClusterBus node;
+
+    @BeforeEach
+    void setUp() {
+        chatRepository = mock(ChatRepository.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        LocalClusterHub hub = LocalClusterHub.named(UUID.randomUUID().toString());
+        node = hub.join("node-1");
+        principalRegistry = new StompPrincipalRegistry(hub, node);
+        fanoutService = new ChatFanoutService(chatRepository, principalRegistry, node, hub, messagingTemplate,
+                new ObjectMapper(), new SimpleMeterRegistry(), 60_000, 100);
+
+        when(chatRepository.findParticipantIds(1L)).thenReturn(List.of(30L, 10L, 20L));
+        principalRegistry.register("a", new StompPrincipal(10L, "ali", Set.of(1L)));
+        principalRegistry.register("b", new StompPrincipal(30L, "ayse", Set.of(1L)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deliversOneSharedFrameToOnlineParticipantsOnly() {
+        int delivered = fanoutService.deliver(1L, "/queue/messages", Map.of("content", "merhaba"));
+
+        assertThat(delivered).isEqualTo(2);
+        ArgumentCaptor<String> destinations = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Message<?>> frames = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(2)).send(destinations.capture(), frames.capture());
+        assertThat(destinations.getAllValues()).containsExactly("/user/ali/queue/messages", "/user/ayse/queue/messages");
+        assertThat(frames.getAllValues().get(0)).isSameAs(frames.getAllValues().get(1));
+        assertThat(new String((byte[]) frames.getValue().getPayload())).isEqualTo("{\"content\":\"merhaba\"}");
+    }
+
+    @Test
+    void participantIdsAreLoadedOnceUntilInvalidated() {
+        fanoutService.deliver(1L, "/queue/messages", "x");
+        fanoutService.deliver(1L, "/queue/messages", "y");
+        verify(chatRepository, times(1)).findParticipantIds(1L);
+        assertThat(fanoutService.getParticipantIds(1L)).containsExactly(10L, 20L, 30L);
+
+        fanoutService.invalidate(1L);
+        fanoutService.deliver(1L, "/queue/messages", "z");
+        verify(chatRepository, times(2)).findParticipantIds(1L);
+        verify(messagingTemplate, times(6)).send(anyString(), any(Message.class));
+    }
+}
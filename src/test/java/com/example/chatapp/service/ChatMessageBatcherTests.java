@@ -0,0 +1,144 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kuyruğa verilen mesajların toplu yazıldığını, her birinin kendi id'sini aldığını ve durdurma sırasında
+ * eklenen mesajların future'larının bekler halde kalmadığını doğrular.
+ */
+@SpringBootTest
+class ChatMessageBatcherTests {
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void submittedMessagesArePersistedWithDistinctIds() throws Exception {
+        User sender = saveUser();
+        Chat chat = chatRepository.save(new Chat(null, Set.of(sender)));
+
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            results.add(chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj " + i, LocalDateTime.now()));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        List<Long> ids = results.stream().map(CompletableFuture::join).toList();
+        assertThat(ids).doesNotHaveDuplicates().isSorted();
+
+        // Dönen id, aynı sıradaki mesajın satırına ait olmalı
+        String content = jdbcTemplate.queryForObject("select content from messages where id = ?", String.class, ids.get(700));
+        assertThat(content).isEqualTo("mesaj 700");
+        Integer count = jdbcTemplate.queryForObject("select count(*) from messages where chat_id = ?", Integer.class, chat.getId());
+        assertThat(count).isEqualTo(1200);
+    }
+
+    @Test
+    void slowCallbackDoesNotStallWriter() throws Exception {
+        User sender = saveUser();
+        Chat chat = chatRepository.save(new Chat(null, Set.of(sender)));
+
+        CountDownLatch callbackStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> callbackThread = new AtomicReference<>();
+        chatMessageBatcher.submit(chat.getId(), sender.getId(), "yavaş", LocalDateTime.now())
+                .thenRun(() -> {
+                    callbackThread.set(Thread.currentThread().getName());
+                    callbackStarted.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        try {
+            assertThat(callbackStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(callbackThread.get()).startsWith("chat-message-callback-");
+
+            // Callback beklerken sonraki mesaj yine yazılır
+            chatMessageBatcher.submit(chat.getId(), sender.getId(), "sonraki", LocalDateTime.now());
+            long deadline = System.currentTimeMillis() + 5000;
+            Integer count = 0;
+            while (count < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                count = jdbcTemplate.queryForObject("select count(*) from messages where chat_id = ?", Integer.class, chat.getId());
+            }
+            assertThat(count).isEqualTo(2);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void submitsRacingStopAreNeverLeftPending() throws Exception {
+        User sender = saveUser();
+        Chat chat = chatRepository.save(new Chat(null, Set.of(sender)));
+        ChatMessageBatcher batcher = new ChatMessageBatcher(jdbcTemplate, transactionTemplate, new SimpleMeterRegistry(), 50, 5, 10_000);
+        batcher.start();
+
+        // Durdurma sürerken gönderen thread'ler eklemeye devam eder
+        List<CompletableFuture<Long>> results = new CopyOnWriteArrayList<>();
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        List<Thread> submitters = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread submitter = new Thread(() -> {
+                while (submitting.get()) {
+                    results.add(batcher.submit(chat.getId(), sender.getId(), "yarış", LocalDateTime.now()));
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+        Thread.sleep(50);
+        batcher.stop();
+        Thread.sleep(20);
+        submitting.set(false);
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        assertThat(results).isNotEmpty().allMatch(CompletableFuture::isDone);
+        long written = results.stream().filter(future -> !future.isCompletedExceptionally()).count();
+        Integer count = jdbcTemplate.queryForObject("select count(*) from messages where chat_id = ?", Integer.class, chat.getId());
+        assertThat(count).isEqualTo((int) written);
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "b");
+    }
+}
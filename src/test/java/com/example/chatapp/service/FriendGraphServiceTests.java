@@ -0,0 +1,217 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.util.LongHashSet;
+import com.example.chatapp.util.LongIntHashMap;
+import com.example.chatapp.websocket.ClusterEvent;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FriendGraphServiceTests {
+
+    private FriendshipRepository friendshipRepository;
+    private LocalClusterHub hub;
+    private LocalClusterBus node;
+    private FriendGraphService graph;
+
+    @BeforeEach
+    void setUp() {
+        friendshipRepository = mock(FriendshipRepository.class);
+        when(friendshipRepository.findCounterpartIds(anyLong(), eq(Friendship.FriendshipStatus.ACCEPTED)))
+                .thenReturn(List.of());
+        when(friendshipRepository.findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED))
+                .thenReturn(List.of(2L, 3L));
+        hub = LocalClusterHub.named("friends-" + UUID.randomUUID());
+        node = hub.join("a");
+        graph = graph(node, 100, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    private FriendGraphService graph(LocalClusterBus bus, int maxUsers, long ttlMillis) {
+        return new FriendGraphService(friendshipRepository, new SimpleMeterRegistry(), bus, maxUsers, ttlMillis);
+    }
+
+    @Test
+    void loadsEachUserOnceAndAppliesChangesInPlace() {
+        assertThat(graph.areFriends(1L, 2L)).isTrue();
+        assertThat(graph.areFriends(1L, 4L)).isFalse();
+        assertThat(graph.areFriends(4L, 1L)).isFalse();
+
+        graph.friendshipAdded(4L, 1L);
+        graph.friendshipRemoved(1L, 2L);
+
+        assertThat(graph.friendsOf(1L)).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(graph.areFriends(4L, 1L)).isTrue();
+        verify(friendshipRepository, times(1)).findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED);
+        verify(friendshipRepository, times(1)).findCounterpartIds(4L, Friendship.FriendshipStatus.ACCEPTED);
+    }
+
+    @Test
+    void removedUserDisappearsFromFriendSets() {
+        graph.friendsOf(1L);
+        graph.friendshipAdded(3L, 5L);
+        graph.userRemoved(3L);
+
+        assertThat(graph.friendsOf(1L)).containsExactly(2L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUser() {
+        FriendGraphService small = graph(node, 2, 60_000);
+        small.friendsOf(1L);
+        small.friendsOf(4L);
+        small.friendsOf(1L); // 1 yeniden kullanıldı; sınır aşılınca 4 atılır
+        small.friendsOf(5L);
+        small.friendsOf(1L);
+        small.friendsOf(4L);
+
+        verify(friendshipRepository, times(1)).findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED);
+        verify(friendshipRepository, times(2)).findCounterpartIds(4L, Friendship.FriendshipStatus.ACCEPTED);
+    }
+
+    @Test
+    void expiredSetIsReloaded() throws InterruptedException {
+        FriendGraphService shortLived = graph(node, 100, 20);
+        shortLived.friendsOf(1L);
+        Thread.sleep(40);
+        shortLived.friendsOf(1L);
+
+        verify(friendshipRepository, times(2)).findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED);
+    }
+
+    @Test
+    void changesOnAnotherNodeInvalidateOnlyAffectedUsers() {
+        try (LocalClusterBus other = hub.join("b")) {
+            FriendGraphService remote = graph(other, 100, 60_000);
+            assertThat(graph.friendsOf(1L)).containsExactlyInAnyOrder(2L, 3L);
+            graph.friendsOf(6L);
+
+            when(friendshipRepository.findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED))
+                    .thenReturn(List.of(2L, 3L, 4L));
+            remote.friendshipAdded(1L, 4L);
+
+            assertThat(graph.friendsOf(1L)).containsExactlyInAnyOrder(2L, 3L, 4L);
+            graph.friendsOf(6L);
+            verify(friendshipRepository, times(1)).findCounterpartIds(6L, Friendship.FriendshipStatus.ACCEPTED);
+
+            other.publish(ClusterEvent.Type.USER_REMOVED, 3L, new long[0], 0);
+            assertThat(graph.friendsOf(1L)).containsExactlyInAnyOrder(2L, 4L);
+        }
+    }
+
+    @Test
+    void changeToAnotherUserDoesNotDiscardLoad() {
+        when(friendshipRepository.findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED)).thenAnswer(invocation -> {
+            // Yükleme sürerken ilgisiz kullanıcılar arasında arkadaşlık kurulur
+            graph.friendshipAdded(7L, 8L);
+            return List.of(2L, 3L);
+        });
+        graph.friendsOf(1L);
+        graph.friendsOf(1L);
+
+        verify(friendshipRepository, times(1)).findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED);
+    }
+
+    @Test
+    void loadsMissingUsersInOneQuery() {
+        graph.friendsOf(1L);
+        when(friendshipRepository.findEdges(List.of(2L, 3L), Friendship.FriendshipStatus.ACCEPTED))
+                .thenReturn(List.of(edge(1L, 2L), edge(3L, 1L), edge(2L, 3L), edge(9L, 3L)));
+
+        long[][] result = graph.friendsOf(new long[]{2L, 1L, 3L});
+
+        assertThat(result[0]).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(result[1]).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(result[2]).containsExactlyInAnyOrder(1L, 2L, 9L);
+        verify(friendshipRepository, times(1)).findEdges(anyCollection(), eq(Friendship.FriendshipStatus.ACCEPTED));
+
+        // Toplu yüklenen kümeler önbelleğe yazılmaz; önbellekteki küme yerinde kalır
+        graph.friendsOf(3L);
+        graph.friendsOf(1L);
+        verify(friendshipRepository, times(1)).findCounterpartIds(3L, Friendship.FriendshipStatus.ACCEPTED);
+        verify(friendshipRepository, times(1)).findCounterpartIds(1L, Friendship.FriendshipStatus.ACCEPTED);
+    }
+
+    private static FriendshipRepository.FriendshipEdge edge(long requesterId, long receiverId) {
+        return new FriendshipRepository.FriendshipEdge() {
+            @Override
+            public Long getRequesterId() {
+                return requesterId;
+            }
+
+            @Override
+            public Long getReceiverId() {
+                return receiverId;
+            }
+        };
+    }
+
+    @Test
+    void longIntHashMapMatchesHashMap() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            int delta = random.nextInt(5) + 1;
+            assertThat(map.addTo(key, delta)).isEqualTo(expected.merge(key, delta, Integer::sum));
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_100; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+        }
+
+        LongIntHashMap other = new LongIntHashMap();
+        other.addTo(0, 3);
+        other.addTo(5_000, 1);
+        map.addAll(other);
+        assertThat(map.get(0)).isEqualTo(expected.getOrDefault(0L, 0) + 3);
+        assertThat(map.get(5_000)).isEqualTo(1);
+    }
+
+    @Test
+    void longHashSetMatchesHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            long value = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertThat(set.add(value)).isEqualTo(expected.add(value));
+            } else {
+                assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            }
+        }
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = 0; value < 2_000; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+        assertThat(set.toArray()).containsExactlyInAnyOrder(expected.stream().mapToLong(Long::longValue).toArray());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.FriendSuggestion;
+import com.example.chatapp.dto.FriendshipResponse;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FriendSuggestionServiceTests {
+
+    private final Map<Long, long[]> adjacency = new HashMap<>();
+    private FriendGraphService graph;
+    private FriendshipRepository friendshipRepository;
+    private UserRepository userRepository;
+    private FriendSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        graph = mock(FriendGraphService.class);
+        when(graph.friendsOf(anyLong())).thenAnswer(inv -> adjacency.getOrDefault((Long) inv.getArgument(0), new long[0]).clone());
+        when(graph.friendsOf(any(long[].class))).thenAnswer(inv -> {
+            long[] ids = inv.getArgument(0);
+            long[][] result = new long[ids.length][];
+            for (int i = 0; i < ids.length; i++) {
+                result[i] = adjacency.getOrDefault(ids[i], new long[0]).clone();
+            }
+            return result;
+        });
+
+        friendshipRepository = mock(FriendshipRepository.class);
+        when(friendshipRepository.findCounterpartIds(anyLong(), anyCollection())).thenReturn(List.of());
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<User> users = new ArrayList<>();
+            for (Object id : (Iterable<?>) inv.getArgument(0)) {
+                users.add(user((Long) id));
+            }
+            return users;
+        });
+
+        service = newService(1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ranksNonFriendsByMutualCount() {
+        // 1'in arkadaşları 2, 3, 4; 5 üçüyle, 6 biriyle arkadaş; 7 için bekleyen istek var
+        connect(1, 2, 3, 4);
+        connect(2, 1, 5, 7);
+        connect(3, 1, 5, 6, 7);
+        connect(4, 1, 5, 2);
+        when(friendshipRepository.findCounterpartIds(org.mockito.ArgumentMatchers.eq(1L), anyCollection()))
+                .thenReturn(List.of(7L));
+
+        List<FriendSuggestion> suggestions = service.getSuggestions(user(1L));
+
+        assertThat(suggestions).extracting(s -> s.getUser().getId()).containsExactly(5L, 6L);
+        assertThat(suggestions).extracting(FriendSuggestion::getMutualFriendCount).containsExactly(3, 1);
+
+        // Arkadaşların komşulukları tek toplu çağrıyla alınır
+        verify(graph, times(1)).friendsOf(any(long[].class));
+        verify(graph, times(1)).friendsOf(anyLong());
+    }
+
+    @Test
+    void mutualFriendsAreCachedUntilFriendshipChanges() {
+        connect(1, 2, 3, 4);
+        connect(9, 3, 4, 8);
+
+        assertThat(service.getMutualFriends(user(1L), 9L)).extracting(FriendshipResponse.UserSummary::getId)
+                .containsExactly(3L, 4L);
+        service.getMutualFriends(user(9L), 1L);
+        verify(graph, times(1)).friendsOf(1L);
+
+        connect(9, 3, 4, 8, 2);
+        service.friendshipChanged(9L, 2L);
+        assertThat(service.getMutualFriends(user(1L), 9L)).extracting(FriendshipResponse.UserSummary::getId)
+                .containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void parallelRankingMatchesSequential() {
+        Random random = new Random(7);
+        long[] friends = random.longs(600, 2, 5_000).distinct().toArray();
+        adjacency.put(1L, friends);
+        for (long friend : friends) {
+            adjacency.put(friend, random.longs(random.nextInt(40), 2, 5_000).distinct().toArray());
+        }
+
+        List<FriendSuggestion> sequential = service.getSuggestions(user(1L));
+        FriendSuggestionService parallel = newService(64);
+        try {
+            List<FriendSuggestion> result = parallel.getSuggestions(user(1L));
+            assertThat(result).extracting(s -> s.getUser().getId())
+                    .containsExactlyElementsOf(sequential.stream().map(s -> s.getUser().getId()).toList());
+            assertThat(result).hasSize(20);
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    private FriendSuggestionService newService(int parallelThreshold) {
+        return new FriendSuggestionService(graph, friendshipRepository, userRepository, mock(PresenceService.class),
+                20, parallelThreshold, 60_000, 100);
+    }
+
+    private void connect(long userId, long... friends) {
+        adjacency.put(userId, friends);
+    }
+
+    private static User user(Long id) {
+        User user = new User("Deneme", "Kullanici", "u" + id, "x", "u" + id + "@test.com", Role.USER, false, null, null);
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.FriendshipChange;
+import com.example.chatapp.repository.FriendshipChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aynı kullanıcıya aynı anda yazan iki transaction'ın sürümleri commit sırasıyla aldığını doğrular:
+ * önce sürüm alıp geç commit eden yazan, diğerini kendi commit'ine kadar bekletir.
+ */
+@SpringBootTest
+class FriendshipChangeServiceTests {
+
+    @Autowired
+    private FriendshipChangeService friendshipChangeService;
+
+    @Autowired
+    private FriendshipChangeRepository friendshipChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void interleavedWritersGetVersionsInCommitOrder() throws Exception {
+        long base = ThreadLocalRandom.current().nextLong(1_000_000, 1_000_000_000) * 10;
+        long user = base, first = base + 1, second = base + 2;
+
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(tx -> {
+            friendshipChangeService.record(List.of(change(base + 11, first, user)));
+            recorded.countDown();
+            await(release);
+        }));
+        assertThat(recorded.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> fast = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(tx ->
+                friendshipChangeService.record(List.of(change(base + 12, user, second)))));
+
+        // İkinci yazan ilk transaction commit edene kadar sürüm alamaz; okuyan henüz hiçbir değişiklik görmez
+        Thread.sleep(200);
+        assertThat(fast).isNotDone();
+        assertThat(friendshipChangeService.getVersion(user)).isZero();
+        assertThat(friendshipChangeRepository.findSince(user, 0, Limit.of(10))).isEmpty();
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        fast.get(5, TimeUnit.SECONDS);
+
+        List<FriendshipChange> changes = friendshipChangeRepository.findSince(user, 0, Limit.of(10));
+        assertThat(changes).extracting(FriendshipChange::getVersion).containsExactly(1L, 2L);
+        assertThat(changes).extracting(FriendshipChange::getCounterpartId).containsExactly(first, second);
+        assertThat(friendshipChangeService.getVersion(user)).isEqualTo(2);
+        // Diğer tarafların sürümleri kendi günlüklerinden bağımsızdır
+        assertThat(friendshipChangeService.getVersion(first)).isEqualTo(1);
+        assertThat(friendshipChangeService.getVersion(second)).isEqualTo(1);
+        assertThat(friendshipChangeRepository.findSince(user, 1, Limit.of(10)))
+                .extracting(FriendshipChange::getFriendshipId).containsExactly(base + 12);
+    }
+
+    private static FriendshipChangeService.Change change(long friendshipId, long requesterId, long receiverId) {
+        return new FriendshipChangeService.Change(friendshipId, requesterId, receiverId,
+                FriendshipChange.ChangeType.ADDED, Friendship.FriendshipStatus.PENDING);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Şifre işlemlerinin ayrı havuzda çalıştığını, havuz dolunca 503 ile reddedildiğini ve
+ * 503 yanıtının Retry-After ile istemciye ulaştığını ve girişte farklı maliyetli hash'lerin yeniden hashlendiğini doğrular.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+class PasswordHashingServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void encodesAndMatchesOnPool() {
+        String hash = passwordHashingService.encode("gizli123");
+        assertThat(hash).startsWith("$2a$10$");
+        assertThat(passwordHashingService.matches("gizli123", hash)).isTrue();
+        assertThat(passwordHashingService.matches("yanlis", hash)).isFalse();
+        assertThat(passwordHashingService.needsRehash(hash)).isFalse();
+        assertThat(passwordHashingService.needsRehash(new BCryptPasswordEncoder(4).encode("x"))).isTrue();
+        assertThat(passwordHashingService.needsRehash("duzmetin")).isFalse();
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordHashingService service = new PasswordHashingService(blockingEncoder(started, release),
+                new SimpleMeterRegistry(), 1, 1, 5000, 10);
+        try {
+            // Biri çalışıyor, biri kuyrukta; üçüncüsü beklemeden reddedilir
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+            awaitQueued(service);
+
+            assertThatThrownBy(() -> service.encode("c"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                        assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                        assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+                    });
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void timesOutWithServiceUnavailable() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHashingService service = new PasswordHashingService(blockingEncoder(new CountDownLatch(1), release),
+                new SimpleMeterRegistry(), 1, 1, 50, 10);
+        try {
+            assertThatThrownBy(() -> service.encode("a"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        } finally {
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void loginRehashesPasswordWithDifferentCost() throws Exception {
+        String username = "h" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User("Deneme", "Kullanici", username,
+                new BCryptPasswordEncoder(4).encode("gizli123"), username + "@test.com", Role.USER, false, null, "bio"));
+
+        mockMvc.perform(post("/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"gizli123\"}"))
+                .andExpect(status().isOk());
+
+        String rehashed = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertThat(rehashed).startsWith("$2a$10$");
+        assertThat(passwordHashingService.matches("gizli123", rehashed)).isTrue();
+    }
+
+    @Test
+    void saturatedLoginReturnsServiceUnavailableWithRetryAfter() {
+        String username = "h" + UUID.randomUUID().toString().substring(0, 8);
+        userRepository.save(new User("Deneme", "Kullanici", username,
+                new BCryptPasswordEncoder(4).encode("gizli123"), username + "@test.com", Role.USER, false, null, "bio"));
+        doThrow(PasswordHashingService.busy("Sunucu yoğun, lütfen daha sonra tekrar deneyin", 5))
+                .when(passwordHashingService).matches(any(), any());
+
+        // Gerçek sunucu üzerinden: hata /error'a yönlendirildiğinde de 503 ve Retry-After korunmalı
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity("/user/login",
+                new HttpEntity<>("{\"username\":\"" + username + "\",\"password\":\"gizli123\"}", headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+    }
+
+    private static void awaitQueued(PasswordHashingService service) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.queueDepth() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    // release açılana kadar bekleyen kodlayıcı; havuzu dolu tutmak için
+    private static PasswordEncoder blockingEncoder(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.dto.PasswordMigrationStatus;
+import com.example.chatapp.model.Admin;
+import com.example.chatapp.model.MigrationCheckpoint;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.repository.AdminRepository;
+import com.example.chatapp.repository.MigrationCheckpointRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Toplu şifre geçişinin sayfa sayfa ilerlediğini, yarıda kesilince kayıtlı noktadan devam ettiğini
+ * ve önceden dönüştürülmüş satırları tekrar hashlemediğini doğrular. Sayaç yalnızca gerçekten güncellenen satırları sayar
+ * ve durum yeniden başlatmadan sonra kayıtlı noktadan yüklenir.
+ */
+@SpringBootTest(properties = {"password-migration.chunk-size=2", "security.bcrypt.strength=4"})
+@AutoConfigureMockMvc
+class PasswordMigrationServiceTests {
+
+    private static final String PLAIN_COUNT_SQL =
+            "select count(*) from users where password is not null and password not like '$2_$%'";
+
+    @Autowired
+    private PasswordMigrationService passwordMigrationService;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private MigrationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void resumesFromCheckpointWithoutRehashingMigratedRows() throws Exception {
+        jdbcTemplate.update("delete from migration_checkpoints");
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String username = "m" + UUID.randomUUID().toString().substring(0, 8);
+            jdbcTemplate.update("insert into users (isim, soyad, username, password, email, role, is_online) " +
+                    "values ('Deneme', 'Kullanici', ?, ?, ?, 'USER', false)", username, "duzsifre" + i, username + "@test.com");
+            usernames.add(username);
+        }
+        long plainBefore = jdbcTemplate.queryForObject(PLAIN_COUNT_SQL, Long.class);
+
+        // Üçüncü hashlemede çöker: ilk sayfa yazılmış, ikinci sayfa yazılmamış olur
+        AtomicInteger encodes = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (encodes.incrementAndGet() == 3) {
+                throw new IllegalStateException("simüle edilmiş çökme");
+            }
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+
+        passwordMigrationService.startMigration();
+        PasswordMigrationStatus failed = awaitFinished();
+        assertThat(failed.getState()).isEqualTo(PasswordMigrationStatus.State.FAILED);
+        assertThat(failed.getMigratedCount()).isEqualTo(2);
+        long plainAfterCrash = jdbcTemplate.queryForObject(PLAIN_COUNT_SQL, Long.class);
+        assertThat(plainAfterCrash).isEqualTo(plainBefore - 2);
+
+        encodes.set(Integer.MIN_VALUE);
+        passwordMigrationService.startMigration();
+        PasswordMigrationStatus completed = awaitFinished();
+        assertThat(completed.getState()).isEqualTo(PasswordMigrationStatus.State.COMPLETED);
+        // Yalnızca hâlâ düz metin olan satırlar hashlenir
+        assertThat(encodes.get() - Integer.MIN_VALUE).isEqualTo(plainAfterCrash);
+        assertThat(completed.getMigratedCount()).isEqualTo(plainBefore);
+        assertThat(jdbcTemplate.queryForObject(PLAIN_COUNT_SQL, Long.class)).isZero();
+
+        BCryptPasswordEncoder verifier = new BCryptPasswordEncoder();
+        for (int i = 0; i < usernames.size(); i++) {
+            String hash = jdbcTemplate.queryForObject("select password from users where username = ?",
+                    String.class, usernames.get(i));
+            assertThat(verifier.matches("duzsifre" + i, hash)).isTrue();
+        }
+
+        // Yönetici ilerleme ucu aynı durumu döner
+        Admin admin = new Admin();
+        admin.setUsername("admin" + UUID.randomUUID().toString().substring(0, 6));
+        admin.setPassword("yonetici");
+        adminRepository.save(admin);
+        String response = mockMvc.perform(get("/admin/password-migration")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(admin.getUsername(), Role.ADMIN)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode body = objectMapper.readTree(response);
+        assertThat(body.get("state").asText()).isEqualTo("COMPLETED");
+        assertThat(body.get("migratedCount").asLong()).isEqualTo(plainBefore);
+    }
+
+    @Test
+    void countsOnlyUpdatedRowsAndRestoresStatusFromCheckpoint() throws Exception {
+        jdbcTemplate.update("delete from migration_checkpoints");
+        String changed = null;
+        for (int i = 0; i < 3; i++) {
+            String username = "m" + UUID.randomUUID().toString().substring(0, 8);
+            jdbcTemplate.update("insert into users (isim, soyad, username, password, email, role, is_online) " +
+                    "values ('Deneme', 'Kullanici', ?, ?, ?, 'USER', false)", username, "duzsifre" + username, username + "@test.com");
+            changed = username;
+        }
+        long plainBefore = jdbcTemplate.queryForObject(PLAIN_COUNT_SQL, Long.class);
+
+        // Hashlenirken kullanıcı şifresini değiştirir; eski değere bağlı güncelleme bu satırı atlar
+        String changedUser = changed;
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0).toString().equals("duzsifre" + changedUser)) {
+                jdbcTemplate.update("update users set password = 'yenisifre' where username = ?", changedUser);
+            }
+            return invocation.callRealMethod();
+        }).when(passwordEncoder).encode(any());
+
+        passwordMigrationService.startMigration();
+        PasswordMigrationStatus completed = awaitFinished();
+        assertThat(completed.getState()).isEqualTo(PasswordMigrationStatus.State.COMPLETED);
+        assertThat(completed.getMigratedCount()).isEqualTo(plainBefore - 1);
+        assertThat(jdbcTemplate.queryForObject("select password from users where username = ?", String.class, changedUser))
+                .isEqualTo("yenisifre");
+
+        // Yeniden başlatma: durum kayıtlı noktadan okunur
+        passwordMigrationService.restoreStatus();
+        assertThat(passwordMigrationService.getStatus().getState()).isEqualTo(PasswordMigrationStatus.State.COMPLETED);
+        assertThat(passwordMigrationService.getStatus().getMigratedCount()).isEqualTo(plainBefore - 1);
+
+        MigrationCheckpoint checkpoint = checkpointRepository.findById("password-migration").orElseThrow();
+        checkpoint.setCompleted(false);
+        checkpointRepository.save(checkpoint);
+        passwordMigrationService.restoreStatus();
+        PasswordMigrationStatus restored = passwordMigrationService.getStatus();
+        assertThat(restored.getState()).isEqualTo(PasswordMigrationStatus.State.IDLE);
+        assertThat(restored.getLastProcessedId()).isEqualTo(checkpoint.getLastProcessedId());
+        assertThat(restored.getMigratedCount()).isEqualTo(plainBefore - 1);
+    }
+
+    private PasswordMigrationStatus awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        PasswordMigrationStatus status = passwordMigrationService.getStatus();
+        while (status.getState() == PasswordMigrationStatus.State.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = passwordMigrationService.getStatus();
+        }
+        return status;
+    }
+}
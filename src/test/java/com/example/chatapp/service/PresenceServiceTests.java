@@ -0,0 +1,172 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private LocalClusterHub hub;
+    private final List<LocalClusterBus> nodes = new ArrayList<>();
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        hub = LocalClusterHub.named("presence-" + UUID.randomUUID());
+        presenceService = newService(join("a"), 60_000);
+    }
+
+    // Son düğüm ayrılınca hub da bırakılır
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(LocalClusterBus::close);
+    }
+
+    @Test
+    void userStaysOnlineUntilLastSessionCloses() {
+        presenceService.sessionConnected("s1", 1L);
+        presenceService.sessionConnected("s2", 1L);
+
+        presenceService.sessionDisconnected("s1");
+        assertThat(presenceService.isOnline(1L)).isTrue();
+
+        presenceService.sessionDisconnected("s2");
+        assertThat(presenceService.isOnline(1L)).isFalse();
+
+        // Aynı oturumun tekrar kopması sayacı bozmamalı
+        presenceService.sessionDisconnected("s2");
+        presenceService.sessionConnected("s3", 1L);
+        assertThat(presenceService.isOnline(1L)).isTrue();
+    }
+
+    @Test
+    void manualStatusIsClearedWhenLastSessionCloses() {
+        presenceService.setStatus(2L, true);
+        presenceService.sessionConnected("s1", 2L);
+        presenceService.sessionDisconnected("s1");
+        assertThat(presenceService.isOnline(2L)).isFalse();
+    }
+
+    @Test
+    void manualStatusExpiresWithoutRefresh() throws InterruptedException {
+        PresenceService shortLived = newService(join("b"), 300);
+        shortLived.setStatus(11L, true);
+        shortLived.setStatus(12L, true);
+        shortLived.sessionConnected("s1", 12L);
+        assertThat(presenceService.isOnline(11L)).isTrue();
+
+        Thread.sleep(400);
+        shortLived.flush();
+        // Oturumu olmayan kullanıcı her düğümde çevrim dışı olur, oturumu olan çevrim içi kalır
+        assertThat(shortLived.isOnline(11L)).isFalse();
+        assertThat(presenceService.isOnline(11L)).isFalse();
+        assertThat(shortLived.isOnline(12L)).isTrue();
+        verify(jdbcTemplate).batchUpdate(eq("update users set is_online = false where id = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[0].equals(11L)));
+
+        // Yenilenen bildirim süreyi uzatır
+        shortLived.setStatus(13L, true);
+        Thread.sleep(200);
+        shortLived.setStatus(13L, true);
+        Thread.sleep(200);
+        shortLived.flush();
+        assertThat(shortLived.isOnline(13L)).isTrue();
+    }
+
+    @Test
+    void flapsWithinOneIntervalAreWrittenOnce() {
+        presenceService.sessionConnected("s1", 3L);
+        presenceService.sessionDisconnected("s1");
+        presenceService.sessionConnected("s2", 3L);
+
+        presenceService.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("update users set is_online = true where id = ?"), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(eq("update users set is_online = false where id = ?"), anyList());
+
+        // Değişiklik yoksa yazım yapılmaz
+        presenceService.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void presenceIsSharedWithOtherNodes() {
+        LocalClusterBus nodeB = join("b");
+        PresenceService other = newService(nodeB, 60_000);
+
+        presenceService.sessionConnected("s1", 8L);
+        presenceService.setStatus(9L, true);
+        assertThat(other.isOnline(8L)).isTrue();
+        assertThat(other.onlineCount()).isEqualTo(2);
+
+        // Sonradan katılan düğüm mevcut durumları açılışta öğrenir
+        PresenceService late = newService(join("c"), 60_000);
+        assertThat(late.isOnline(9L)).isTrue();
+
+        presenceService.sessionDisconnected("s1");
+        assertThat(other.isOnline(8L)).isFalse();
+        assertThat(late.isOnline(8L)).isFalse();
+
+        // Ayrılan düğümdeki kullanıcılar diğer düğümlerde çevrim dışı sayılır
+        other.sessionConnected("s2", 10L);
+        nodeB.close();
+        assertThat(presenceService.isOnline(10L)).isFalse();
+        assertThat(late.isOnline(10L)).isFalse();
+    }
+
+    @Test
+    void userConnectedOnAnotherNodeIsNotWrittenOffline() {
+        hub.register(4L, "b");
+        presenceService.sessionConnected("s1", 4L);
+        presenceService.sessionDisconnected("s1");
+        presenceService.sessionConnected("s2", 5L);
+        presenceService.sessionDisconnected("s2");
+
+        presenceService.flush();
+        verify(jdbcTemplate).batchUpdate(eq("update users set is_online = false where id = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[0].equals(5L)));
+    }
+
+    @Test
+    void startupResetKeepsUsersConnectedElsewhere() {
+        hub.register(7L, "b");
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), anyInt())).thenReturn(List.of(6L, 7L));
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(7L), anyInt())).thenReturn(List.of());
+
+        presenceService.resetStoredPresence();
+        verify(jdbcTemplate).batchUpdate(eq("update users set is_online = false where id = ?"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[0].equals(6L)));
+    }
+
+    private PresenceService newService(LocalClusterBus node, long manualTtlMillis) {
+        PresenceService service = new PresenceService(jdbcTemplate, hub, node, manualTtlMillis);
+        service.start();
+        return service;
+    }
+
+    private LocalClusterBus join(String nodeId) {
+        LocalClusterBus node = hub.join(nodeId);
+        nodes.add(node);
+        return node;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.dto.ReadReceiptEvent;
+import com.example.chatapp.dto.ReadReceiptRequest;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Sıra dışı ve geç ulaşan okundu bilgilerinin gerçek sayaçlarla birlikte doğru sonuç verdiğini doğrular.
+ * Okundu bilgileri STOMP'tan gelir gibi ChatActivityService'e verilir ve aralık sonu flush ile uygulanır.
+ */
+@SpringBootTest(properties = "chat.read-receipts.flush-interval-ms=600000")
+class ReadReceiptOrderingTests {
+
+    @Autowired
+    private ChatActivityService chatActivityService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @MockitoSpyBean
+    private ChatFanoutService chatFanoutService;
+
+    private User sender;
+    private StompPrincipal reader;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        sender = saveUser();
+        User readerUser = saveUser();
+        chat = chatRepository.save(new Chat(null, Set.of(sender, readerUser)));
+        reader = new StompPrincipal(readerUser.getId(), readerUser.getUsername(), List.of(chat.getId()));
+    }
+
+    @Test
+    void lateReceiptInLaterWindowDoesNotClearNewerMessages() throws Exception {
+        long first = send();
+        send();
+        long third = send();
+        send();
+
+        read(third);
+        assertThat(unread()).isEqualTo(1);
+
+        // Önceki aralıktaki bilgiden daha eski bir bilgi geç ulaşır
+        clearInvocations(chatFanoutService);
+        read(first);
+        assertThat(unread()).isEqualTo(1);
+        verify(chatFanoutService, never()).deliver(eq(chat.getId()), eq(ChatActivityService.RECEIPT_DESTINATION),
+                any(), any(), any());
+    }
+
+    @Test
+    void receiptsOutOfOrderWithinWindowApplyTheHighest() throws Exception {
+        long first = send();
+        long second = send();
+        long third = send();
+
+        chatActivityService.read(reader, new ReadReceiptRequest(chat.getId(), second));
+        chatActivityService.read(reader, new ReadReceiptRequest(chat.getId(), third));
+        chatActivityService.read(reader, new ReadReceiptRequest(chat.getId(), first));
+        chatActivityService.flush();
+        assertThat(unread()).isZero();
+        verify(chatFanoutService).deliver(eq(chat.getId()), eq(ChatActivityService.RECEIPT_DESTINATION),
+                argThat(event -> ((ReadReceiptEvent) event).getMessageId() == third), eq(reader.getUserId()), any());
+
+        long fourth = send();
+        send();
+        read(second);
+        assertThat(unread()).isEqualTo(2);
+
+        // Sayılan son mesajdan önceki bir mesaj okununca yalnızca sonrakiler kalır
+        read(fourth);
+        assertThat(unread()).isEqualTo(1);
+    }
+
+    private void read(long messageId) {
+        chatActivityService.read(reader, new ReadReceiptRequest(chat.getId(), messageId));
+        chatActivityService.flush();
+    }
+
+    private int unread() {
+        return unreadCounterService.getUnreadCount(reader.getUserId(), chat.getId());
+    }
+
+    private long send() throws Exception {
+        long id = chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                .get(5, TimeUnit.SECONDS);
+        unreadCounterService.messagePersisted(chat.getId(), sender.getId(), id);
+        return id;
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "r");
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.Role;
+import com.example.chatapp.repository.RevokedTokenRepository;
+import com.example.chatapp.repository.SessionRevocationRepository;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * "Tüm oturumları kapat" sonrası hemen yapılan girişin token'ının geçerli kaldığını ve iptallerin diğer düğümlere
+ * ulaştığını doğrular.
+ */
+@SpringBootTest
+class TokenRevocationServiceTests {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private SessionRevocationRepository sessionRevocationRepository;
+
+    @Autowired
+    private LocalClusterHub localClusterHub;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.expiration}")
+    private long tokenLifetimeMillis;
+
+    @Test
+    void tokenIssuedRightAfterRevocationStaysValid() {
+        String username = "r" + UUID.randomUUID().toString().substring(0, 8);
+        Claims before = jwtService.validateToken(jwtService.generateToken(username, Role.USER));
+
+        tokenRevocationService.revokeAllSessions(username);
+        // Aynı saniye (hatta aynı milisaniye) içinde yeniden giriş
+        Claims after = jwtService.validateToken(jwtService.generateToken(username, Role.USER));
+
+        assertThat(tokenRevocationService.isRevoked(before)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(after)).isFalse();
+    }
+
+    @Test
+    void revocationsReachOtherNodes() {
+        String username = "r" + UUID.randomUUID().toString().substring(0, 8);
+        Claims loggedOut = jwtService.validateToken(jwtService.generateToken(username, Role.USER));
+        Claims other = jwtService.validateToken(jwtService.generateToken(username, Role.USER));
+
+        try (LocalClusterBus peerBus = localClusterHub.join("peer-" + UUID.randomUUID())) {
+            // Aynı veritabanını kullanan ikinci düğüm
+            TokenRevocationService peer = new TokenRevocationService(revokedTokenRepository, sessionRevocationRepository,
+                    jwtService, peerBus, 1000, 0.01, 100, tokenLifetimeMillis);
+            peer.init();
+            assertThat(peer.isRevoked(loggedOut)).isFalse();
+
+            tokenRevocationService.revokeToken(loggedOut);
+            assertThat(peer.isRevoked(loggedOut)).isTrue();
+            assertThat(peer.isRevoked(other)).isFalse();
+
+            tokenRevocationService.revokeAllSessions(username);
+            assertThat(peer.isRevoked(other)).isTrue();
+            assertThat(peer.isRevoked(jwtService.validateToken(jwtService.generateToken(username, Role.USER)))).isFalse();
+        }
+    }
+
+    @Test
+    void legacyTokenFromSameSecondIsRevoked() {
+        String username = "r" + UUID.randomUUID().toString().substring(0, 8);
+        // Milisaniyelik damga taşımayan eski biçimli token
+        Claims legacy = jwtService.validateToken(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS256, secret.getBytes())
+                .compact());
+
+        tokenRevocationService.revokeAllSessions(username);
+
+        assertThat(tokenRevocationService.isRevoked(legacy)).isTrue();
+    }
+}
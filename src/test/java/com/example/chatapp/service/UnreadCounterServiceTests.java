@@ -0,0 +1,191 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.ChatReadState;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatReadStateRepository;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.MigrationCheckpointRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.websocket.ClusterBus;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sayaçların mesajla artıp okundu bilgisiyle sıfırlandığını, tabloya yazıldığını ve
+ * yeniden açılışta kayıt noktasından sonraki mesajlarla birlikte geri yüklendiğini doğrular.
+ */
+@SpringBootTest
+class UnreadCounterServiceTests {
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private ChatMessageBatcher chatMessageBatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatReadStateRepository readStateRepository;
+
+    @Autowired
+    private MigrationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ChatFanoutService chatFanoutService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClusterBus clusterBus;
+
+    private User sender;
+    private User reader;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        sender = saveUser();
+        reader = saveUser();
+        chat = chatRepository.save(new Chat(null, Set.of(sender, reader)));
+    }
+
+    @Test
+    void countsMessagesForOtherParticipantsUntilRead() throws Exception {
+        send();
+        long last = send();
+
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(2);
+        assertThat(unreadCounterService.getUnreadCount(sender.getId(), chat.getId())).isZero();
+        assertThat(unreadCounterService.getBadge(reader.getId()).getUnreadMessages()).isEqualTo(2);
+        assertThat(unreadCounterService.getInbox(reader.getId()))
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getChatId()).isEqualTo(chat.getId()));
+
+        unreadCounterService.markRead(reader.getId(), chat.getId(), last);
+
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isZero();
+        assertThat(unreadCounterService.getInbox(reader.getId())).isEmpty();
+    }
+
+    @Test
+    void receiptForOlderMessageKeepsLaterMessagesUnread() throws Exception {
+        long first = send();
+        long second = send();
+        send();
+
+        unreadCounterService.markRead(reader.getId(), chat.getId(), second);
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(1);
+
+        // Geride kalan okundu bilgisi sayacı değiştirmez
+        send();
+        unreadCounterService.markRead(reader.getId(), chat.getId(), first);
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void receiptIsCheckedAgainstTheChatAndClampedToCountedMessages() throws Exception {
+        long first = send();
+        Chat other = chatRepository.save(new Chat(null, Set.of(sender, reader)));
+        long foreign = chatMessageBatcher.submit(other.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                .get(5, TimeUnit.SECONDS);
+        unreadCounterService.messagePersisted(other.getId(), sender.getId(), foreign);
+
+        // Başka sohbetin mesajı bu sohbeti okunmuş yapmaz
+        assertThat(unreadCounterService.markRead(reader.getId(), chat.getId(), foreign)).isZero();
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(1);
+
+        // Kaydedilmiş ama henüz sayılmamış mesaj: sohbette sayılmış son mesaj uygulanır
+        long uncounted = chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                .get(5, TimeUnit.SECONDS);
+        assertThat(unreadCounterService.markRead(reader.getId(), chat.getId(), uncounted)).isEqualTo(first);
+        assertThat(unreadCounterService.getUnreadCount(reader.getId(), chat.getId())).isZero();
+    }
+
+    @Test
+    void checkpointPersistsCountersAndRestartReplaysLaterMessages() throws Exception {
+        long first = send();
+        send();
+        unreadCounterService.checkpoint();
+
+        ChatReadState row = readStateRepository.findAll().stream()
+                .filter(s -> s.getUserId().equals(reader.getId()) && s.getChatId().equals(chat.getId()))
+                .findFirst().orElseThrow();
+        assertThat(row.getUnreadCount()).isEqualTo(2);
+
+        // Kayıt noktasından sonra yazılan ama sayaca yansımadan kalan mesaj (çökme senaryosu)
+        chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now()).get(5, TimeUnit.SECONDS);
+
+        UnreadCounterService restarted = new UnreadCounterService(readStateRepository, checkpointRepository,
+                chatFanoutService, jdbcTemplate, transactionTemplate, clusterBus);
+        restarted.rebuild();
+
+        assertThat(restarted.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(3);
+        assertThat(restarted.getUnreadCount(sender.getId(), chat.getId())).isZero();
+
+        // Yüklenen sayaç için eski bir mesajın okundu bilgisi kalanları yeniden sayar
+        restarted.markRead(reader.getId(), chat.getId(), first);
+        assertThat(restarted.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void countersStayInStepAcrossNodes() throws Exception {
+        LocalClusterHub hub = LocalClusterHub.named("unread-" + UUID.randomUUID());
+        try (LocalClusterBus busA = hub.join("a"); LocalClusterBus busB = hub.join("b")) {
+            UnreadCounterService nodeA = new UnreadCounterService(readStateRepository, checkpointRepository,
+                    chatFanoutService, jdbcTemplate, transactionTemplate, busA);
+            UnreadCounterService nodeB = new UnreadCounterService(readStateRepository, checkpointRepository,
+                    chatFanoutService, jdbcTemplate, transactionTemplate, busB);
+            nodeA.rebuild();
+            nodeB.rebuild();
+
+            // Mesaj a düğümünde kaydedilir, okuyan b düğümüne bağlıdır
+            long first = chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                    .get(5, TimeUnit.SECONDS);
+            nodeA.messagePersisted(chat.getId(), sender.getId(), first);
+            long second = chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                    .get(5, TimeUnit.SECONDS);
+            nodeA.messagePersisted(chat.getId(), sender.getId(), second);
+            assertThat(nodeB.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(2);
+
+            nodeB.markRead(reader.getId(), chat.getId(), first);
+            assertThat(nodeA.getUnreadCount(reader.getId(), chat.getId())).isEqualTo(1);
+            nodeB.markRead(reader.getId(), chat.getId(), second);
+            assertThat(nodeA.getUnreadCount(reader.getId(), chat.getId())).isZero();
+        }
+    }
+
+    private long send() throws Exception {
+        long id = chatMessageBatcher.submit(chat.getId(), sender.getId(), "mesaj", LocalDateTime.now())
+                .get(5, TimeUnit.SECONDS);
+        unreadCounterService.messagePersisted(chat.getId(), sender.getId(), id);
+        return id;
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "u");
+    }
+}
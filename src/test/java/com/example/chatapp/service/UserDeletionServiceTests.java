@@ -0,0 +1,193 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.dto.UserDeletionStatus;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.ChatMessage;
+import com.example.chatapp.model.Friendship;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatMessageRepository;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.FriendshipChangeRepository;
+import com.example.chatapp.repository.FriendshipRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.websocket.ClusterEvent;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Silme işinin kullanıcıyı hemen devre dışı bıraktığını ve ilişkili kayıtları arka planda temizlediğini doğrular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserDeletionServiceTests {
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private FriendshipChangeRepository friendshipChangeRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private FriendGraphService friendGraphService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private LocalClusterHub localClusterHub;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void disablesImmediatelyAndDeletesRelatedRows() throws Exception {
+        User deleted = saveUser();
+        User friend = saveUser();
+        User asked = saveUser();
+
+        Friendship friendship = new Friendship(deleted, friend);
+        friendship.setStatus(Friendship.FriendshipStatus.ACCEPTED);
+        friendshipRepository.save(friendship);
+        friendshipRepository.save(new Friendship(deleted, asked));
+        assertThat(friendGraphService.areFriends(friend.getId(), deleted.getId())).isTrue();
+
+        Chat chat = chatRepository.save(new Chat("grup", new HashSet<>(Set.of(deleted, friend))));
+        chatMessageRepository.save(new ChatMessage(deleted, chat, "silinecek"));
+        ChatMessage kept = chatMessageRepository.save(new ChatMessage(friend, chat, "kalacak"));
+        jdbcTemplate.update("insert into stories (user_id, caption) values (?, ?)", deleted.getId(), "hikaye");
+
+        String token = jwtService.generateToken(deleted.getUsername(), Role.USER);
+        UserDeletionStatus started = userDeletionService.startDeletion(deleted);
+        assertThat(started.getUserId()).isEqualTo(deleted.getId());
+
+        // Token ve principal silme bitmeden geçersizdir
+        assertThat(userDetailsService.findUserByUsername(deleted.getUsername())).isEmpty();
+        mockMvc.perform(get("/friendship/list").header("Authorization", "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+
+        UserDeletionStatus finished = awaitFinished(deleted.getId());
+        assertThat(finished.getState()).isEqualTo(UserDeletionStatus.State.COMPLETED);
+        assertThat(finished.getDeletedFriendships()).isEqualTo(2);
+        assertThat(finished.getDeletedMessages()).isEqualTo(1);
+        assertThat(finished.getDeletedMemberships()).isEqualTo(1);
+        assertThat(finished.getDeletedStories()).isEqualTo(1);
+
+        assertThat(userRepository.findById(deleted.getId())).isEmpty();
+        assertThat(friendshipRepository.findCounterpartIds(friend.getId(), Friendship.FriendshipStatus.ACCEPTED)).isEmpty();
+        assertThat(friendGraphService.areFriends(friend.getId(), deleted.getId())).isFalse();
+        assertThat(chatRepository.findParticipantIds(chat.getId())).containsExactly(friend.getId());
+        assertThat(chatMessageRepository.findById(kept.getId())).isPresent();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from stories where user_id = ?", Long.class, deleted.getId()))
+                .isZero();
+
+        // Karşı taraf silinen ilişkiyi değişiklik akışında görür
+        assertThat(friendshipChangeRepository.findSince(asked.getId(), 0, Limit.of(10)))
+                .extracting(change -> change.getChangeType().name())
+                .containsExactly("DELETED");
+    }
+
+    @Test
+    void disconnectsClusterFirstAndRemovesRowsWrittenDuringTheJob() throws Exception {
+        User deleted = saveUser();
+        User friend = saveUser();
+        Chat chat = chatRepository.save(new Chat("grup", new HashSet<>(Set.of(deleted, friend))));
+        chatMessageRepository.save(new ChatMessage(deleted, chat, "silinecek"));
+        ChatMessage unread = chatMessageRepository.save(new ChatMessage(friend, chat, "okunmadı"));
+        unreadCounterService.messagePersisted(chat.getId(), friend.getId(), unread.getId());
+        assertThat(unreadCounterService.getUnreadCount(deleted.getId(), chat.getId())).isEqualTo(1);
+
+        List<ClusterEvent.Type> received = new CopyOnWriteArrayList<>();
+        List<Long> messagesAtDisconnect = new CopyOnWriteArrayList<>();
+        UserDeletionStatus finished;
+        try (LocalClusterBus peer = localClusterHub.join("peer-" + UUID.randomUUID())) {
+            peer.subscribe(event -> {
+                if (event.id() != deleted.getId() || (event.type() != ClusterEvent.Type.USER_DISABLED
+                        && event.type() != ClusterEvent.Type.USER_REMOVED)) {
+                    return;
+                }
+                received.add(event.type());
+                if (event.type() == ClusterEvent.Type.USER_DISABLED) {
+                    messagesAtDisconnect.add(jdbcTemplate.queryForObject(
+                            "select count(*) from messages where sender_id = ?", Long.class, deleted.getId()));
+                } else if (event.type() == ClusterEvent.Type.USER_REMOVED) {
+                    // Parçalı silme bittikten sonra yazılan satırlar son transaction'da silinmeli
+                    jdbcTemplate.update("insert into stories (user_id, caption) values (?, ?)", deleted.getId(), "geç");
+                    jdbcTemplate.update("insert into chat_read_state (user_id, chat_id, unread_count, last_read_message_id, " +
+                            "updated_at) values (?, ?, 1, 0, ?)", deleted.getId(), chat.getId(), LocalDateTime.now());
+                }
+            });
+
+            userDeletionService.startDeletion(deleted);
+            finished = awaitFinished(deleted.getId());
+            assertThat(finished.getState()).isEqualTo(UserDeletionStatus.State.COMPLETED);
+            assertThat(received).containsExactly(ClusterEvent.Type.USER_DISABLED, ClusterEvent.Type.USER_REMOVED);
+            // Diğer düğümlere kapatma bildirimi silme başlamadan gider
+            assertThat(messagesAtDisconnect).containsExactly(1L);
+        }
+
+        assertThat(userRepository.findById(deleted.getId())).isEmpty();
+        assertThat(finished.getDeletedStories()).isEqualTo(1);
+        assertThat(unreadCounterService.getUnreadCount(deleted.getId(), chat.getId())).isZero();
+        unreadCounterService.checkpoint();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from chat_read_state where user_id = ?", Long.class,
+                deleted.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from stories where user_id = ?", Long.class,
+                deleted.getId())).isZero();
+    }
+
+    private UserDeletionStatus awaitFinished(Long userId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        UserDeletionStatus status = userDeletionService.getStatus(userId);
+        while (System.currentTimeMillis() < deadline && (status.getState() == UserDeletionStatus.State.PENDING
+                || status.getState() == UserDeletionStatus.State.RUNNING)) {
+            Thread.sleep(20);
+            status = userDeletionService.getStatus(userId);
+        }
+        return status;
+    }
+
+    private User saveUser() {
+        return TestUsers.save(userRepository, "d");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.chatapp.service;
+
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.websocket.LocalClusterBus;
+import com.example.chatapp.websocket.LocalClusterHub;
+import com.example.chatapp.websocket.StompPrincipalRegistry;
+import com.example.chatapp.websocket.WebSocketSessionRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Çıkışta yalnızca o token ile açılmış oturumların, tüm oturumları kapatmada ise kullanıcının bütün oturumlarının
+ * her düğümde kapatıldığını doğrular.
+ */
+class UserSessionServiceTests {
+
+    private static final long USER_ID = 1L;
+    private static final String TOKEN = UUID.randomUUID().toString();
+    private static final String OTHER_TOKEN = UUID.randomUUID().toString();
+
+    private LocalClusterHub hub;
+    private final List<LocalClusterBus> nodes = new ArrayList<>();
+
+    private Node a;
+    private Node b;
+
+    @BeforeEach
+    void setUp() {
+        hub = LocalClusterHub.named("sessions-" + UUID.randomUUID());
+        a = new Node(join("a"));
+        b = new Node(join("b"));
+
+        a.connect("a-phone", TOKEN);
+        a.connect("a-laptop", OTHER_TOKEN);
+        b.connect("b-phone", TOKEN);
+        b.connect("b-tablet", OTHER_TOKEN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(LocalClusterBus::close);
+    }
+
+    @Test
+    void logoutClosesOnlySessionsOpenedWithThatToken() {
+        a.service.closeToken(USER_ID, TOKEN);
+
+        verify(a.sessions).close("a-phone", CloseStatus.POLICY_VIOLATION);
+        verify(b.sessions).close("b-phone", CloseStatus.POLICY_VIOLATION);
+        verify(a.sessions, never()).close(eq("a-laptop"), eq(CloseStatus.POLICY_VIOLATION));
+        verify(b.sessions, never()).close(eq("b-tablet"), eq(CloseStatus.POLICY_VIOLATION));
+    }
+
+    @Test
+    void revokeAllClosesEverySessionOnEveryNode() {
+        b.service.closeAll(USER_ID);
+
+        verify(a.sessions).close("a-phone", CloseStatus.POLICY_VIOLATION);
+        verify(a.sessions).close("a-laptop", CloseStatus.POLICY_VIOLATION);
+        verify(b.sessions).close("b-phone", CloseStatus.POLICY_VIOLATION);
+        verify(b.sessions).close("b-tablet", CloseStatus.POLICY_VIOLATION);
+    }
+
+    @Test
+    void tokenWithoutUuidJtiClosesEverySession() {
+        a.service.closeToken(USER_ID, null);
+
+        verify(a.sessions).close("a-phone", CloseStatus.POLICY_VIOLATION);
+        verify(a.sessions).close("a-laptop", CloseStatus.POLICY_VIOLATION);
+        verify(b.sessions).close("b-phone", CloseStatus.POLICY_VIOLATION);
+        verify(b.sessions).close("b-tablet", CloseStatus.POLICY_VIOLATION);
+    }
+
+    private LocalClusterBus join(String nodeId) {
+        LocalClusterBus node = hub.join(nodeId);
+        nodes.add(node);
+        return node;
+    }
+
+    // Aynı kümedeki bir düğümün oturum kayıtları
+    private class Node {
+
+        final StompPrincipalRegistry principals;
+        final WebSocketSessionRegistry sessions = mock(WebSocketSessionRegistry.class);
+        final UserSessionService service;
+
+        Node(LocalClusterBus bus) {
+            principals = new StompPrincipalRegistry(hub, bus);
+            service = new UserSessionService(principals, sessions, bus);
+            service.subscribe();
+        }
+
+        void connect(String sessionId, String tokenId) {
+            principals.register(sessionId, new StompPrincipal(USER_ID, "ali", null, tokenId, Set.of()));
+        }
+    }
+}
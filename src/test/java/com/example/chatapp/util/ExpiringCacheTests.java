@@ -0,0 +1,49 @@
+package com.example.chatapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2);
+        cache.putWithTtl("a", 1, 60_000);
+        cache.putWithTtl("b", 2, 60_000);
+
+        // a okunduğu için en uzun süredir kullanılmayan b'dir
+        assertThat(cache.get("a")).isEqualTo(1);
+        cache.putWithTtl("c", 3, 60_000);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10);
+        cache.putWithTtl("a", 1, 20);
+        cache.putWithTtl("b", 2, -1);
+
+        assertThat(cache.get("b")).isNull();
+        Thread.sleep(40);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void conditionalWritesKeepExistingEntry() {
+        ExpiringCache<String, int[]> cache = new ExpiringCache<>(10);
+        int[] first = {1};
+        assertThat(cache.putIfAbsent("a", first, 60_000)).isNull();
+        assertThat(cache.putIfAbsent("a", new int[]{2}, 60_000)).isSameAs(first);
+
+        // Yalnızca aynı değere bağlı girdi silinir
+        assertThat(cache.invalidate("a", new int[]{1})).isFalse();
+        assertThat(cache.invalidate("a", first)).isTrue();
+        assertThat(cache.get("a")).isNull();
+    }
+}
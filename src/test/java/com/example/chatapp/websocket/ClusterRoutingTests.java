@@ -0,0 +1,153 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.model.StompPrincipal;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.service.ChatFanoutService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aynı JVM'de üç düğüm: mesaj yalnızca alıcının bağlı olduğu düğüme yönlendirilmeli, diğerlerine gitmemeli.
+ * Üyelik değişiklikleri ise tüm düğümlerin önbelleklerine ve oturum kopyalarına yansımalı.
+ */
+class ClusterRoutingTests {
+
+    private LocalClusterHub hub;
+    private Node a;
+    private Node b;
+    private Node c;
+
+    private ChatRepository chatRepository;
+
+    @BeforeEach
+    void setUp() {
+        hub = LocalClusterHub.named(UUID.randomUUID().toString());
+        chatRepository = mock(ChatRepository.class);
+        when(chatRepository.findParticipantIds(1L)).thenReturn(List.of(10L, 20L, 30L));
+
+        a = new Node("a", chatRepository);
+        b = new Node("b", chatRepository);
+        c = new Node("c", chatRepository);
+
+        a.connect("s1", 10L, "ali");
+        b.connect("s2", 20L, "veli");
+        // 30 bağlı değil; c düğümünde sohbetle ilgisi olmayan bir kullanıcı var
+        c.connect("s3", 99L, "zeynep");
+    }
+
+    @Test
+    void routesOnlyToNodeHoldingRecipient() {
+        int delivered = a.fanout.deliver(1L, "/queue/messages", Map.of("content", "merhaba"));
+
+        assertThat(delivered).isEqualTo(2);
+        verify(a.messagingTemplate).send(eq("/user/ali/queue/messages"), any(Message.class));
+
+        ArgumentCaptor<Message<?>> frame = ArgumentCaptor.forClass(Message.class);
+        verify(b.messagingTemplate).send(eq("/user/veli/queue/messages"), frame.capture());
+        assertThat(new String((byte[]) frame.getValue().getPayload())).isEqualTo("{\"content\":\"merhaba\"}");
+
+        verify(c.messagingTemplate, never()).send(anyString(), any(Message.class));
+    }
+
+    @Test
+    void userWithSessionsOnTwoNodesReceivesOnBoth() {
+        c.connect("s4", 20L, "veli");
+        a.fanout.deliver(1L, "/queue/messages", "x", 10L, null);
+
+        verify(a.messagingTemplate, never()).send(anyString(), any(Message.class));
+        verify(b.messagingTemplate).send(eq("/user/veli/queue/messages"), any(Message.class));
+        verify(c.messagingTemplate).send(eq("/user/veli/queue/messages"), any(Message.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        a.bus.close();
+        b.bus.close();
+        c.bus.close();
+    }
+
+    @Test
+    void membershipChangesReachEveryNode() {
+        assertThat(b.fanout.getParticipantIds(1L)).containsExactly(10L, 20L, 30L);
+        when(chatRepository.findParticipantIds(1L)).thenReturn(List.of(10L, 20L, 30L, 40L));
+
+        a.fanout.chatJoined(2L, new long[]{20L});
+        a.fanout.chatJoined(1L, new long[]{40L});
+
+        assertThat(b.fanout.getParticipantIds(1L)).containsExactly(10L, 20L, 30L, 40L);
+        assertThat(b.principal("s2").isChatMember(2L)).isTrue();
+
+        a.fanout.chatLeft(2L, new long[]{20L});
+        assertThat(b.principal("s2").isChatMember(2L)).isFalse();
+    }
+
+    @Test
+    void hubIsReleasedWhenLastNodeLeaves() {
+        String name = UUID.randomUUID().toString();
+        LocalClusterHub temporary = LocalClusterHub.named(name);
+        temporary.join("x").close();
+        assertThat(LocalClusterHub.named(name)).isNotSameAs(temporary);
+    }
+
+    @Test
+    void nodeIsForgottenAfterLastSessionOrShutdown() {
+        b.disconnect("s2");
+        assertThat(hub.groupByNode(new long[]{20L})).isEmpty();
+
+        c.bus.close();
+        assertThat(hub.groupByNode(new long[]{99L})).isEmpty();
+        assertThat(a.fanout.deliver(1L, "/queue/messages", "x")).isEqualTo(1);
+    }
+
+    private final class Node {
+        private final LocalClusterBus bus;
+        private final StompPrincipalRegistry registry;
+        private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        private final ChatFanoutService fanout;
+        private final Map<String, StompPrincipal> principals = new HashMap<>();
+
+        private Node(String nodeId, ChatRepository chatRepository) {
+            bus = hub.join(nodeId);
+            registry = new StompPrincipalRegistry(hub, bus);
+            fanout = new ChatFanoutService(chatRepository, registry, bus, hub, messagingTemplate,
+                    new ObjectMapper(), new SimpleMeterRegistry(), 60_000, 100);
+        }
+
+        private void connect(String sessionId, long userId, String username) {
+            StompPrincipal principal = new StompPrincipal(userId, username, Set.of(1L));
+            principals.put(sessionId, principal);
+            registry.register(sessionId, principal);
+        }
+
+        private StompPrincipal principal(String sessionId) {
+            return principals.get(sessionId);
+        }
+
+        private void disconnect(String sessionId) {
+            registry.onDisconnect(new SessionDisconnectEvent(this, mock(Message.class), sessionId, CloseStatus.NORMAL));
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uygulamayı rastgele portta (bellek içi H2 ile) başlatıp çok sayıda STOMP oturumu açar, sabit hızda
+ * mesaj gönderir ve gönderimden alıcıya teslime kadar geçen süreyi ölçer (broker + fan-out yolu).
+ * Varsayılan derlemede çalışmaz: mvn test -Pload-test [-Dload.sessions=5000 -Dload.rate=2000 ...]
+ * <ul>
+ *     <li>load.sessions: açılacak oturum (kullanıcı) sayısı</li>
+ *     <li>load.chat-size: sohbet başına katılımcı (son sohbet daha küçük olabilir)</li>
+ *     <li>load.rate: saniyede gönderilen mesaj</li>
+ *     <li>load.warmup-seconds: ölçüme katılmayan ısınma süresi (JIT, önbellekler); birikimi boşaldıktan sonra ölçülür</li>
+ *     <li>load.duration-seconds: ölçülen gönderim süresi</li>
+ *     <li>load.max-p99-ms: aşılırsa test başarısız olur</li>
+ * </ul>
+ * Beklenen teslimler her gönderimde sohbetin gerçek alıcılarından oturum başına hesaplanır ve oturum başına doğrulanır.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "logging.level.org.springframework.web.socket=WARN"})
+class DeliveryLoadTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryLoadTests.class);
+
+    private static final int SESSIONS = Integer.getInteger("load.sessions", 1000);
+    private static final int CHAT_SIZE = Integer.getInteger("load.chat-size", 10);
+    private static final int RATE = Integer.getInteger("load.rate", 500);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 20);
+    private static final long MAX_P99_MILLIS = Long.getLong("load.max-p99-ms", 1000);
+
+    private static final long TICK_MILLIS = 10;
+
+    // ChatMessageService mesajı gönderen dahil sohbetin tüm katılımcılarına dağıtır (gönderenin diğer cihazları için)
+    private static final boolean SENDER_RECEIVES_OWN_MESSAGE = true;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final LatencyRecorder latencies = new LatencyRecorder();
+    private final AtomicLong warmupDeliveries = new AtomicLong();
+
+    // Oturum sırasına göre beklenen ve alınan ölçüm teslimleri
+    private final AtomicLongArray warmupExpected = new AtomicLongArray(SESSIONS);
+    private final AtomicLongArray measuredExpected = new AtomicLongArray(SESSIONS);
+    private final AtomicLongArray measuredReceived = new AtomicLongArray(SESSIONS);
+    private final AtomicInteger transportErrors = new AtomicInteger();
+
+    @Test
+    void deliveryLatencyUnderLoad() throws Exception {
+        List<User> users = createUsers();
+        List<Long> chatIds = createChats(users);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeapAfterGc(memory);
+
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        List<StompSession> sessions = connect(client, users);
+        Thread.sleep(1000); // Aboneliklerin işlenmesi için
+
+        long heapPerSession = (usedHeapAfterGc(memory) - heapBefore) / SESSIONS;
+
+        // Isınma mesajları "w:", ölçülenler "t:" önekiyle gönderilir; ısınmanın birikimi boşalmadan ölçüme geçilmez
+        drive(sessions, chatIds, "w:", WARMUP_SECONDS, warmupExpected);
+        awaitDrain(warmupDeliveries::get, sum(warmupExpected));
+
+        long started = System.nanoTime();
+        long sent = drive(sessions, chatIds, "t:", DURATION_SECONDS, measuredExpected);
+        double sendSeconds = (System.nanoTime() - started) / 1e9;
+
+        long expected = sum(measuredExpected);
+        awaitDrain(latencies::size, expected);
+        double totalSeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = latencies.sorted();
+        logger.info("Yük testi: {} oturum, sohbet başına {} katılımcı, hedef {} mesaj/sn, {} sn (+{} sn ısınma)",
+                SESSIONS, CHAT_SIZE, RATE, DURATION_SECONDS, WARMUP_SECONDS);
+        logger.info("Ölçülen gönderim {}, teslim edilen {} / beklenen {}, taşıma hatası {}",
+                sent, sorted.length, expected, transportErrors.get());
+        logger.info("Teslim gecikmesi: p50={} ms, p99={} ms, p999={} ms, max={} ms",
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)), millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+        logger.info("Verim: {} gönderim/sn, {} teslim/sn", Math.round(sent / sendSeconds), Math.round(sorted.length / totalSeconds));
+        logger.info("Oturum başına heap: {} KB (sunucu ve test istemcisi birlikte)", heapPerSession / 1024);
+
+        sessions.forEach(StompSession::disconnect);
+        client.stop();
+
+        assertThat(transportErrors.get()).isZero();
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            if (measuredReceived.get(i) != measuredExpected.get(i)) {
+                mismatches.add("oturum " + i + ": " + measuredReceived.get(i) + " / " + measuredExpected.get(i));
+            }
+        }
+        assertThat(mismatches).as("alınan / beklenen teslim").isEmpty();
+        assertThat(sorted.length).isEqualTo(expected);
+        assertThat(millis(percentile(sorted, 0.99))).isLessThanOrEqualTo(MAX_P99_MILLIS);
+    }
+
+    private List<User> createUsers() {
+        String prefix = "load" + UUID.randomUUID().toString().substring(0, 6) + "-";
+        List<User> users = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            users.add(new User("Yuk", "Testi", prefix + i, TestUsers.PASSWORD_HASH,
+                    prefix + i + "@test.com", Role.USER, false, null, null));
+        }
+        return userRepository.saveAll(users);
+    }
+
+    // Ardışık CHAT_SIZE kullanıcı aynı sohbettedir; i. oturumun sohbeti i / CHAT_SIZE
+    private List<Long> createChats(List<User> users) {
+        List<Chat> chats = new ArrayList<>();
+        for (int from = 0; from < users.size(); from += CHAT_SIZE) {
+            Set<User> participants = new HashSet<>(users.subList(from, Math.min(from + CHAT_SIZE, users.size())));
+            chats.add(new Chat("yuk-" + from, participants));
+        }
+        return chatRepository.saveAll(chats).stream().map(Chat::getId).toList();
+    }
+
+    // Ardışık oturumlar [from, to) aynı sohbettedir; gönderen dışlanıyorsa listede yer almaz
+    private static int[] recipients(int sender) {
+        int from = sender / CHAT_SIZE * CHAT_SIZE;
+        int to = Math.min(from + CHAT_SIZE, SESSIONS);
+        return IntStream.range(from, to)
+                .filter(index -> SENDER_RECEIVES_OWN_MESSAGE || index != sender)
+                .toArray();
+    }
+
+    private static long sum(AtomicLongArray counts) {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private StompFrameHandler receiver(int index) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                String content = (String) ((Map<?, ?>) payload).get("content");
+                if (content.startsWith("t:")) {
+                    latencies.record(System.nanoTime() - Long.parseLong(content.substring(2)));
+                    measuredReceived.incrementAndGet(index);
+                } else {
+                    warmupDeliveries.incrementAndGet();
+                }
+            }
+        };
+    }
+
+    private List<StompSession> connect(WebSocketStompClient client, List<User> users) throws Exception {
+        URI uri = URI.create("ws://localhost:" + port + BinaryFrameDecoratorFactory.NATIVE_ENDPOINT);
+        StompSessionHandlerAdapter handler = new StompSessionHandlerAdapter() {
+            @Override
+            public void handleTransportError(StompSession session, Throwable exception) {
+                transportErrors.incrementAndGet();
+            }
+        };
+
+        List<CompletableFuture<StompSession>> pending = new ArrayList<>(users.size());
+        for (User user : users) {
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(user.getUsername(), Role.USER));
+            pending.add(client.connectAsync(uri, new WebSocketHttpHeaders(), connectHeaders, handler));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+
+        List<StompSession> sessions = new ArrayList<>(users.size());
+        for (int i = 0; i < pending.size(); i++) {
+            StompSession session = pending.get(i).join();
+            session.subscribe("/user/queue/messages", receiver(i));
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    // Oturumlar sırayla gönderen olur; mesaj hızı TICK_MILLIS aralıklarla dağıtılır. Her gönderimin alıcıları
+    // expected'a işlenir. Gönderilen mesaj sayısını döner.
+    private long drive(List<StompSession> sessions, List<Long> chatIds, String prefix, int seconds,
+                       AtomicLongArray expected) throws InterruptedException {
+        AtomicLong sent = new AtomicLong();
+        double perTick = RATE * TICK_MILLIS / 1000.0;
+        double[] credit = {0};
+        ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor();
+        sender.scheduleAtFixedRate(() -> {
+            credit[0] += perTick;
+            while (credit[0] >= 1) {
+                credit[0]--;
+                int index = (int) (sent.getAndIncrement() % SESSIONS);
+                StompHeaders headers = new StompHeaders();
+                headers.setDestination("/app/chat.send");
+                sessions.get(index).send(headers, Map.of(
+                        "chatId", chatIds.get(index / CHAT_SIZE),
+                        "content", prefix + System.nanoTime(),
+                        "clientMessageId", "l-" + index));
+                for (int recipient : recipients(index)) {
+                    expected.incrementAndGet(recipient);
+                }
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+        return sent.get();
+    }
+
+    // Teslim sayısı beklenene ulaşana ya da 10 sn boyunca artmayana kadar bekler
+    private static void awaitDrain(LongSupplier delivered, long expected) throws InterruptedException {
+        long last = -1;
+        long stableSince = System.nanoTime();
+        while (delivered.getAsLong() < expected && System.nanoTime() - stableSince < TimeUnit.SECONDS.toNanos(10)) {
+            Thread.sleep(100);
+            long current = delivered.getAsLong();
+            if (current != last) {
+                last = current;
+                stableSince = System.nanoTime();
+            }
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        System.gc();
+        Thread.sleep(200);
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final class LatencyRecorder {
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.dto.ChatMessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tek bir sohbet mesajının kabloya çıkan boyutu ve kodlama maliyeti: SockJS + JSON (mevcut yol) ile
+ * yerel WebSocket + CBOR karşılaştırılır. CBOR yolu sunucudakiyle aynıdır: yük JSON'a serileştirilir,
+ * FrameEncodingInterceptor onu CBOR'a çevirir. Deflate sütunu permessage-deflate'in (bağlam paylaşımı olmadan)
+ * yaklaşık karşılığıdır. Boyut karşılaştırması varsayılan derlemede çalışır; kodlama süreleri ölçen döngüler
+ * yavaş ve makineye bağlı olduğundan yalnızca yük profilinde (mvn test -Pload-test) çalışır ve doğrulanmaz, loglanır.
+ */
+class FrameEncodingBenchmarkTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(FrameEncodingBenchmarkTests.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final FrameEncodingInterceptor frameEncoding = new FrameEncodingInterceptor(new SimpleMeterRegistry());
+    private final StompEncoder stompEncoder = new StompEncoder();
+    private final Jackson2SockJsMessageCodec sockJsCodec = new Jackson2SockJsMessageCodec();
+
+    private final ChatMessageResponse message = new ChatMessageResponse(
+            1_234_567L, 42L, 7L, "ayse.yilmaz", "Akşam 8'de buluşuyoruz, geç kalma!", LocalDateTime.of(2024, 5, 1, 19, 30, 15));
+
+    @Test
+    void nativeCborFramesAreSmallerThanSockJsJson() {
+        byte[] sockJs = sockJsJson();
+        byte[] cbor = nativeCbor();
+        logger.info("sockjs+json: {} bayt, deflate ile {} bayt", sockJs.length, deflate(sockJs));
+        logger.info("native+cbor: {} bayt, deflate ile {} bayt", cbor.length, deflate(cbor));
+
+        assertThat(cbor.length).isLessThan(sockJs.length);
+        assertThat(deflate(cbor)).isLessThan(deflate(sockJs));
+    }
+
+    @Test
+    @Tag("load")
+    void reportsEncodingCost() {
+        report("sockjs+json", this::sockJsJson);
+        report("native+cbor", this::nativeCbor);
+    }
+
+    // Mevcut yol: JSON gövde, STOMP metin çerçevesi, SockJS "a[...]" dizisi içinde JSON-escape edilmiş dize
+    private byte[] sockJsJson() {
+        try {
+            byte[] frame = stompEncoder.encode(headers(MimeTypeUtils.APPLICATION_JSON), jsonMapper.writeValueAsBytes(message));
+            return sockJsCodec.encode(new String(frame, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Yerel uç nokta: JSON gövde CBOR'a çevrilir, STOMP çerçevesi doğrudan ikili WebSocket mesajı
+    private byte[] nativeCbor() {
+        try {
+            byte[] cbor = frameEncoding.jsonToCbor(jsonMapper.writeValueAsBytes(message));
+            return stompEncoder.encode(headers(CborMessageConverter.APPLICATION_CBOR), cbor);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, Object> headers(MimeType contentType) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        accessor.setDestination("/user/queue/messages");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setMessageId("k3j2h1-42");
+        accessor.setContentType(contentType);
+        return accessor.getMessageHeaders();
+    }
+
+    private static void report(String name, Supplier<byte[]> encoder) {
+        for (int i = 0; i < WARMUP; i++) {
+            encoder.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            encoder.get();
+        }
+        long nanosPerMessage = (System.nanoTime() - start) / ITERATIONS;
+        logger.info("{}: {} ns/mesaj", name, nanosPerMessage);
+    }
+
+    private static int deflate(byte[] frame) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(frame);
+        deflater.finish();
+        byte[] buffer = new byte[frame.length * 2 + 64];
+        int length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+        deflater.end();
+        return length;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.chatapp.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FrameEncodingInterceptorTests {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    private SimpleMeterRegistry meterRegistry;
+    private FrameEncodingInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new FrameEncodingInterceptor(meterRegistry);
+        connect("s1");
+        connect("s2");
+    }
+
+    @Test
+    void interleavedFanOutsTranscodeEachPayloadOnce() {
+        byte[] first = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "{\"id\":2}".getBytes(StandardCharsets.UTF_8);
+
+        // İki yükün çerçeveleri outbound kanalında iç içe gelir
+        byte[] firstCbor = (byte[]) interceptor.preSend(frame("s1", first), channel).getPayload();
+        byte[] secondCbor = (byte[]) interceptor.preSend(frame("s1", second), channel).getPayload();
+        assertThat(interceptor.preSend(frame("s2", first), channel).getPayload()).isSameAs(firstCbor);
+        assertThat(interceptor.preSend(frame("s2", second), channel).getPayload()).isSameAs(secondCbor);
+
+        assertThat(meterRegistry.get("websocket.outbound.transcoded").counter().count()).isEqualTo(2);
+    }
+
+    private void connect(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        accessor.setNativeHeader(FrameEncodingInterceptor.ACCEPT_CONTENT_TYPE_HEADER,
+                CborMessageConverter.APPLICATION_CBOR.toString());
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(BinaryFrameDecoratorFactory.NATIVE_ENDPOINT_ATTRIBUTE, Boolean.TRUE);
+        accessor.setSessionAttributes(attributes);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+        assertThat(interceptor.isCborSession(sessionId)).isTrue();
+    }
+
+    private static Message<byte[]> frame(String sessionId, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.createMessage(json, accessor.getMessageHeaders());
+    }
+}
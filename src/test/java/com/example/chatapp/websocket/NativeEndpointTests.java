@@ -0,0 +1,174 @@
+package com.example.chatapp.websocket;
+
+import com.example.chatapp.TestUsers;
+import com.example.chatapp.model.Chat;
+import com.example.chatapp.model.Role;
+import com.example.chatapp.model.User;
+import com.example.chatapp.repository.ChatRepository;
+import com.example.chatapp.repository.UserRepository;
+import com.example.chatapp.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Yerel uç noktada permessage-deflate anlaşmasını ve CBOR gövdeli STOMP gidiş-dönüşünü doğrular.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties =
+        "spring.datasource.url=jdbc:h2:mem:nativews;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class NativeEndpointTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private User user;
+    private Chat chat;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.save(userRepository, "n");
+        chat = chatRepository.save(new Chat(null, Set.of(user)));
+    }
+
+    @Test
+    void permessageDeflateIsNegotiated() throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.setSecWebSocketExtensions(List.of(new WebSocketExtension("permessage-deflate")));
+
+        WebSocketSession session = new StandardWebSocketClient()
+                .execute(new AbstractWebSocketHandler() { }, headers, uri())
+                .get(5, TimeUnit.SECONDS);
+        try {
+            assertThat(session.getExtensions()).extracting(WebSocketExtension::getName).contains("permessage-deflate");
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cborSendIsAcknowledgedWithCborFrame() throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new BinaryFrameClient(new StandardWebSocketClient()));
+        client.setMessageConverter(new MappingJackson2MessageConverter(
+                new ObjectMapper(new CBORFactory()), CborMessageConverter.APPLICATION_CBOR));
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(user.getUsername(), Role.USER));
+        connectHeaders.add(FrameEncodingInterceptor.ACCEPT_CONTENT_TYPE_HEADER, "application/cbor");
+        StompSession session = client.connectAsync(uri(), null, connectHeaders, new StompSessionHandlerAdapter() { })
+                .get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<Map<String, Object>> ack = new CompletableFuture<>();
+        session.subscribe("/user/queue/acks", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                assertThat(headers.getContentType()).isEqualTo(CborMessageConverter.APPLICATION_CBOR);
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                ack.complete((Map<String, Object>) payload);
+            }
+        });
+
+        StompHeaders sendHeaders = new StompHeaders();
+        sendHeaders.setDestination("/app/chat.send");
+        sendHeaders.setContentType(CborMessageConverter.APPLICATION_CBOR);
+        // Simple broker SUBSCRIBE için receipt göndermez; abonelik işlenmeden gelen onay kaybolur.
+        // Bu yüzden ilk onay çerçevesi gelene kadar mesaj yeniden gönderilir
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (int attempt = 1; !ack.isDone() && System.nanoTime() < deadline; attempt++) {
+            session.send(sendHeaders, Map.of("chatId", chat.getId(), "content", "merhaba", "clientMessageId", "c-" + attempt));
+            try {
+                ack.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Onay henüz gelmedi
+            }
+        }
+
+        Map<String, Object> result = ack.get(5, TimeUnit.SECONDS);
+        assertThat((String) result.get("clientMessageId")).startsWith("c-");
+        assertThat(result.get("messageId")).isNotNull();
+        session.disconnect();
+    }
+
+    private URI uri() {
+        return URI.create("ws://localhost:" + port + BinaryFrameDecoratorFactory.NATIVE_ENDPOINT);
+    }
+
+    /**
+     * Yerel istemci gibi davranır: CBOR gövdeli çerçeveler ikili mesaj olarak gönderilir.
+     * WebSocketStompClient yalnızca application/octet-stream gövdeleri ikili gönderir.
+     */
+    private record BinaryFrameClient(WebSocketClient delegate) implements WebSocketClient {
+
+        @Override
+        public CompletableFuture<WebSocketSession> execute(WebSocketHandler handler, String uriTemplate, Object... uriVariables) {
+            return delegate.execute(decorate(handler), uriTemplate, uriVariables);
+        }
+
+        @Override
+        public CompletableFuture<WebSocketSession> execute(WebSocketHandler handler, WebSocketHttpHeaders headers, URI uri) {
+            return delegate.execute(decorate(handler), headers, uri);
+        }
+
+        private static WebSocketHandler decorate(WebSocketHandler handler) {
+            return new WebSocketHandlerDecorator(handler) {
+                @Override
+                public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                    super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                        @Override
+                        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                            super.sendMessage(message instanceof TextMessage text
+                                    ? new BinaryMessage(text.asBytes(), text.isLast()) : message);
+                        }
+                    });
+                }
+            };
+        }
+    }
+}
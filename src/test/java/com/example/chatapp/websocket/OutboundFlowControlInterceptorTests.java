@@ -0,0 +1,86 @@
+package com.example.chatapp.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundFlowControlInterceptorTests {
+
+    private static final String SESSION_ID = "s1";
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final MessageHandler handler = mock(MessageHandler.class);
+
+    private WebSocketSessionRegistry sessionRegistry;
+    private OutboundFlowControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        sessionRegistry = mock(WebSocketSessionRegistry.class);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(SESSION_ID);
+        when(sessionRegistry.get(SESSION_ID)).thenReturn(session);
+        interceptor = new OutboundFlowControlInterceptor(sessionRegistry, new SimpleMeterRegistry(), 3, 1024);
+    }
+
+    @Test
+    void supersededCoalescibleFramesAreSkipped() {
+        Message<?> first = interceptor.preSend(frame("typing:7", 10), channel);
+        Message<?> second = interceptor.preSend(frame("typing:7", 10), channel);
+
+        assertThat(interceptor.beforeHandle(first, channel, handler)).isNull();
+        assertThat(interceptor.beforeHandle(second, channel, handler)).isSameAs(second);
+        interceptor.afterMessageHandled(second, channel, handler, null);
+    }
+
+    @Test
+    void coalescibleFramesAreDroppedWhenQueueIsFull() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(interceptor.preSend(frame(null, 10), channel)).isNotNull();
+        }
+        assertThat(interceptor.preSend(frame("presence:1", 10), channel)).isNull();
+        verify(sessionRegistry, never()).close(SESSION_ID, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void slowConsumerIsClosedOnceWhenRegularFrameOverflows() {
+        assertThat(interceptor.preSend(frame(null, 1000), channel)).isNotNull();
+        assertThat(interceptor.preSend(frame(null, 100), channel)).isNull();
+        assertThat(interceptor.preSend(frame(null, 100), channel)).isNull();
+        verify(sessionRegistry, times(1)).close(SESSION_ID, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    @Test
+    void handledFramesFreeQueueSpace() {
+        for (int i = 0; i < 10; i++) {
+            Message<?> message = interceptor.preSend(frame(null, 100), channel);
+            assertThat(message).isNotNull();
+            interceptor.afterMessageHandled(interceptor.beforeHandle(message, channel, handler), channel, handler, null);
+        }
+        verify(sessionRegistry, never()).close(SESSION_ID, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private static Message<byte[]> frame(String coalesceKey, int size) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        if (coalesceKey != null) {
+            accessor.setNativeHeader(OutboundFlowControlInterceptor.COALESCE_KEY_HEADER, coalesceKey);
+        }
+        return MessageBuilder.createMessage(new byte[size], accessor.getMessageHeaders());
+    }
+}